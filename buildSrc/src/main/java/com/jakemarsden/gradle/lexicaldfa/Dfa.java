@@ -0,0 +1,75 @@
+package com.jakemarsden.gradle.lexicaldfa;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A DFA over ASCII characters which recognises the rules of a {@link LexicalSpec}. Every rule has a
+ * single fixed text, so the trie of those texts is already deterministic and is used as-is.
+ *
+ * <p>Characters which appear in the same rules are interchangeable, so transitions are indexed by
+ * character class rather than by character to keep the table small. Class {@code 0} holds every
+ * character which doesn't appear in any rule, and always leads to the {@link #DEAD_STATE}.
+ */
+final class Dfa {
+
+  static final int ALPHABET_SIZE = 128;
+  static final int DEAD_STATE = 0;
+  static final int START_STATE = 1;
+  static final int NOT_ACCEPTING = -1;
+
+  static Dfa build(LexicalSpec spec) {
+    final var charClasses = new int[ALPHABET_SIZE];
+    var classCount = 1;
+    for (final var rule : spec.rules()) {
+      for (final var ch : rule.text.toCharArray()) {
+        if (charClasses[ch] == 0) charClasses[ch] = classCount++;
+      }
+    }
+
+    final var transitions = new ArrayList<int[]>();
+    final var accepts = new ArrayList<Integer>();
+    // the dead state and the start state
+    for (int idx = 0; idx < 2; idx++) {
+      transitions.add(new int[classCount]);
+      accepts.add(NOT_ACCEPTING);
+    }
+
+    final var rules = spec.rules();
+    for (int ruleIdx = 0; ruleIdx < rules.size(); ruleIdx++) {
+      var state = START_STATE;
+      for (final var ch : rules.get(ruleIdx).text.toCharArray()) {
+        final var row = transitions.get(state);
+        if (row[charClasses[ch]] == DEAD_STATE) {
+          row[charClasses[ch]] = transitions.size();
+          transitions.add(new int[classCount]);
+          accepts.add(NOT_ACCEPTING);
+        }
+        state = row[charClasses[ch]];
+      }
+      accepts.set(state, ruleIdx);
+    }
+    return new Dfa(charClasses, classCount, transitions, accepts);
+  }
+
+  final int[] charClasses;
+  final int classCount;
+  final int stateCount;
+
+  /** Indexed by {@code state * classCount + charClass}. */
+  final int[] transitions;
+
+  /** The rule accepted by each state, or {@link #NOT_ACCEPTING}. */
+  final int[] accepts;
+
+  private Dfa(int[] charClasses, int classCount, List<int[]> transitions, List<Integer> accepts) {
+    this.charClasses = charClasses;
+    this.classCount = classCount;
+    this.stateCount = transitions.size();
+    this.transitions = new int[this.stateCount * classCount];
+    for (int state = 0; state < this.stateCount; state++) {
+      System.arraycopy(transitions.get(state), 0, this.transitions, state * classCount, classCount);
+    }
+    this.accepts = accepts.stream().mapToInt(Integer::intValue).toArray();
+  }
+}
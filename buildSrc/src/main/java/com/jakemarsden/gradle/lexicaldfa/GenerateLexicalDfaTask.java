@@ -0,0 +1,62 @@
+package com.jakemarsden.gradle.lexicaldfa;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import javax.inject.Inject;
+import org.gradle.api.DefaultTask;
+import org.gradle.api.file.DirectoryProperty;
+import org.gradle.api.file.RegularFileProperty;
+import org.gradle.api.model.ObjectFactory;
+import org.gradle.api.provider.Property;
+import org.gradle.api.tasks.Input;
+import org.gradle.api.tasks.InputFile;
+import org.gradle.api.tasks.OutputDirectory;
+import org.gradle.api.tasks.PathSensitive;
+import org.gradle.api.tasks.PathSensitivity;
+import org.gradle.api.tasks.TaskAction;
+
+public class GenerateLexicalDfaTask extends DefaultTask {
+
+  private final RegularFileProperty spec;
+  private final Property<String> className;
+  private final DirectoryProperty outputDir;
+
+  @Inject
+  public GenerateLexicalDfaTask(ObjectFactory objFactory) {
+    this.spec = objFactory.fileProperty();
+    this.className = objFactory.property(String.class);
+    this.outputDir = objFactory.directoryProperty();
+  }
+
+  @InputFile
+  @PathSensitive(PathSensitivity.NAME_ONLY)
+  public RegularFileProperty getSpec() {
+    return this.spec;
+  }
+
+  @Input
+  public Property<String> getClassName() {
+    return this.className;
+  }
+
+  @OutputDirectory
+  public DirectoryProperty getOutputDir() {
+    return this.outputDir;
+  }
+
+  @TaskAction
+  public void generate() throws IOException {
+    final var specFile = this.spec.getAsFile().get().toPath();
+    final var className = this.className.get();
+    final var outputDir = this.outputDir.getAsFile().get().toPath();
+
+    final var spec = LexicalSpec.parse(Files.readAllLines(specFile));
+    final var source =
+        LexicalDfaSourceGenerator.generate(spec, className, specFile.getFileName().toString());
+
+    this.getProject().delete(outputDir);
+    final var outputFile = outputDir.resolve(className.replace('.', '/') + ".java");
+    Files.createDirectories(outputFile.getParent());
+    Files.writeString(outputFile, source);
+  }
+}
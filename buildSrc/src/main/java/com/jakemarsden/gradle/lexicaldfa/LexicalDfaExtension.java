@@ -0,0 +1,25 @@
+package com.jakemarsden.gradle.lexicaldfa;
+
+import javax.inject.Inject;
+import org.gradle.api.file.DirectoryProperty;
+import org.gradle.api.file.ProjectLayout;
+import org.gradle.api.file.RegularFileProperty;
+import org.gradle.api.model.ObjectFactory;
+import org.gradle.api.provider.Property;
+
+public class LexicalDfaExtension {
+
+  final RegularFileProperty spec;
+  final Property<String> className;
+  final DirectoryProperty outputDir;
+
+  @Inject
+  public LexicalDfaExtension(ProjectLayout layout, ObjectFactory objFactory) {
+    this.spec = objFactory.fileProperty();
+    this.className = objFactory.property(String.class);
+    this.outputDir =
+        objFactory
+            .directoryProperty()
+            .convention(layout.getBuildDirectory().dir("generated/sources/lexicalDfa/java/main"));
+  }
+}
@@ -0,0 +1,51 @@
+package com.jakemarsden.gradle.lexicaldfa;
+
+import org.gradle.api.Plugin;
+import org.gradle.api.Project;
+import org.gradle.api.plugins.JavaPlugin;
+import org.gradle.api.plugins.JavaPluginConvention;
+import org.gradle.api.tasks.SourceSet;
+
+/**
+ * Generates a table-driven DFA class from a lexical spec file, and adds it to the main source set
+ * of a Java project.
+ *
+ * @see LexicalSpec
+ */
+public class LexicalDfaPlugin implements Plugin<Project> {
+
+  @Override
+  public void apply(Project project) {
+    final var ext = project.getExtensions().create("lexicalDfa", LexicalDfaExtension.class);
+    final var generateTask =
+        project
+            .getTasks()
+            .register(
+                "generateLexicalDfa",
+                GenerateLexicalDfaTask.class,
+                task -> {
+                  task.setGroup("build");
+                  task.setDescription("Generates the lexical DFA class from the lexical spec.");
+                  task.getSpec().set(ext.spec);
+                  task.getClassName().set(ext.className);
+                  task.getOutputDir().set(ext.outputDir);
+                });
+
+    project
+        .getPluginManager()
+        .withPlugin(
+            "java",
+            plugin -> {
+              final var sourceSets =
+                  project.getConvention().getPlugin(JavaPluginConvention.class).getSourceSets();
+              sourceSets
+                  .getByName(SourceSet.MAIN_SOURCE_SET_NAME)
+                  .getJava()
+                  .srcDir(generateTask.flatMap(GenerateLexicalDfaTask::getOutputDir));
+              project
+                  .getTasks()
+                  .named(JavaPlugin.COMPILE_JAVA_TASK_NAME)
+                  .configure(task -> task.dependsOn(generateTask));
+            });
+  }
+}
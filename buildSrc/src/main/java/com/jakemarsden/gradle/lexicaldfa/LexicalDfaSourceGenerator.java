@@ -0,0 +1,209 @@
+package com.jakemarsden.gradle.lexicaldfa;
+
+import java.util.Locale;
+
+/**
+ * Generates the Java source of a class which scans text using a {@link Dfa}. The class has no
+ * dependencies other than the lexer's {@code UnmodifiableTextParser}.
+ *
+ * <p>Tables are emitted as string literals rather than array initialisers, which would quickly run
+ * into the size limit of a class initialiser. Every value is offset by {@link #TABLE_OFFSET} so
+ * that the most common value, {@code 0}, is a plain space.
+ */
+final class LexicalDfaSourceGenerator {
+
+  private static final String TEXT_PARSER_CLASS =
+      "com.jakemarsden.java.lexer.text.UnmodifiableTextParser";
+  private static final int TABLE_OFFSET = ' ';
+  private static final int TABLE_LINE_LENGTH = 80;
+
+  static String generate(LexicalSpec spec, String className, String specName) {
+    final var dfa = Dfa.build(spec);
+    final var rules = spec.rules();
+    final var pkgIdx = className.lastIndexOf('.');
+    final var pkg = pkgIdx < 0 ? null : className.substring(0, pkgIdx);
+    final var simpleName = className.substring(pkgIdx + 1);
+
+    final var src = new StringBuilder();
+    src.append("// Generated by ")
+        .append(GenerateLexicalDfaTask.class.getName())
+        .append(" from ")
+        .append(specName)
+        .append(". Do not edit.\n");
+    if (pkg != null) src.append("package ").append(pkg).append(";\n");
+    src.append("\nimport ").append(TEXT_PARSER_CLASS).append(";\n\n");
+    src.append("/**\n")
+        .append(" * Recognises the fixed-text tokens declared in {@code ")
+        .append(specName)
+        .append("}, using a table-driven DFA which\n")
+        .append(" * makes a single state transition per character.\n")
+        .append(" *\n")
+        .append(" * <p>Rules are identified by their index within the spec.\n")
+        .append(" */\n");
+    src.append("final class ").append(simpleName).append(" {\n\n");
+
+    src.append("  static final int NO_MATCH = -1;\n\n");
+    for (final var category : LexicalSpec.Category.values()) {
+      src.append("  static final int ")
+          .append(category.name())
+          .append(" = ")
+          .append(category.ordinal())
+          .append(";\n");
+    }
+    src.append('\n');
+
+    src.append("  private static final int DEAD_STATE = ").append(Dfa.DEAD_STATE).append(";\n");
+    src.append("  private static final int START_STATE = ").append(Dfa.START_STATE).append(";\n");
+    src.append("  private static final int CLASS_COUNT = ").append(dfa.classCount).append(";\n\n");
+
+    src.append("  private static final String[] NAMES = {\n");
+    for (final var rule : rules) src.append("    \"").append(rule.name).append("\",\n");
+    src.append("  };\n\n");
+
+    src.append("  private static final String[] TEXTS = {\n");
+    for (final var rule : rules) src.append("    ").append(javaString(rule.text)).append(",\n");
+    src.append("  };\n\n");
+
+    src.append("  private static final int[] CATEGORIES = {\n");
+    for (final var rule : rules) src.append("    ").append(rule.category.name()).append(",\n");
+    src.append("  };\n\n");
+
+    src.append("  /** The character class of each ASCII character. */\n");
+    appendTable(src, "CHAR_CLASSES", dfa.charClasses);
+    src.append("  /** Indexed by {@code state * CLASS_COUNT + charClass}. */\n");
+    appendTable(src, "TRANSITIONS", dfa.transitions);
+    src.append(
+        "  /** One more than the rule accepted by each state, or {@code 0} if none is. */\n");
+    final var accepts = new int[dfa.stateCount];
+    for (int state = 0; state < dfa.stateCount; state++) accepts[state] = dfa.accepts[state] + 1;
+    appendTable(src, "ACCEPTS", accepts);
+
+    src.append(
+        String.join(
+            "\n",
+            "  /**",
+            "   * Finds the longest rule which matches the text starting at the current character."
+                + " Keywords",
+            "   * and literals only match if they aren't immediately followed by an identifier"
+                + " character.",
+            "   *",
+            "   * @return the rule which matches the most characters, or {@link #NO_MATCH} if none"
+                + " do",
+            "   */",
+            "  static int longestMatch(UnmodifiableTextParser text) {",
+            "    var match = NO_MATCH;",
+            "    var state = START_STATE;",
+            "    for (int offset = 0; ; offset++) {",
+            "      var ch = text.peek(offset);",
+            "      if (ch < 0 || ch >= CHAR_CLASSES.length) return match;",
+            "      state = TRANSITIONS[state * CLASS_COUNT + CHAR_CLASSES[ch]];",
+            "      if (state == DEAD_STATE) return match;",
+            "",
+            "      var rule = ACCEPTS[state] - 1;",
+            "      if (rule == NO_MATCH) continue;",
+            "      if (!isWord(rule) || !isIdentifierPart(text.peek(offset + 1))) match = rule;",
+            "    }",
+            "  }",
+            "",
+            "  /** @return the number of rules, which are numbered from {@code 0} */",
+            "  static int ruleCount() {",
+            "    return NAMES.length;",
+            "  }",
+            "",
+            "  /** @return the category of the {@code rule} */",
+            "  static int category(int rule) {",
+            "    return CATEGORIES[rule];",
+            "  }",
+            "",
+            "  /** @return the name of the {@code rule} */",
+            "  static String name(int rule) {",
+            "    return NAMES[rule];",
+            "  }",
+            "",
+            "  /** @return the text matched by the {@code rule} */",
+            "  static String text(int rule) {",
+            "    return TEXTS[rule];",
+            "  }",
+            "",
+            "  /** @return the number of characters matched by the {@code rule} */",
+            "  static int length(int rule) {",
+            "    return TEXTS[rule].length();",
+            "  }",
+            "",
+            "  private static boolean isWord(int rule) {",
+            "    var category = CATEGORIES[rule];",
+            "    return " + wordCategoryCondition() + ";",
+            "  }",
+            "",
+            "  private static boolean isIdentifierPart(int ch) {",
+            "    return (ch >= 'a' && ch <= 'z')",
+            "        || (ch >= 'A' && ch <= 'Z')",
+            "        || (ch >= '0' && ch <= '9')",
+            "        || ch == '$'",
+            "        || ch == '_';",
+            "  }",
+            "",
+            "  private static int[] decode(String table) {",
+            "    var values = new int[table.length()];",
+            "    for (int idx = 0; idx < values.length; idx++) {",
+            "      values[idx] = table.charAt(idx) - " + TABLE_OFFSET + ";",
+            "    }",
+            "    return values;",
+            "  }",
+            "",
+            "  private " + simpleName + "() {",
+            "    throw new UnsupportedOperationException();",
+            "  }",
+            "}",
+            ""));
+    return src.toString();
+  }
+
+  private static String wordCategoryCondition() {
+    final var condition = new StringBuilder();
+    for (final var category : LexicalSpec.Category.values()) {
+      if (!category.isWord()) continue;
+      if (condition.length() != 0) condition.append(" || ");
+      condition.append("category == ").append(category.name());
+    }
+    return condition.length() != 0 ? condition.toString() : "false";
+  }
+
+  private static void appendTable(StringBuilder src, String name, int[] values) {
+    src.append("  private static final int[] ").append(name).append(" =\n      decode(\n");
+    var line = new StringBuilder();
+    var first = true;
+    for (final var value : values) {
+      line.append(tableChar(value + TABLE_OFFSET));
+      if (line.length() >= TABLE_LINE_LENGTH) {
+        appendTableLine(src, line, first);
+        line.setLength(0);
+        first = false;
+      }
+    }
+    if (line.length() != 0 || first) appendTableLine(src, line, first);
+    src.append(");\n\n");
+  }
+
+  private static void appendTableLine(StringBuilder src, CharSequence line, boolean first) {
+    if (!first) src.append('\n');
+    src.append(first ? "          \"" : "              + \"").append(line).append('"');
+  }
+
+  private static String tableChar(int ch) {
+    if (ch > 0xFFFF) throw new IllegalStateException("Table value is too large: " + ch);
+    if (ch == '"' || ch == '\\') return "\\" + (char) ch;
+    // values are offset past the control characters, so no line terminator is ever escaped here,
+    // which would otherwise be translated into an actual line terminator by the compiler
+    if (ch >= ' ' && ch < 0x7F) return String.valueOf((char) ch);
+    return String.format(Locale.ROOT, "\\u%04x", ch);
+  }
+
+  private static String javaString(String text) {
+    return '"' + text.replace("\\", "\\\\").replace("\"", "\\\"") + '"';
+  }
+
+  private LexicalDfaSourceGenerator() {
+    throw new UnsupportedOperationException();
+  }
+}
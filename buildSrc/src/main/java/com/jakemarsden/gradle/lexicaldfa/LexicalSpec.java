@@ -0,0 +1,99 @@
+package com.jakemarsden.gradle.lexicaldfa;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * The fixed-text tokens of a language, parsed from a lexical spec file. Each non-blank line which
+ * doesn't start with {@code #} declares one rule as {@code <category> <NAME> <text>}.
+ */
+final class LexicalSpec {
+
+  private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+  private static final Pattern NAME = Pattern.compile("[A-Z][A-Z0-9_]*");
+
+  enum Category {
+    OPERATOR,
+    SEPARATOR,
+    KEYWORD,
+    LITERAL,
+    PREFIX;
+
+    /** @return {@code true} if rules of this category only match whole words */
+    boolean isWord() {
+      return this == KEYWORD || this == LITERAL;
+    }
+  }
+
+  static final class Rule {
+
+    final Category category;
+    final String name;
+    final String text;
+
+    Rule(Category category, String name, String text) {
+      this.category = category;
+      this.name = name;
+      this.text = text;
+    }
+  }
+
+  static LexicalSpec parse(List<String> lines) {
+    final var rules = new ArrayList<Rule>();
+    final var rulesByText = new HashMap<String, Rule>();
+    for (int lineIdx = 0; lineIdx < lines.size(); lineIdx++) {
+      final var line = lines.get(lineIdx).strip();
+      if (line.isEmpty() || line.startsWith("#")) continue;
+
+      final var rule = parseRule(line, lineIdx + 1);
+      final var existing = rulesByText.putIfAbsent(rule.text, rule);
+      if (existing != null) {
+        throw new IllegalArgumentException(
+            "Line "
+                + (lineIdx + 1)
+                + ": duplicate text for rules "
+                + existing.name
+                + " and "
+                + rule.name);
+      }
+      rules.add(rule);
+    }
+    if (rules.isEmpty()) throw new IllegalArgumentException("No rules declared");
+    return new LexicalSpec(rules);
+  }
+
+  private static Rule parseRule(String line, int lineNum) {
+    final var parts = WHITESPACE.split(line);
+    if (parts.length != 3) {
+      throw new IllegalArgumentException("Line " + lineNum + ": expected <category> <NAME> <text>");
+    }
+
+    final Category category;
+    try {
+      category = Category.valueOf(parts[0].toUpperCase(Locale.ROOT));
+    } catch (IllegalArgumentException e) {
+      throw new IllegalArgumentException("Line " + lineNum + ": invalid category: " + parts[0], e);
+    }
+    if (!NAME.matcher(parts[1]).matches()) {
+      throw new IllegalArgumentException("Line " + lineNum + ": invalid name: " + parts[1]);
+    }
+    if (!parts[2].chars().allMatch(ch -> ch > ' ' && ch < 0x7F)) {
+      throw new IllegalArgumentException("Line " + lineNum + ": text must be printable ASCII");
+    }
+    return new Rule(category, parts[1], parts[2]);
+  }
+
+  private final List<Rule> rules;
+
+  private LexicalSpec(List<Rule> rules) {
+    this.rules = Collections.unmodifiableList(rules);
+  }
+
+  List<Rule> rules() {
+    return this.rules;
+  }
+}
@@ -0,0 +1,270 @@
+package com.jakemarsden.java.lexer;
+
+import static java.util.Objects.requireNonNull;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * Lexes many files or texts concurrently, on an executor of its own. The largest are started first,
+ * so that the time taken by the whole batch isn't dominated by a large file which happened to be
+ * started last. Results are delivered as soon as each file has been lexed.
+ *
+ * <p>The number of files lexed at once is bounded, so that only that many results are ever held in
+ * memory before they're delivered. By default, files are lexed on a fixed pool of platform threads,
+ * one for each processor. On JDK 21 and later, {@link #withVirtualThreads(Lexer)} starts a virtual
+ * thread for each file instead, which can help when the files are slow to read.
+ *
+ * <p>Example usage:
+ *
+ * <pre><code>
+ * try (var batch = new BatchLexer(new Lexer())) {
+ *   batch.lexAll(files, (file, tokens) -&gt; ...);
+ * }
+ * </code></pre>
+ *
+ * <p>Safe for use by multiple threads at once. Close the batch lexer once it's no longer needed, to
+ * stop its threads.
+ */
+public final class BatchLexer implements AutoCloseable {
+
+  private final Lexer lexer;
+  private final ExecutorService executor;
+
+  /** The maximum number of files to lex at once. */
+  private final int parallelism;
+
+  /**
+   * Lexes one file at a time on each processor.
+   *
+   * @param lexer what to lex each file with
+   */
+  public BatchLexer(Lexer lexer) {
+    this(lexer, Runtime.getRuntime().availableProcessors());
+  }
+
+  /**
+   * @param lexer what to lex each file with
+   * @param threads how many files to lex at once, each on a thread of its own
+   * @throws IllegalArgumentException if {@code threads} isn't positive
+   */
+  public BatchLexer(Lexer lexer, int threads) {
+    this(lexer, newFixedThreadPool(threads), threads);
+  }
+
+  private BatchLexer(Lexer lexer, ExecutorService executor, int parallelism) {
+    this.lexer = requireNonNull(lexer);
+    this.executor = executor;
+    this.parallelism = parallelism;
+  }
+
+  /**
+   * Lexes each file on a virtual thread of its own, but still only lexes one file at a time for
+   * each processor.
+   *
+   * @param lexer what to lex each file with
+   * @return a batch lexer which uses virtual threads
+   * @throws UnsupportedOperationException if virtual threads aren't supported by the runtime
+   * @see #supportsVirtualThreads()
+   */
+  public static BatchLexer withVirtualThreads(Lexer lexer) {
+    var executor = VirtualThreads.newExecutor();
+    return new BatchLexer(lexer, executor, Runtime.getRuntime().availableProcessors());
+  }
+
+  /** @return {@code true} if {@link #withVirtualThreads(Lexer)} is supported by the runtime */
+  public static boolean supportsVirtualThreads() {
+    return VirtualThreads.isSupported();
+  }
+
+  /**
+   * Lexes every token of each UTF-8 encoded file into a {@link TokenTable}, and passes it to {@code
+   * onFile} as soon as the file has been lexed. {@code onFile} is called by the thread which lexed
+   * the file, so it may be called by multiple threads at once.
+   *
+   * <p>If any of the files can't be read, or {@code onFile} throws, no more files are started and
+   * the error is rethrown once the files already started have finished.
+   *
+   * @param files the UTF-8 encoded files to lex into tokens
+   * @param onFile what to pass each file and its tokens to
+   * @throws IOException if any of the files can't be read
+   */
+  public void lexAll(Collection<Path> files, BiConsumer<? super Path, ? super TokenTable> onFile)
+      throws IOException {
+    requireNonNull(onFile);
+    this.runLargestFirst(
+        files,
+        Files::size,
+        file -> onFile.accept(file, this.lexer.lexToTable(Files.readAllBytes(file))));
+  }
+
+  /**
+   * Lexes every token of each UTF-8 encoded file into a {@link TokenTable}, as for {@link
+   * #lexAll(Collection, BiConsumer)}, but only returns once every file has been lexed.
+   *
+   * @param files the UTF-8 encoded files to lex into tokens
+   * @return the tokens of each file, ordered by path
+   * @throws IOException if any of the files can't be read
+   */
+  public Map<Path, TokenTable> lexAll(Collection<Path> files) throws IOException {
+    var tables = new TreeMap<Path, TokenTable>();
+    this.lexAll(
+        files,
+        (file, table) -> {
+          synchronized (tables) {
+            tables.put(file, table);
+          }
+        });
+    return tables;
+  }
+
+  /**
+   * Lexes every token of each UTF-8 encoded file, pushing each token to the {@link TokenSink}
+   * returned by {@code sinks} for that file. The sink is pushed to by the thread which lexes the
+   * file, so different sinks may be pushed to by multiple threads at once.
+   *
+   * <p>If any of the files can't be read, or a sink throws, no more files are started and the error
+   * is rethrown once the files already started have finished.
+   *
+   * @param files the UTF-8 encoded files to lex into tokens
+   * @param sinks returns what to push the tokens of each file to
+   * @throws IOException if any of the files can't be opened, mapped or read
+   * @see Lexer#lex(Path, TokenSink)
+   */
+  public void pushAll(Collection<Path> files, Function<? super Path, ? extends TokenSink> sinks)
+      throws IOException {
+    requireNonNull(sinks);
+    this.runLargestFirst(files, Files::size, file -> this.lexer.lex(file, sinks.apply(file)));
+  }
+
+  /**
+   * Lexes every token of each text into a {@link TokenTable}. Each text is retained by its table.
+   *
+   * @param sources the characters to lex into tokens
+   * @return the tokens of each text, in the same order as the {@code sources}
+   */
+  public List<TokenTable> lexSources(List<? extends CharSequence> sources) {
+    var tables = new TokenTable[sources.size()];
+    var indices = new ArrayList<Integer>(sources.size());
+    for (int idx = 0; idx < sources.size(); idx++) indices.add(idx);
+    try {
+      this.runLargestFirst(
+          indices,
+          idx -> sources.get(idx).length(),
+          idx -> tables[idx] = this.lexer.lexToTable(sources.get(idx)));
+    } catch (IOException e) {
+      // only possible if interrupted, as nothing's read
+      throw new UncheckedIOException(e);
+    }
+    return Arrays.asList(tables);
+  }
+
+  /**
+   * Stops the threads of this batch lexer once any files which are still being lexed have finished.
+   * Files can no longer be lexed once it's closed.
+   */
+  @Override
+  public void close() {
+    this.executor.shutdown();
+  }
+
+  /**
+   * Runs the {@code task} for each of the {@code items} on the {@link #executor}, starting with the
+   * largest, with no more than {@link #parallelism} running at once. Only returns once every task
+   * which was started has finished.
+   */
+  private <T> void runLargestFirst(Collection<T> items, Size<? super T> size, Task<? super T> task)
+      throws IOException {
+    var sizes = new ArrayList<Sized<T>>(items.size());
+    for (var item : items) sizes.add(new Sized<>(item, size.of(item)));
+    sizes.sort(Comparator.comparingLong((Sized<T> item) -> item.size).reversed());
+
+    var permits = new Semaphore(this.parallelism);
+    var failure = new AtomicReference<Throwable>();
+    try {
+      for (var item : sizes) {
+        permits.acquire();
+        if (failure.get() != null) {
+          permits.release();
+          break;
+        }
+        this.executor.execute(
+            () -> {
+              try {
+                task.run(item.item);
+              } catch (Throwable e) {
+                failure.compareAndSet(null, e);
+              } finally {
+                permits.release();
+              }
+            });
+      }
+      // wait for every task which was started to finish
+      permits.acquire(this.parallelism);
+      permits.release(this.parallelism);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted while lexing");
+    }
+    rethrow(failure.get());
+  }
+
+  private static void rethrow(Throwable e) throws IOException {
+    if (e == null) return;
+    if (e instanceof IOException) throw (IOException) e;
+    if (e instanceof UncheckedIOException) throw ((UncheckedIOException) e).getCause();
+    if (e instanceof RuntimeException) throw (RuntimeException) e;
+    throw (Error) e;
+  }
+
+  private static ExecutorService newFixedThreadPool(int threads) {
+    if (threads <= 0) throw new IllegalArgumentException("Invalid thread count: " + threads);
+    var threadCount = new AtomicInteger();
+    return Executors.newFixedThreadPool(
+        threads,
+        runnable -> {
+          var thread = new Thread(runnable, "batch-lexer-" + threadCount.incrementAndGet());
+          // an unclosed batch lexer shouldn't keep the JVM running
+          thread.setDaemon(true);
+          return thread;
+        });
+  }
+
+  @FunctionalInterface
+  private interface Size<T> {
+    long of(T item) throws IOException;
+  }
+
+  @FunctionalInterface
+  private interface Task<T> {
+    void run(T item) throws IOException;
+  }
+
+  private static final class Sized<T> {
+
+    private final T item;
+    private final long size;
+
+    private Sized(T item, long size) {
+      this.item = item;
+      this.size = size;
+    }
+  }
+}
@@ -0,0 +1,149 @@
+package com.jakemarsden.java.lexer;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.function.Function.identity;
+import static java.util.stream.Collectors.toList;
+import static java.util.stream.Collectors.toMap;
+
+import com.jakemarsden.java.lexer.text.AbstractTextParser;
+import com.jakemarsden.java.lexer.text.CharSequenceTextParser;
+import com.jakemarsden.java.lexer.text.TextParser;
+import com.jakemarsden.java.lexer.token.Keyword;
+import com.jakemarsden.java.lexer.token.Operator;
+import com.jakemarsden.java.lexer.token.Separator;
+import com.jakemarsden.java.lexer.token.TokenType;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Finds the package and imports declared by compilation units, without lexing any further than the
+ * first type declaration of each. Files are read as a stream, so only their first few blocks are
+ * ever read.
+ *
+ * <p>Example usage:
+ *
+ * <pre><code>
+ * var extractor = new HeaderExtractor();
+ * var headers = extractor.extractAll(Path.of("src/main/java"));
+ * headers.forEach((file, header) -&gt; ...);
+ * </code></pre>
+ *
+ * <p>Safe for use by multiple threads at once.
+ *
+ * @see Lexer#lexHeader(CharSequence)
+ */
+public final class HeaderExtractor {
+
+  private static final String JAVA_FILE_EXTENSION = ".java";
+
+  /**
+   * @param source the characters of a compilation unit
+   * @return the package and imports declared by the {@code source}
+   */
+  public SourceHeader extract(CharSequence source) {
+    return readHeader(new CharSequenceTextParser(source));
+  }
+
+  /**
+   * @param file a UTF-8 encoded compilation unit
+   * @return the package and imports declared by the {@code file}
+   * @throws IOException if the file can't be read
+   */
+  public SourceHeader extract(Path file) throws IOException {
+    try (var in = Files.newInputStream(file)) {
+      return readHeader(new TextParser(in, UTF_8));
+    } catch (UncheckedIOException e) {
+      throw e.getCause();
+    }
+  }
+
+  /**
+   * Finds the package and imports of every {@code .java} file under the {@code root} directory. The
+   * files are read in parallel, on the common {@link java.util.concurrent.ForkJoinPool}.
+   *
+   * @param root the directory to search, or a single file
+   * @return the package and imports declared by each file, ordered by path
+   * @throws IOException if the directory can't be searched, or any of the files can't be read
+   */
+  public Map<Path, SourceHeader> extractAll(Path root) throws IOException {
+    List<Path> files;
+    try (var paths = Files.walk(root)) {
+      files =
+          paths
+              .filter(path -> path.toString().endsWith(JAVA_FILE_EXTENSION))
+              .filter(Files::isRegularFile)
+              .collect(toList());
+    } catch (UncheckedIOException e) {
+      throw e.getCause();
+    }
+
+    try {
+      return files
+          .parallelStream()
+          .collect(toMap(identity(), this::extractUnchecked, (a, b) -> a, TreeMap::new));
+    } catch (UncheckedIOException e) {
+      throw e.getCause();
+    }
+  }
+
+  private SourceHeader extractUnchecked(Path file) {
+    try {
+      return this.extract(file);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private static SourceHeader readHeader(AbstractTextParser parser) {
+    var header = new HeaderScanner(parser);
+    var scanner = header.scanner();
+    var packageName = "";
+    var imports = new ArrayList<String>();
+    var staticImports = new ArrayList<String>();
+
+    // the declaration currently being read, if any, and the name it declares so far
+    Keyword declaration = null;
+    var isStatic = false;
+    var name = new StringBuilder();
+
+    while (header.advance()) {
+      var type = scanner.type();
+      if (type == TokenType.WHITESPACE || type == TokenType.COMMENT) continue;
+
+      var keyword = Subtypes.keyword(type, scanner.subtype());
+      var separator = Subtypes.separator(type, scanner.subtype());
+      if (keyword == Keyword.PACKAGE || keyword == Keyword.IMPORT) {
+        declaration = keyword;
+        isStatic = false;
+        name.setLength(0);
+      } else if (declaration == null) {
+        continue;
+      } else if (keyword == Keyword.STATIC && declaration == Keyword.IMPORT && name.length() == 0) {
+        isStatic = true;
+      } else if (type == TokenType.IDENTIFIER) {
+        name.append(scanner.text());
+      } else if (separator == Separator.DOT) {
+        name.append('.');
+      } else if (Subtypes.operator(type, scanner.subtype()) == Operator.MULTIPLICATION) {
+        name.append('*');
+      } else if (separator == Separator.SEMICOLON) {
+        if (declaration == Keyword.PACKAGE) {
+          packageName = name.toString();
+        } else {
+          (isStatic ? staticImports : imports).add(name.toString());
+        }
+        declaration = null;
+      } else {
+        // not a well-formed declaration, so ignore it
+        declaration = null;
+      }
+    }
+    return new SourceHeader(packageName, imports, staticImports);
+  }
+}
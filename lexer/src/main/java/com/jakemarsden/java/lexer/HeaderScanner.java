@@ -0,0 +1,63 @@
+package com.jakemarsden.java.lexer;
+
+import com.jakemarsden.java.lexer.parser.TokenScanner;
+import com.jakemarsden.java.lexer.text.AbstractTextParser;
+import com.jakemarsden.java.lexer.token.Keyword;
+import com.jakemarsden.java.lexer.token.Separator;
+import com.jakemarsden.java.lexer.token.TokenType;
+
+/**
+ * Lexes only the header of a compilation unit: its package declaration, its imports, and anything
+ * else which comes before the first type declaration. Lexing stops at the {@code class}, {@code
+ * interface} or {@code enum} keyword of the first type declaration, which covers {@code @interface}
+ * too, so the rest of the text is never read.
+ *
+ * <p>Only keywords at the top level count, so the {@code class} of an annotation argument such as
+ * {@code @Type(String.class)} doesn't stop lexing early.
+ */
+final class HeaderScanner {
+
+  private final TokenScanner scanner;
+
+  /** How deeply nested in brackets, braces and parentheses the current token is. */
+  private int depth;
+
+  private boolean done;
+
+  HeaderScanner(AbstractTextParser parser) {
+    this.scanner = new TokenScanner(parser);
+  }
+
+  /** @return the scanner which describes the current token */
+  TokenScanner scanner() {
+    return this.scanner;
+  }
+
+  /**
+   * @return {@code true} if there was another token in the header, or {@code false} if the first
+   *     type declaration or the end of the text has been reached
+   */
+  boolean advance() {
+    if (this.done || !this.scanner.advance()) return false;
+    var type = this.scanner.type();
+    if (type == TokenType.SEPARATOR) {
+      var separator = Subtypes.separator(type, this.scanner.subtype());
+      if (separator == Separator.OPENING_PAREN
+          || separator == Separator.OPENING_BRACE
+          || separator == Separator.OPENING_BRACKET) {
+        this.depth++;
+      } else if (separator == Separator.CLOSING_PAREN
+          || separator == Separator.CLOSING_BRACE
+          || separator == Separator.CLOSING_BRACKET) {
+        this.depth--;
+      }
+    } else if (type == TokenType.KEYWORD && this.depth <= 0) {
+      var keyword = Subtypes.keyword(type, this.scanner.subtype());
+      if (keyword == Keyword.CLASS || keyword == Keyword.INTERFACE || keyword == Keyword.ENUM) {
+        this.done = true;
+        return false;
+      }
+    }
+    return true;
+  }
+}
@@ -0,0 +1,38 @@
+package com.jakemarsden.java.lexer;
+
+import com.jakemarsden.java.lexer.text.AbstractTextParser;
+import com.jakemarsden.java.lexer.token.Token;
+import java.util.NoSuchElementException;
+
+/** A {@link TokenIterator} over only the tokens of a {@link HeaderScanner header}. */
+final class HeaderTokenIterator implements TokenIterator {
+
+  private final HeaderScanner scanner;
+
+  /** Whether the scanner's current token has been found by {@link #hasNext()} but not returned. */
+  private boolean pending;
+
+  HeaderTokenIterator(AbstractTextParser parser) {
+    this.scanner = new HeaderScanner(parser);
+  }
+
+  @Override
+  public boolean hasNext() {
+    if (!this.pending) this.pending = this.scanner.advance();
+    return this.pending;
+  }
+
+  @Override
+  public Token next() {
+    if (!this.hasNext()) throw new NoSuchElementException();
+    this.pending = false;
+    return this.scanner.scanner().token();
+  }
+
+  @Override
+  public int nextBatch(TokenBatch batch) {
+    var current = this.pending;
+    this.pending = false;
+    return batch.fill(this.scanner, current);
+  }
+}
@@ -1,16 +1,79 @@
 package com.jakemarsden.java.lexer;
 
+import com.jakemarsden.java.lexer.text.CharSequenceTextParser;
+import com.jakemarsden.java.lexer.text.MappedFileTextParser;
+import com.jakemarsden.java.lexer.text.TextParser;
+import com.jakemarsden.java.lexer.text.Utf8TextParser;
 import com.jakemarsden.java.lexer.token.Token;
+import com.jakemarsden.java.lexer.token.TokenType;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
 import java.util.PrimitiveIterator;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Generates a sequence of language tokens from a sequence of code points.
  *
+ * <p>Safe for use by multiple threads at once. A lexer holds no state of its own other than a pool
+ * of {@link LexerSession}s, so it can be shared.
+ *
+ * <p>UTF-8 encoded text held in memory ({@link #lex(byte[])} and {@link #lex(ByteBuffer)}) is
+ * indexed up front a machine word at a time, so that comments, string literals and character
+ * literals are scanned by jumping from one quote, line terminator or comment delimiter to the next.
+ * On JDK 21 and later, with the {@code jdk.incubator.vector} module added to the runtime, runs of
+ * whitespace and identifier characters in those bytes are also skipped a whole vector at a time,
+ * but only when the bytes are on the heap: a {@code byte[]}, or a {@link ByteBuffer} backed by one.
+ * Every other source, including {@link CharSequence}s, {@code char[]}s and memory-mapped files, is
+ * scanned one character at a time.
+ *
  * @see <a href="https://docs.oracle.com/javase/specs/jls/se11/html/jls-3.html">The Java&reg;
  *     Language Specification: Java SE 11 Edition - Chapter 3. Lexical Structure</a>
  */
 public final class Lexer {
 
+  /** Sessions which have been closed and are waiting to be handed out again. */
+  private final BlockingQueue<LexerSession> sessions;
+
+  /** Pools as many sessions as there are processors. */
+  public Lexer() {
+    this(Runtime.getRuntime().availableProcessors());
+  }
+
+  /**
+   * @param maxPooledSessions the maximum number of closed sessions to keep for reuse by {@link
+   *     #openSession()}. Sessions closed while the pool is full are left for garbage collection
+   * @throws IllegalArgumentException if {@code maxPooledSessions} isn't positive
+   */
+  public Lexer(int maxPooledSessions) {
+    if (maxPooledSessions <= 0) {
+      throw new IllegalArgumentException("Invalid pool size: " + maxPooledSessions);
+    }
+    this.sessions = new ArrayBlockingQueue<>(maxPooledSessions);
+  }
+
+  /**
+   * Hands out a {@link LexerSession} for lexing one text after another, reusing a session which has
+   * been closed if there is one. Close the session when it's no longer needed, to return it to this
+   * lexer's pool. Safe to call from multiple threads at once, and no two callers are given the same
+   * session.
+   *
+   * @return a session for lexing texts, which must be closed once it's finished with
+   */
+  public LexerSession openSession() {
+    var session = this.sessions.poll();
+    if (session == null) session = new LexerSession(this.sessions);
+    return session.open();
+  }
+
   /**
    * Returns an iterator over a sequence of {@link Token}s, which are generated lazily by lexing
    * code points taken from the {@code source}.
@@ -32,4 +95,662 @@ public final class Lexer {
   public TokenIterator lex(PrimitiveIterator.OfInt source) {
     return new LexingTokenIterator(source);
   }
+
+  /**
+   * Returns an iterator over a sequence of {@link Token}s, which are generated lazily by lexing the
+   * characters of the {@code source}. Characters are read directly from the {@code source}, which
+   * must not be modified while the tokens are still in use. Token text is a view of the {@code
+   * source} rather than a copy.
+   *
+   * <p>Example usage:
+   *
+   * <pre><code>
+   * String sourceCode = ...
+   *
+   * var lexer = new Lexer();
+   * var tokens = lexer.lex(sourceCode);
+   * tokens.forEachRemaining(...);
+   * </code></pre>
+   *
+   * @param source the characters to lex into tokens
+   * @return an iterator over the tokens found in the specified {@code source}
+   */
+  public TokenIterator lex(CharSequence source) {
+    return new LexingTokenIterator(new CharSequenceTextParser(source));
+  }
+
+  /**
+   * Returns an iterator over a sequence of {@link Token}s, which are generated lazily by lexing the
+   * characters of the {@code source}. Characters are read directly from the {@code source}, which
+   * must not be modified while the tokens are still in use. Token text is a view of the {@code
+   * source} rather than a copy.
+   *
+   * @param source the characters to lex into tokens
+   * @return an iterator over the tokens found in the specified {@code source}
+   */
+  public TokenIterator lex(char[] source) {
+    return new LexingTokenIterator(new CharSequenceTextParser(source));
+  }
+
+  /**
+   * Returns an iterator over a sequence of {@link Token}s, which are generated lazily by lexing
+   * characters read from the {@code source}. Characters are read in blocks as they're needed, so
+   * the {@code source} doesn't have to fit in memory. A leading byte order mark is skipped.
+   *
+   * @param source where to read the characters for lexing into tokens, which is not closed by the
+   *     lexer
+   * @return an iterator over the tokens found in the specified {@code source}. Errors which occur
+   *     while reading are rethrown by the iterator as {@link java.io.UncheckedIOException}s
+   */
+  public TokenIterator lex(Reader source) {
+    return new LexingTokenIterator(new TextParser(source));
+  }
+
+  /**
+   * Returns an iterator over a sequence of {@link Token}s, which are generated lazily by lexing
+   * bytes read from the {@code source}. Bytes are read and decoded in blocks as they're needed, so
+   * the {@code source} doesn't have to fit in memory.
+   *
+   * <p>If the {@code source} starts with a UTF-8, UTF-16BE or UTF-16LE byte order mark it's decoded
+   * with that charset and the byte order mark is skipped. Otherwise, it's decoded with the {@code
+   * defaultCharset}.
+   *
+   * @param source where to read the bytes for lexing into tokens, which is not closed by the lexer
+   * @param defaultCharset how to decode the {@code source} if it doesn't start with a byte order
+   *     mark
+   * @return an iterator over the tokens found in the specified {@code source}. Errors which occur
+   *     while reading are rethrown by the iterator as {@link java.io.UncheckedIOException}s
+   */
+  public TokenIterator lex(InputStream source, Charset defaultCharset) {
+    return new LexingTokenIterator(new TextParser(source, defaultCharset));
+  }
+
+  /**
+   * Returns an iterator over a sequence of {@link Token}s, which are generated lazily by lexing
+   * UTF-8 encoded {@code source} bytes. The bytes are lexed directly, without being decoded into a
+   * {@link String} first, and must not be modified while the tokens are still in use. Token text is
+   * a view of the {@code source} rather than a copy.
+   *
+   * @param source the UTF-8 encoded bytes to lex into tokens
+   * @return an iterator over the tokens found in the specified {@code source}
+   */
+  public TokenIterator lex(byte[] source) {
+    return new LexingTokenIterator(new Utf8TextParser(source));
+  }
+
+  /**
+   * Returns an iterator over a sequence of {@link Token}s, which are generated lazily by lexing the
+   * UTF-8 encoded bytes between the current position and the limit of the {@code source}. The bytes
+   * are lexed directly, without being decoded into a {@link String} first, and must not be modified
+   * while the tokens are still in use. Token text is a view of the {@code source} rather than a
+   * copy. The position and limit of the {@code source} are not modified.
+   *
+   * @param source the UTF-8 encoded bytes to lex into tokens
+   * @return an iterator over the tokens found in the specified {@code source}
+   */
+  public TokenIterator lex(ByteBuffer source) {
+    return new LexingTokenIterator(new Utf8TextParser(source));
+  }
+
+  /**
+   * Returns an iterator over a sequence of {@link Token}s, which are generated lazily by lexing the
+   * characters of a UTF-8 encoded file. The file is memory-mapped and lexed in place, rather than
+   * being read onto the heap first. The file must not be modified while the tokens are still in
+   * use. Token text is a view of the mapped file rather than a copy.
+   *
+   * <p>Example usage:
+   *
+   * <pre><code>
+   * var sourceFile = Path.of("SampleCode.java");
+   *
+   * var lexer = new Lexer();
+   * var tokens = lexer.lex(sourceFile);
+   * tokens.forEachRemaining(...);
+   * </code></pre>
+   *
+   * @param source the UTF-8 encoded file to lex into tokens
+   * @return an iterator over the tokens found in the specified {@code source}
+   * @throws IOException if the file can't be opened or mapped. Errors which occur after this method
+   *     has returned are rethrown by the iterator as {@link java.io.UncheckedIOException}s
+   */
+  public TokenIterator lex(Path source) throws IOException {
+    return new LexingTokenIterator(new MappedFileTextParser(source));
+  }
+
+  /**
+   * Returns a stream of the {@link Token}s of the {@code source}, which are generated lazily by
+   * lexing its characters, as for {@link #lex(CharSequence)}. The stream is ordered.
+   *
+   * <p>A parallel stream can split the tokens between threads. As a token can only be found by
+   * lexing from the end of the previous token, the first split lexes the rest of the {@code source}
+   * up front, as for {@link #lexToTableInParallel(CharSequence)}, and the tokens are then split by
+   * index.
+   *
+   * <p>Example usage:
+   *
+   * <pre><code>
+   * String sourceCode = ...
+   *
+   * var lexer = new Lexer();
+   * var identifiers = lexer.stream(sourceCode)
+   *     .parallel()
+   *     .filter(token -&gt; token.type() == TokenType.IDENTIFIER)
+   *     .count();
+   * </code></pre>
+   *
+   * @param source the characters to lex into tokens
+   * @return a stream of the tokens found in the specified {@code source}
+   */
+  public Stream<Token> stream(CharSequence source) {
+    var spliterator = new TokenSpliterator(new CharSequenceTextParser(source), source);
+    return StreamSupport.stream(spliterator, false);
+  }
+
+  /**
+   * Returns a stream of the {@link Token}s of the {@code source}, as for {@link
+   * #stream(CharSequence)}.
+   *
+   * @param source the characters to lex into tokens
+   * @return a stream of the tokens found in the specified {@code source}
+   */
+  public Stream<Token> stream(char[] source) {
+    var spliterator =
+        new TokenSpliterator(new CharSequenceTextParser(source), CharBuffer.wrap(source));
+    return StreamSupport.stream(spliterator, false);
+  }
+
+  /**
+   * Returns a stream of the {@link Token}s of the {@code source}, which are generated lazily by
+   * lexing characters read from it, as for {@link #lex(Reader)}. The stream is ordered, but can't
+   * be split between threads, as the characters are only read once.
+   *
+   * @param source where to read the characters for lexing into tokens, which is not closed by the
+   *     lexer
+   * @return a stream of the tokens found in the specified {@code source}. Errors which occur while
+   *     reading are rethrown by the stream as {@link java.io.UncheckedIOException}s
+   */
+  public Stream<Token> stream(Reader source) {
+    return StreamSupport.stream(new TokenSpliterator(new TextParser(source), null), false);
+  }
+
+  /**
+   * Returns an iterator over only the header of the compilation unit in the {@code source}: its
+   * package declaration, its imports, and any other tokens before its first type declaration.
+   * Lexing stops at the {@code class}, {@code interface} or {@code enum} keyword of the first top
+   * level type declaration, which isn't returned, so the rest of the {@code source} is never read.
+   *
+   * <p>Example usage:
+   *
+   * <pre><code>
+   * String sourceCode = ...
+   *
+   * var lexer = new Lexer();
+   * var tokens = lexer.lexHeader(sourceCode);
+   * tokens.forEachRemaining(...);
+   * </code></pre>
+   *
+   * @param source the characters to lex into tokens
+   * @return an iterator over the tokens of the header of the {@code source}
+   * @see HeaderExtractor
+   */
+  public TokenIterator lexHeader(CharSequence source) {
+    return new HeaderTokenIterator(new CharSequenceTextParser(source));
+  }
+
+  /**
+   * Returns an iterator over only the header of the compilation unit in the {@code source}, as for
+   * {@link #lexHeader(CharSequence)}. Characters are read lazily, so only those of the header and
+   * the block after it are ever read.
+   *
+   * @param source where to read the characters from, which is not closed by the iterator
+   * @return an iterator over the tokens of the header of the {@code source}. Errors which occur
+   *     while reading are rethrown by the iterator as {@link java.io.UncheckedIOException}s
+   */
+  public TokenIterator lexHeader(Reader source) {
+    return new HeaderTokenIterator(new TextParser(source));
+  }
+
+  /**
+   * Returns an iterator over only the header of the compilation unit in the {@code source}, as for
+   * {@link #lexHeader(CharSequence)}. Bytes are read lazily, so only those of the header and the
+   * block after it are ever read.
+   *
+   * @param source where to read the bytes from, which is not closed by the iterator
+   * @param defaultCharset how to decode the bytes if the {@code source} doesn't start with a byte
+   *     order mark
+   * @return an iterator over the tokens of the header of the {@code source}. Errors which occur
+   *     while reading are rethrown by the iterator as {@link java.io.UncheckedIOException}s
+   */
+  public TokenIterator lexHeader(InputStream source, Charset defaultCharset) {
+    return new HeaderTokenIterator(new TextParser(source, defaultCharset));
+  }
+
+  /**
+   * Returns an iterator over only the header of the compilation unit in a UTF-8 encoded file, as
+   * for {@link #lexHeader(CharSequence)}. The file is memory-mapped, as for {@link #lex(Path)}, so
+   * only the pages of the header are ever read.
+   *
+   * @param source the UTF-8 encoded file to lex into tokens
+   * @return an iterator over the tokens of the header of the {@code source}
+   * @throws IOException if the file can't be opened or mapped. Errors which occur after this method
+   *     has returned are rethrown by the iterator as {@link java.io.UncheckedIOException}s
+   */
+  public TokenIterator lexHeader(Path source) throws IOException {
+    return new HeaderTokenIterator(new MappedFileTextParser(source));
+  }
+
+  /**
+   * Returns an iterator over only those tokens of the {@code source} whose types are in {@code
+   * types}, as for {@link #lex(PrimitiveIterator.OfInt)}.
+   *
+   * @param source where to retrieve the characters for lexing into tokens
+   * @param types the types of token to return
+   * @return an iterator over the tokens of the {@code types} found in the specified {@code source}
+   */
+  public TokenIterator lex(PrimitiveIterator.OfInt source, Set<TokenType> types) {
+    return new LexingTokenIterator(new TextParser(source), types);
+  }
+
+  /**
+   * Returns an iterator over only those tokens of the {@code source} whose types are in {@code
+   * types}, as for {@link #lex(CharSequence)}. Tokens of other types are skipped over as they're
+   * lexed, without creating a {@link Token} for them, and the positions of the returned tokens are
+   * unaffected.
+   *
+   * <p>Example usage:
+   *
+   * <pre><code>
+   * String sourceCode = ...
+   *
+   * var lexer = new Lexer();
+   * var tokens = lexer.lex(sourceCode, EnumSet.complementOf(EnumSet.of(WHITESPACE, COMMENT)));
+   * tokens.forEachRemaining(...);
+   * </code></pre>
+   *
+   * @param source the characters to lex into tokens
+   * @param types the types of token to return
+   * @return an iterator over the tokens of the {@code types} found in the specified {@code source}
+   */
+  public TokenIterator lex(CharSequence source, Set<TokenType> types) {
+    return new LexingTokenIterator(new CharSequenceTextParser(source), types);
+  }
+
+  /**
+   * Returns an iterator over only those tokens of the {@code source} whose types are in {@code
+   * types}, as for {@link #lex(char[])}.
+   *
+   * @param source the characters to lex into tokens
+   * @param types the types of token to return
+   * @return an iterator over the tokens of the {@code types} found in the specified {@code source}
+   */
+  public TokenIterator lex(char[] source, Set<TokenType> types) {
+    return new LexingTokenIterator(new CharSequenceTextParser(source), types);
+  }
+
+  /**
+   * Returns an iterator over only those tokens of the {@code source} whose types are in {@code
+   * types}, as for {@link #lex(Reader)}.
+   *
+   * @param source where to read the characters from, which is not closed by the iterator
+   * @param types the types of token to return
+   * @return an iterator over the tokens of the {@code types} found in the specified {@code source}
+   */
+  public TokenIterator lex(Reader source, Set<TokenType> types) {
+    return new LexingTokenIterator(new TextParser(source), types);
+  }
+
+  /**
+   * Returns an iterator over only those tokens of the {@code source} whose types are in {@code
+   * types}, as for {@link #lex(InputStream, Charset)}.
+   *
+   * @param source where to read the bytes from, which is not closed by the iterator
+   * @param defaultCharset how to decode the bytes if the {@code source} doesn't start with a byte
+   *     order mark
+   * @param types the types of token to return
+   * @return an iterator over the tokens of the {@code types} found in the specified {@code source}
+   */
+  public TokenIterator lex(InputStream source, Charset defaultCharset, Set<TokenType> types) {
+    return new LexingTokenIterator(new TextParser(source, defaultCharset), types);
+  }
+
+  /**
+   * Returns an iterator over only those tokens of the {@code source} whose types are in {@code
+   * types}, as for {@link #lex(byte[])}.
+   *
+   * @param source the UTF-8 encoded bytes to lex into tokens
+   * @param types the types of token to return
+   * @return an iterator over the tokens of the {@code types} found in the specified {@code source}
+   */
+  public TokenIterator lex(byte[] source, Set<TokenType> types) {
+    return new LexingTokenIterator(new Utf8TextParser(source), types);
+  }
+
+  /**
+   * Returns an iterator over only those tokens of the {@code source} whose types are in {@code
+   * types}, as for {@link #lex(ByteBuffer)}.
+   *
+   * @param source the UTF-8 encoded bytes to lex into tokens
+   * @param types the types of token to return
+   * @return an iterator over the tokens of the {@code types} found in the specified {@code source}
+   */
+  public TokenIterator lex(ByteBuffer source, Set<TokenType> types) {
+    return new LexingTokenIterator(new Utf8TextParser(source), types);
+  }
+
+  /**
+   * Returns an iterator over only those tokens of the {@code source} whose types are in {@code
+   * types}, as for {@link #lex(Path)}.
+   *
+   * @param source the UTF-8 encoded file to lex into tokens
+   * @param types the types of token to return
+   * @return an iterator over the tokens of the {@code types} found in the specified {@code source}
+   * @throws IOException if the file can't be opened or mapped
+   */
+  public TokenIterator lex(Path source, Set<TokenType> types) throws IOException {
+    return new LexingTokenIterator(new MappedFileTextParser(source), types);
+  }
+
+  /**
+   * Lexes every token of the {@code source}, as for {@link #lex(PrimitiveIterator.OfInt)}, but
+   * pushes each token to the {@code sink} as it's lexed.
+   *
+   * @param source where to retrieve the characters for lexing into tokens
+   * @param sink what to push each token to
+   * @return {@code true} if every token was pushed to the {@code sink}, or {@code false} if it
+   *     stopped lexing early
+   */
+  public boolean lex(PrimitiveIterator.OfInt source, TokenSink sink) {
+    return TokenPusher.push(new TextParser(source), sink);
+  }
+
+  /**
+   * Lexes every token of the {@code source}, as for {@link #lex(CharSequence)}, but pushes each
+   * token to the {@code sink} as it's lexed rather than returning an iterator. No {@link Token}s
+   * are created.
+   *
+   * <p>Example usage:
+   *
+   * <pre><code>
+   * String sourceCode = ...
+   *
+   * var lexer = new Lexer();
+   * lexer.lex(sourceCode, new TokenSink() {
+   *   &#64;Override
+   *   public boolean onIdentifier(CharSequence text, long start) {
+   *     ...
+   *     return true;
+   *   }
+   * });
+   * </code></pre>
+   *
+   * @param source the characters to lex into tokens
+   * @param sink what to push each token to
+   * @return {@code true} if every token was pushed to the {@code sink}, or {@code false} if it
+   *     stopped lexing early
+   */
+  public boolean lex(CharSequence source, TokenSink sink) {
+    return TokenPusher.push(new CharSequenceTextParser(source), sink);
+  }
+
+  /**
+   * Lexes every token of the {@code source}, as for {@link #lex(char[])}, but pushes each token to
+   * the {@code sink} as it's lexed.
+   *
+   * @param source the characters to lex into tokens
+   * @param sink what to push each token to
+   * @return {@code true} if every token was pushed to the {@code sink}, or {@code false} if it
+   *     stopped lexing early
+   */
+  public boolean lex(char[] source, TokenSink sink) {
+    return TokenPusher.push(new CharSequenceTextParser(source), sink);
+  }
+
+  /**
+   * Lexes every token of the {@code source}, as for {@link #lex(Reader)}, but pushes each token to
+   * the {@code sink} as it's lexed. Errors which occur while reading are rethrown as {@link
+   * java.io.UncheckedIOException}s.
+   *
+   * @param source where to read the characters from, which is not closed
+   * @param sink what to push each token to
+   * @return {@code true} if every token was pushed to the {@code sink}, or {@code false} if it
+   *     stopped lexing early
+   */
+  public boolean lex(Reader source, TokenSink sink) {
+    return TokenPusher.push(new TextParser(source), sink);
+  }
+
+  /**
+   * Lexes every token of the {@code source}, as for {@link #lex(InputStream, Charset)}, but pushes
+   * each token to the {@code sink} as it's lexed. Errors which occur while reading are rethrown as
+   * {@link java.io.UncheckedIOException}s.
+   *
+   * @param source where to read the bytes from, which is not closed
+   * @param defaultCharset how to decode the bytes if the {@code source} doesn't start with a byte
+   *     order mark
+   * @param sink what to push each token to
+   * @return {@code true} if every token was pushed to the {@code sink}, or {@code false} if it
+   *     stopped lexing early
+   */
+  public boolean lex(InputStream source, Charset defaultCharset, TokenSink sink) {
+    return TokenPusher.push(new TextParser(source, defaultCharset), sink);
+  }
+
+  /**
+   * Lexes every token of the UTF-8 encoded {@code source}, as for {@link #lex(byte[])}, but pushes
+   * each token to the {@code sink} as it's lexed.
+   *
+   * @param source the UTF-8 encoded bytes to lex into tokens
+   * @param sink what to push each token to
+   * @return {@code true} if every token was pushed to the {@code sink}, or {@code false} if it
+   *     stopped lexing early
+   */
+  public boolean lex(byte[] source, TokenSink sink) {
+    return TokenPusher.push(new Utf8TextParser(source), sink);
+  }
+
+  /**
+   * Lexes every token of the UTF-8 encoded {@code source}, as for {@link #lex(ByteBuffer)}, but
+   * pushes each token to the {@code sink} as it's lexed.
+   *
+   * @param source the UTF-8 encoded bytes to lex into tokens
+   * @param sink what to push each token to
+   * @return {@code true} if every token was pushed to the {@code sink}, or {@code false} if it
+   *     stopped lexing early
+   */
+  public boolean lex(ByteBuffer source, TokenSink sink) {
+    return TokenPusher.push(new Utf8TextParser(source), sink);
+  }
+
+  /**
+   * Lexes every token of a UTF-8 encoded file, as for {@link #lex(Path)}, but pushes each token to
+   * the {@code sink} as it's lexed.
+   *
+   * @param source the UTF-8 encoded file to lex into tokens
+   * @param sink what to push each token to
+   * @return {@code true} if every token was pushed to the {@code sink}, or {@code false} if it
+   *     stopped lexing early
+   * @throws IOException if the file can't be opened or mapped. Errors which occur while lexing are
+   *     rethrown as {@link java.io.UncheckedIOException}s
+   */
+  public boolean lex(Path source, TokenSink sink) throws IOException {
+    return TokenPusher.push(new MappedFileTextParser(source), sink);
+  }
+
+  /**
+   * Returns a cursor over the tokens of the {@code source}, which are generated lazily by lexing
+   * code points taken from it, as for {@link #lex(PrimitiveIterator.OfInt)}.
+   *
+   * @param source where to retrieve the characters for lexing into tokens
+   * @return a cursor over the tokens found in the specified {@code source}
+   */
+  public TokenCursor lexToCursor(PrimitiveIterator.OfInt source) {
+    return new LexingTokenCursor(new TextParser(source));
+  }
+
+  /**
+   * Returns a cursor over the tokens of the {@code source}, which are generated lazily by lexing
+   * its characters, as for {@link #lex(CharSequence)}. Unlike the {@link Token}s of a {@link
+   * TokenIterator}, nothing is allocated for each token.
+   *
+   * <p>Example usage:
+   *
+   * <pre><code>
+   * String sourceCode = ...
+   *
+   * var lexer = new Lexer();
+   * var tokens = lexer.lexToCursor(sourceCode);
+   * while (tokens.advance()) {
+   *   if (tokens.type() == TokenType.IDENTIFIER) ...
+   * }
+   * </code></pre>
+   *
+   * @param source the characters to lex into tokens
+   * @return a cursor over the tokens found in the specified {@code source}
+   */
+  public TokenCursor lexToCursor(CharSequence source) {
+    return new LexingTokenCursor(new CharSequenceTextParser(source));
+  }
+
+  /**
+   * Returns a cursor over the tokens of the {@code source}, as for {@link #lex(char[])}.
+   *
+   * @param source the characters to lex into tokens
+   * @return a cursor over the tokens found in the specified {@code source}
+   */
+  public TokenCursor lexToCursor(char[] source) {
+    return new LexingTokenCursor(new CharSequenceTextParser(source));
+  }
+
+  /**
+   * Returns a cursor over the tokens of the {@code source}, as for {@link #lex(Reader)}.
+   *
+   * @param source where to read the characters from, which is not closed by the cursor
+   * @return a cursor over the tokens found in the specified {@code source}. Errors which occur
+   *     while reading are rethrown by the cursor as {@link java.io.UncheckedIOException}s
+   */
+  public TokenCursor lexToCursor(Reader source) {
+    return new LexingTokenCursor(new TextParser(source));
+  }
+
+  /**
+   * Returns a cursor over the tokens of the {@code source}, as for {@link #lex(InputStream,
+   * Charset)}.
+   *
+   * @param source where to read the bytes from, which is not closed by the cursor
+   * @param defaultCharset how to decode the bytes if the {@code source} doesn't start with a byte
+   *     order mark
+   * @return a cursor over the tokens found in the specified {@code source}. Errors which occur
+   *     while reading are rethrown by the cursor as {@link java.io.UncheckedIOException}s
+   */
+  public TokenCursor lexToCursor(InputStream source, Charset defaultCharset) {
+    return new LexingTokenCursor(new TextParser(source, defaultCharset));
+  }
+
+  /**
+   * Returns a cursor over the tokens of the UTF-8 encoded {@code source}, as for {@link
+   * #lex(byte[])}.
+   *
+   * @param source the UTF-8 encoded bytes to lex into tokens
+   * @return a cursor over the tokens found in the specified {@code source}
+   */
+  public TokenCursor lexToCursor(byte[] source) {
+    return new LexingTokenCursor(new Utf8TextParser(source));
+  }
+
+  /**
+   * Returns a cursor over the tokens of the UTF-8 encoded {@code source}, as for {@link
+   * #lex(ByteBuffer)}.
+   *
+   * @param source the UTF-8 encoded bytes to lex into tokens
+   * @return a cursor over the tokens found in the specified {@code source}
+   */
+  public TokenCursor lexToCursor(ByteBuffer source) {
+    return new LexingTokenCursor(new Utf8TextParser(source));
+  }
+
+  /**
+   * Returns a cursor over the tokens of a UTF-8 encoded file, as for {@link #lex(Path)}.
+   *
+   * @param source the UTF-8 encoded file to lex into tokens
+   * @return a cursor over the tokens found in the specified {@code source}
+   * @throws IOException if the file can't be opened or mapped. Errors which occur after this method
+   *     has returned are rethrown by the cursor as {@link java.io.UncheckedIOException}s
+   */
+  public TokenCursor lexToCursor(Path source) throws IOException {
+    return new LexingTokenCursor(new MappedFileTextParser(source));
+  }
+
+  /**
+   * Lexes every token of the {@code source} up front, into a compact {@link TokenTable}. The {@code
+   * source} is retained by the table, and must not be modified while the table is still in use.
+   *
+   * <p>Example usage:
+   *
+   * <pre><code>
+   * String sourceCode = ...
+   *
+   * var lexer = new Lexer();
+   * var tokens = lexer.lexToTable(sourceCode);
+   * for (int idx = 0; idx &lt; tokens.size(); idx++) {
+   *   if (tokens.type(idx) == TokenType.IDENTIFIER) ...
+   * }
+   * </code></pre>
+   *
+   * @param source the characters to lex into tokens
+   * @return every token of the {@code source}
+   */
+  public TokenTable lexToTable(CharSequence source) {
+    return TokenTable.lex(new CharSequenceTextParser(source));
+  }
+
+  /**
+   * Lexes every token of the {@code source} up front, into a compact {@link TokenTable}, using
+   * every core. The result is exactly the same as for {@link #lexToTable(CharSequence)}, but large
+   * texts are split into chunks which are lexed in parallel, on the common {@link
+   * java.util.concurrent.ForkJoinPool}. Texts smaller than a few MiB are lexed sequentially, as
+   * splitting them doesn't pay off. Unlike other tables, the result can be read by multiple threads
+   * at once.
+   *
+   * @param source the characters to lex into tokens
+   * @return every token of the {@code source}
+   */
+  public TokenTable lexToTableInParallel(CharSequence source) {
+    return ParallelLexer.lex(source);
+  }
+
+  /**
+   * Lexes every token of the {@code source} up front, into a compact {@link TokenTable}. The {@code
+   * source} is retained by the table, and must not be modified while the table is still in use.
+   *
+   * @param source the characters to lex into tokens
+   * @return every token of the {@code source}
+   */
+  public TokenTable lexToTable(char[] source) {
+    return TokenTable.lex(new CharSequenceTextParser(source));
+  }
+
+  /**
+   * Lexes every token of the UTF-8 encoded {@code source} up front, into a compact {@link
+   * TokenTable}. The {@code source} is retained by the table, and must not be modified while the
+   * table is still in use.
+   *
+   * @param source the UTF-8 encoded bytes to lex into tokens
+   * @return every token of the {@code source}
+   */
+  public TokenTable lexToTable(byte[] source) {
+    return TokenTable.lex(new Utf8TextParser(source));
+  }
+
+  /**
+   * Lexes every token of the UTF-8 encoded bytes between the current position and the limit of the
+   * {@code source} up front, into a compact {@link TokenTable}. The {@code source} is retained by
+   * the table, and must not be modified while the table is still in use. The position and limit of
+   * the {@code source} are not modified.
+   *
+   * @param source the UTF-8 encoded bytes to lex into tokens
+   * @return every token of the {@code source}
+   */
+  public TokenTable lexToTable(ByteBuffer source) {
+    return TokenTable.lex(new Utf8TextParser(source));
+  }
 }
@@ -0,0 +1,152 @@
+package com.jakemarsden.java.lexer;
+
+import com.jakemarsden.java.lexer.parser.TokenScanner;
+import com.jakemarsden.java.lexer.text.CharSequenceTextParser;
+import com.jakemarsden.java.lexer.text.Utf8TextParser;
+import java.nio.ByteBuffer;
+import java.util.Queue;
+
+/**
+ * Lexes one text after another, reusing everything it needs to do so. The text parsers, token
+ * parsers and cursor are created the first time they're needed, and their buffers are kept and only
+ * grown when a text needs more room than any before it. Lexing many small texts with the same
+ * session reaches a steady state in which nothing is allocated to set up each text.
+ *
+ * <p>Example usage:
+ *
+ * <pre><code>
+ * var lexer = new Lexer();
+ * for (String snippet : snippets) {
+ *   try (var session = lexer.openSession()) {
+ *     var tokens = session.reset(snippet);
+ *     while (tokens.advance()) ...
+ *   }
+ * }
+ * </code></pre>
+ *
+ * <p>Each call to {@code reset} abandons the previous text, and returns the same cursor, so the
+ * cursor's current token is lost. {@link com.jakemarsden.java.lexer.token.Token}s, text and
+ * positions taken from the cursor are unaffected, as long as the previous text isn't modified. Not
+ * safe for use by multiple threads at once, but {@link Lexer#openSession()} hands out a separate
+ * session to each caller.
+ */
+public final class LexerSession implements AutoCloseable {
+
+  /** Where to return the session when it's closed, or {@code null} if it isn't pooled. */
+  private final Queue<LexerSession> pool;
+
+  /** Whether the session has been handed out by its pool and not yet returned. */
+  private boolean open;
+
+  private CharSequenceTextParser charParser;
+  private TokenScanner charScanner;
+  private Utf8TextParser utf8Parser;
+  private TokenScanner utf8Scanner;
+  private LexingTokenCursor cursor;
+
+  /** Creates a session which isn't pooled, so closing it does nothing. */
+  public LexerSession() {
+    this(null);
+  }
+
+  LexerSession(Queue<LexerSession> pool) {
+    this.pool = pool;
+  }
+
+  /**
+   * Starts lexing the characters of the {@code source}, abandoning any previous text. The {@code
+   * source} must not be modified while its tokens are still in use.
+   *
+   * @param source the characters to lex into tokens
+   * @return the session's cursor, positioned before the first token of the {@code source}. The same
+   *     cursor is returned by every call
+   */
+  public TokenCursor reset(CharSequence source) {
+    if (this.charParser == null) {
+      this.charParser = new CharSequenceTextParser(source);
+      this.charScanner = new TokenScanner(this.charParser);
+    } else {
+      this.charParser.setText(source);
+    }
+    return this.cursor(this.charScanner);
+  }
+
+  /**
+   * Starts lexing the characters of the {@code source}, abandoning any previous text, as for {@link
+   * #reset(CharSequence)}.
+   *
+   * @param source the characters to lex into tokens
+   * @return the session's cursor, positioned before the first token of the {@code source}
+   */
+  public TokenCursor reset(char[] source) {
+    if (this.charParser == null) {
+      this.charParser = new CharSequenceTextParser(source);
+      this.charScanner = new TokenScanner(this.charParser);
+    } else {
+      this.charParser.setText(source, 0, source.length);
+    }
+    return this.cursor(this.charScanner);
+  }
+
+  /**
+   * Starts lexing the UTF-8 encoded {@code source}, abandoning any previous text. The bytes are
+   * lexed directly, as for {@link Lexer#lex(byte[])}, and must not be modified while their tokens
+   * are still in use.
+   *
+   * @param source the UTF-8 encoded bytes to lex into tokens
+   * @return the session's cursor, positioned before the first token of the {@code source}
+   */
+  public TokenCursor reset(byte[] source) {
+    if (this.utf8Parser == null) {
+      this.utf8Parser = new Utf8TextParser(source);
+      this.utf8Scanner = new TokenScanner(this.utf8Parser);
+    } else {
+      this.utf8Parser.setText(source);
+    }
+    return this.cursor(this.utf8Scanner);
+  }
+
+  /**
+   * Starts lexing the UTF-8 encoded bytes between the current position and the limit of the {@code
+   * source}, abandoning any previous text, as for {@link #reset(byte[])}. The position and limit of
+   * the {@code source} are not modified.
+   *
+   * @param source the UTF-8 encoded bytes to lex into tokens
+   * @return the session's cursor, positioned before the first token of the {@code source}
+   */
+  public TokenCursor reset(ByteBuffer source) {
+    if (this.utf8Parser == null) {
+      this.utf8Parser = new Utf8TextParser(source);
+      this.utf8Scanner = new TokenScanner(this.utf8Parser);
+    } else {
+      this.utf8Parser.setText(source);
+    }
+    return this.cursor(this.utf8Scanner);
+  }
+
+  /**
+   * Returns the session to the pool it came from, if any, so that it can be handed out again. The
+   * session must no longer be used. Closing a session more than once has no further effect.
+   */
+  @Override
+  public void close() {
+    if (this.pool == null || !this.open) return;
+    this.open = false;
+    this.pool.offer(this);
+  }
+
+  /** Marks the session as handed out by its pool. */
+  LexerSession open() {
+    this.open = true;
+    return this;
+  }
+
+  private TokenCursor cursor(TokenScanner scanner) {
+    if (this.cursor == null) {
+      this.cursor = new LexingTokenCursor(scanner);
+    } else {
+      this.cursor.reset(scanner);
+    }
+    return this.cursor;
+  }
+}
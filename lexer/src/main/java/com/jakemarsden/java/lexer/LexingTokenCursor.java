@@ -0,0 +1,115 @@
+package com.jakemarsden.java.lexer;
+
+import com.jakemarsden.java.lexer.parser.TokenScanner;
+import com.jakemarsden.java.lexer.text.AbstractTextParser;
+import com.jakemarsden.java.lexer.text.TextPosition;
+import com.jakemarsden.java.lexer.token.CommentType;
+import com.jakemarsden.java.lexer.token.Keyword;
+import com.jakemarsden.java.lexer.token.Operator;
+import com.jakemarsden.java.lexer.token.Separator;
+import com.jakemarsden.java.lexer.token.Token;
+import com.jakemarsden.java.lexer.token.TokenType;
+import java.nio.CharBuffer;
+
+/**
+ * Adapts the characters of an {@link AbstractTextParser} into a {@link TokenCursor}. Tokens are
+ * lexed by a {@link TokenScanner}, which already describes the current token in place, so this only
+ * adds the checks for there being a current token. A {@link LexerSession} switches its cursor from
+ * one scanner to another, rather than creating a new cursor for each text.
+ */
+final class LexingTokenCursor implements TokenCursor {
+
+  private TokenScanner scanner;
+  private boolean current;
+
+  LexingTokenCursor(AbstractTextParser parser) {
+    this(new TokenScanner(parser));
+  }
+
+  LexingTokenCursor(TokenScanner scanner) {
+    this.reset(scanner);
+  }
+
+  /** Moves on to the tokens of the {@code scanner}, before its first token. */
+  void reset(TokenScanner scanner) {
+    this.scanner = scanner;
+    this.current = false;
+  }
+
+  @Override
+  public boolean advance() {
+    this.current = this.scanner.advance();
+    return this.current;
+  }
+
+  @Override
+  public TokenType type() {
+    this.checkCurrent();
+    return this.scanner.type();
+  }
+
+  @Override
+  public CommentType commentType() {
+    return Subtypes.commentType(this.type(), this.scanner.subtype());
+  }
+
+  @Override
+  public Keyword keyword() {
+    return Subtypes.keyword(this.type(), this.scanner.subtype());
+  }
+
+  @Override
+  public Operator operator() {
+    return Subtypes.operator(this.type(), this.scanner.subtype());
+  }
+
+  @Override
+  public Separator separator() {
+    return Subtypes.separator(this.type(), this.scanner.subtype());
+  }
+
+  @Override
+  public int value() {
+    return this.type() == TokenType.NUMBER_LITERAL ? this.scanner.value() : 0;
+  }
+
+  @Override
+  public long start() {
+    this.checkCurrent();
+    return this.scanner.start();
+  }
+
+  @Override
+  public long length() {
+    this.checkCurrent();
+    return this.scanner.length();
+  }
+
+  @Override
+  public int text(CharBuffer out) {
+    this.checkCurrent();
+    return this.scanner.text(out);
+  }
+
+  @Override
+  public CharSequence text() {
+    this.checkCurrent();
+    return this.scanner.text();
+  }
+
+  @Override
+  public TextPosition position() {
+    this.checkCurrent();
+    return this.scanner.position();
+  }
+
+  @Override
+  public Token token() {
+    this.checkCurrent();
+    return this.scanner.token();
+  }
+
+  private void checkCurrent() {
+    if (!this.current) throw new IllegalStateException("No current token");
+  }
+}
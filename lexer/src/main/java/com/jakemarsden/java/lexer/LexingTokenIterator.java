@@ -1,80 +1,69 @@
 package com.jakemarsden.java.lexer;
 
-import static com.jakemarsden.java.lexer.text.TextParser.EOF;
-import static java.lang.String.format;
-import static org.fissore.slf4j.FluentLoggerFactory.getLogger;
-
-import com.jakemarsden.java.lexer.parser.*;
+import com.jakemarsden.java.lexer.parser.TokenScanner;
+import com.jakemarsden.java.lexer.text.AbstractTextParser;
 import com.jakemarsden.java.lexer.text.TextParser;
 import com.jakemarsden.java.lexer.token.Token;
+import com.jakemarsden.java.lexer.token.TokenType;
 import java.util.NoSuchElementException;
-import java.util.Optional;
 import java.util.PrimitiveIterator;
-import org.fissore.slf4j.FluentLogger;
+import java.util.Set;
 
 /**
- * Adapts a sequence of code points, represented by a {@link PrimitiveIterator.OfInt}, into a
- * sequence of tokens, represented by a {@link com.jakemarsden.java.lexer.TokenIterator}.
+ * Adapts a sequence of code points, represented by a {@link PrimitiveIterator.OfInt} or by any
+ * other {@link AbstractTextParser}, into a sequence of tokens, represented by a {@link
+ * com.jakemarsden.java.lexer.TokenIterator}. Tokens are lexed by a {@link TokenScanner}, and a
+ * {@link Token} is created for each one unless they're taken in a {@link TokenBatch}.
+ *
+ * <p>Tokens may be restricted to only some {@link TokenType}s, in which case the others are skipped
+ * over by the scanner without anything being created for them.
  */
 final class LexingTokenIterator implements TokenIterator {
 
-  private static final FluentLogger LOGGER = getLogger(LexingTokenIterator.class);
+  private final TokenScanner scanner;
 
-  private final TextParser parser;
+  /** The types of token to return, as a mask for {@link TokenScanner#advance(int)}. */
+  private final int typeMask;
 
-  private final CommentTokenParser commentParser;
-  private final KeywordIdentifierTokenParser keywordIdentifierParser;
-  private final NumberLiteralTokenParser numberLiteralParser;
-  private final OperatorTokenParser operatorParser;
-  private final SeparatorTokenParser separatorParser;
-  private final SimpleLiteralTokenParser simpleLiteralParser;
-  private final StringCharacterLiteralTokenParser stringCharacterLiteralParser;
-  private final WhitespaceTokenParser whitespaceParser;
+  /** Whether the scanner's current token has been found by {@link #hasNext()} but not returned. */
+  private boolean pending;
 
   LexingTokenIterator(PrimitiveIterator.OfInt codePoints) {
-    this.parser = new TextParser(codePoints);
-    this.commentParser = new CommentTokenParser(this.parser);
-    this.keywordIdentifierParser = new KeywordIdentifierTokenParser(this.parser);
-    this.numberLiteralParser = new NumberLiteralTokenParser(this.parser);
-    this.operatorParser = new OperatorTokenParser(this.parser);
-    this.separatorParser = new SeparatorTokenParser(this.parser);
-    this.simpleLiteralParser = new SimpleLiteralTokenParser(this.parser);
-    this.stringCharacterLiteralParser = new StringCharacterLiteralTokenParser(this.parser);
-    this.whitespaceParser = new WhitespaceTokenParser(this.parser);
+    this(new TextParser(codePoints));
+  }
+
+  LexingTokenIterator(AbstractTextParser parser) {
+    this.scanner = new TokenScanner(parser);
+    this.typeMask = TokenScanner.ALL_TYPES;
+  }
+
+  LexingTokenIterator(AbstractTextParser parser, Set<TokenType> types) {
+    this.scanner = new TokenScanner(parser);
+    this.typeMask = TokenScanner.typeMask(types);
   }
 
   @Override
   public boolean hasNext() {
-    return this.parser.hasRemaining();
+    if (!this.pending) {
+      this.pending =
+          this.typeMask == TokenScanner.ALL_TYPES
+              ? this.scanner.advance()
+              : this.scanner.advance(this.typeMask);
+    }
+    return this.pending;
   }
 
   @Override
   public Token next() {
-    Optional<? extends Token> t;
-    if ((t = this.whitespaceParser.maybeConsumeNext()).isPresent()) return t.get();
-    if ((t = this.commentParser.maybeConsumeNext()).isPresent()) return t.get();
-
-    if ((t = this.simpleLiteralParser.maybeConsumeNext()).isPresent()) return t.get();
-    if ((t = this.numberLiteralParser.maybeConsumeNext()).isPresent()) return t.get();
-    if ((t = this.stringCharacterLiteralParser.maybeConsumeNext()).isPresent()) return t.get();
-
-    if ((t = this.keywordIdentifierParser.maybeConsumeNext()).isPresent()) return t.get();
-    if ((t = this.separatorParser.maybeConsumeNext()).isPresent()) return t.get();
-    if ((t = this.operatorParser.maybeConsumeNext()).isPresent()) return t.get();
-
-    var invalidToken = this.consumeInvalidToken();
-    if (invalidToken != null) {
-      LOGGER.warn().log(() -> format("Invalid token: %s", invalidToken));
-      return invalidToken;
-    }
-
-    throw new NoSuchElementException();
+    if (!this.hasNext()) throw new NoSuchElementException();
+    this.pending = false;
+    return this.scanner.token();
   }
 
-  private Token consumeInvalidToken() {
-    var startPos = this.parser.getPosition();
-    var ch = this.parser.consume();
-    if (ch == EOF) return null;
-    return Token.invalid(Character.toString(ch), startPos);
+  @Override
+  public int nextBatch(TokenBatch batch) {
+    var current = this.pending;
+    this.pending = false;
+    return batch.fill(this.scanner, this.typeMask, current);
   }
 }
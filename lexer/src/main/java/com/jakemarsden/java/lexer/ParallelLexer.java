@@ -0,0 +1,169 @@
+package com.jakemarsden.java.lexer;
+
+import static java.lang.Math.toIntExact;
+
+import com.jakemarsden.java.lexer.parser.TokenScanner;
+import com.jakemarsden.java.lexer.text.CharSequenceTextParser;
+import java.util.stream.IntStream;
+
+/**
+ * Lexes a large text into a {@link TokenTable} using every core, with exactly the same result as
+ * lexing it sequentially.
+ *
+ * <p>The text is split into chunks at line starts, and every chunk is lexed speculatively, in
+ * parallel, as if a token starts at its first character. The last token of each chunk is allowed to
+ * run on past the end of the chunk. That assumption is wrong wherever a token spans a seam between
+ * chunks, e.g. a block comment or some indentation, so the chunks are then stitched together in
+ * order. Sequential lexing must reach a token boundary at or after the start of each chunk, where
+ * the previous chunk's tokens end. If one of the chunk's speculative tokens starts there, then it
+ * and every token after it are exactly what sequential lexing would have found, as the lexer has no
+ * state between tokens. Otherwise, only as much of the chunk as is needed is lexed again, until a
+ * token ends where one of the speculative tokens starts.
+ *
+ * <p>The start of every line is found in a separate parallel pass, and the line starts of the
+ * chunks are combined with a prefix sum of their lengths.
+ */
+final class ParallelLexer {
+
+  /** The minimum number of {@code char}s in each chunk, below which splitting doesn't pay off. */
+  static final int MIN_CHUNK_SIZE = 1 << 20;
+
+  /** How many chunks to split the text into for each core, to even out the load. */
+  private static final int CHUNKS_PER_CORE = 4;
+
+  static TokenTable lex(CharSequence text) {
+    return lexFrom(text, 0);
+  }
+
+  /**
+   * Lexes only the tokens from {@code fromCharIdx} onwards, which must be a token boundary. The
+   * tokens keep their positions within the whole {@code text}.
+   *
+   * @param fromCharIdx the index of the first character to lex, in code points
+   */
+  static TokenTable lexFrom(CharSequence text, long fromCharIdx) {
+    var cores = Runtime.getRuntime().availableProcessors();
+    var chunkSize = Math.max(MIN_CHUNK_SIZE, text.length() / (cores * CHUNKS_PER_CORE) + 1);
+    return lexFrom(text, fromCharIdx, chunkSize);
+  }
+
+  /** @param chunkSize the approximate number of {@code char}s in each chunk */
+  static TokenTable lex(CharSequence text, int chunkSize) {
+    return lexFrom(text, 0, chunkSize);
+  }
+
+  /**
+   * @param fromCharIdx the index of the first character to lex, in code points
+   * @param chunkSize the approximate number of {@code char}s in each chunk
+   */
+  static TokenTable lexFrom(CharSequence text, long fromCharIdx, int chunkSize) {
+    // the table's parser works out everything up front, so the table can be read by many threads
+    var table = new TokenTable(CharSequenceTextParser.consumed(text));
+    var fromIdx = Character.offsetByCodePoints(text, 0, toIntExact(fromCharIdx));
+    var bounds = chunkBounds(text, fromIdx, chunkSize);
+    var chunkCount = bounds.length - 1;
+    if (chunkCount <= 1) {
+      var parser = new CharSequenceTextParser(text, fromIdx, text.length() - fromIdx);
+      var scanner = new TokenScanner(parser);
+      while (scanner.advance()) table.add(scanner, fromCharIdx);
+      table.trimToSize();
+      return table;
+    }
+
+    var chunks =
+        IntStream.range(0, chunkCount)
+            .parallel()
+            .mapToObj(chunk -> Chunk.lex(text, bounds[chunk], bounds[chunk + 1]))
+            .toArray(Chunk[]::new);
+
+    var chunkStart = fromCharIdx;
+    // where sequential lexing has reached, which is always a token boundary
+    var boundary = fromCharIdx;
+    for (var chunk : chunks) {
+      var chunkEnd = chunkStart + chunk.charCount;
+      if (boundary < chunkEnd) {
+        var from = chunk.tokens.indexOfStart(boundary - chunkStart);
+        if (from >= 0) {
+          table.addAll(chunk.tokens, from, chunkStart);
+          boundary = chunkStart + chunk.tokens.end();
+        } else {
+          boundary =
+              chunkStart + chunk.relex(text, toIntExact(boundary - chunkStart), table, chunkStart);
+        }
+      }
+      chunkStart = chunkEnd;
+    }
+    table.trimToSize();
+    return table;
+  }
+
+  /**
+   * @return the index of the first {@code char} of each chunk, starting with {@code from}, followed
+   *     by the length of the {@code text}. Every chunk but the first starts just after a line feed,
+   *     so that no surrogate pair or line terminator is ever split
+   */
+  private static int[] chunkBounds(CharSequence text, int from, int chunkSize) {
+    var length = text.length();
+    var bounds = IntStream.builder().add(from);
+    var idx = from + chunkSize;
+    while (idx < length) {
+      while (idx < length && text.charAt(idx - 1) != '\n') idx++;
+      if (idx >= length) break;
+      bounds.add(idx);
+      idx += chunkSize;
+    }
+    return bounds.add(length).build().toArray();
+  }
+
+  /** The tokens of one chunk, lexed speculatively. Their starts are relative to the chunk. */
+  private static final class Chunk {
+
+    private final int start;
+    private final int charCount;
+    private final TokenTable tokens;
+
+    private Chunk(int start, int charCount, TokenTable tokens) {
+      this.start = start;
+      this.charCount = charCount;
+      this.tokens = tokens;
+    }
+
+    /**
+     * Lexes every token which starts in the {@code char}s in the range {@code [start, end)} of the
+     * {@code text}, as if a token starts at {@code start}.
+     */
+    static Chunk lex(CharSequence text, int start, int end) {
+      var charCount = Character.codePointCount(text, start, end);
+      var parser = new CharSequenceTextParser(text, start, text.length() - start);
+      var tokens = new TokenTable(parser);
+      var scanner = new TokenScanner(parser);
+      while (parser.getCharIndex() < charCount && scanner.advance()) tokens.add(scanner, 0);
+      return new Chunk(start, charCount, tokens);
+    }
+
+    /**
+     * Lexes the chunk again from {@code charIdx}, which is known to be a token boundary, until
+     * reaching a token boundary which is also the start of one of the speculative tokens, or the
+     * end of the chunk. The tokens are added to the {@code table}.
+     *
+     * @return the index of the character after the last token added, relative to the chunk
+     */
+    long relex(CharSequence text, int charIdx, TokenTable table, long offset) {
+      var parser = new CharSequenceTextParser(text, this.start, text.length() - this.start);
+      parser.skip(charIdx);
+      var scanner = new TokenScanner(parser);
+      while (scanner.advance()) {
+        table.add(scanner, offset);
+        var end = scanner.start() + scanner.length();
+        if (end >= this.charCount) return end;
+
+        var from = this.tokens.indexOfStart(end);
+        if (from >= 0) {
+          table.addAll(this.tokens, from, offset);
+          return this.tokens.end();
+        }
+      }
+      return parser.getCharIndex();
+    }
+  }
+}
@@ -0,0 +1,246 @@
+package com.jakemarsden.java.lexer;
+
+import static java.util.Objects.requireNonNull;
+
+import com.jakemarsden.java.lexer.token.Token;
+import java.lang.ref.Cleaner;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Decorates a {@link TokenIterator} so that its tokens are lexed ahead of time, on a producer
+ * thread of their own, while the consumer is still busy with earlier tokens. Worthwhile when
+ * whatever consumes the tokens is expensive, as lexing and consuming then overlap on separate
+ * cores.
+ *
+ * <p>The producer takes tokens from the decorated iterator in batches, and publishes each batch
+ * through a bounded, lock-free ring, which it waits on once it's full. The line and column of each
+ * token's position are resolved by the producer before it's published. The decorated iterator must
+ * not be used by anything else once it's been decorated.
+ *
+ * <p>Example usage:
+ *
+ * <pre><code>
+ * var lexer = new Lexer();
+ * try (var tokens = new PipelinedTokenIterator(lexer.lex(sourceFile))) {
+ *   tokens.forEachRemaining(...);
+ * }
+ * </code></pre>
+ *
+ * <p>Not safe for use by multiple threads at once. Close the iterator if it isn't consumed to the
+ * end, to stop its producer. An iterator which is abandoned without being closed stops its producer
+ * once it's been garbage collected, and a producer waiting on a full ring parks rather than
+ * spinning or yielding once it's waited for a while, so an abandoned producer doesn't keep a core
+ * busy in the meantime.
+ */
+public final class PipelinedTokenIterator implements TokenIterator, AutoCloseable {
+
+  /** The number of batches which can be waiting in the ring, by default. */
+  public static final int DEFAULT_CAPACITY = 16;
+
+  /** The number of tokens in each batch, except the last. */
+  static final int BATCH_SIZE = 256;
+
+  /** Published once there are no more tokens, or if the producer fails. */
+  private static final Token[] END = new Token[0];
+
+  /**
+   * How many times a producer waits on a full ring with its {@link WaitStrategy} before parking
+   * instead. A full ring means the consumer already has plenty of tokens, so parking the producer
+   * costs nothing but a little CPU time.
+   */
+  static final int MAX_FULL_WAITS = 1 << 14;
+
+  private static final AtomicInteger THREAD_COUNT = new AtomicInteger();
+
+  /** Stops the producers of iterators which are garbage collected without being closed. */
+  private static final Cleaner CLEANER = Cleaner.create();
+
+  private final Producer producer;
+  private final Cleaner.Cleanable cleanable;
+
+  private Token[] batch = new Token[0];
+  private int batchIdx;
+
+  /**
+   * Uses a ring of {@link #DEFAULT_CAPACITY} batches, and parks while waiting.
+   *
+   * @param tokens the tokens to lex on the producer thread
+   */
+  public PipelinedTokenIterator(TokenIterator tokens) {
+    this(tokens, DEFAULT_CAPACITY, WaitStrategy.PARK);
+  }
+
+  /**
+   * @param tokens the tokens to lex on the producer thread
+   * @param capacity the number of batches which can be waiting in the ring, which is rounded up to
+   *     a power of two
+   * @param waitStrategy how to wait while the ring is empty or full
+   * @throws IllegalArgumentException if {@code capacity} isn't positive
+   */
+  public PipelinedTokenIterator(TokenIterator tokens, int capacity, WaitStrategy waitStrategy) {
+    this(tokens, capacity, waitStrategy, PipelinedTokenIterator::startDaemonThread);
+  }
+
+  /**
+   * Runs the producer on the {@code executor} rather than on a thread of its own. The producer runs
+   * until every token has been published, or until the iterator is closed or garbage collected, so
+   * it must be run on some thread other than the caller's.
+   *
+   * @param tokens the tokens to lex on the producer thread
+   * @param capacity the number of batches which can be waiting in the ring, which is rounded up to
+   *     a power of two
+   * @param waitStrategy how to wait while the ring is empty or full
+   * @param executor runs the producer
+   * @throws IllegalArgumentException if {@code capacity} isn't positive
+   * @throws java.util.concurrent.RejectedExecutionException if the {@code executor} won't run the
+   *     producer
+   */
+  public PipelinedTokenIterator(
+      TokenIterator tokens, int capacity, WaitStrategy waitStrategy, Executor executor) {
+    this.producer =
+        new Producer(
+            requireNonNull(tokens), new SpscRing<>(capacity), requireNonNull(waitStrategy));
+    requireNonNull(executor).execute(this.producer);
+    // the producer doesn't refer back to this iterator, so it can be collected if it's abandoned
+    this.cleanable = CLEANER.register(this, this.producer::stop);
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * <p>Waits for the producer if it hasn't yet caught up. Errors thrown by the decorated iterator
+   * are rethrown once every token before them has been returned.
+   */
+  @Override
+  public boolean hasNext() {
+    while (this.batchIdx == this.batch.length) {
+      if (this.batch == END) return false;
+      var batch = this.producer.ring.poll();
+      if (batch == null) {
+        this.producer.waitStrategy.idle();
+        continue;
+      }
+      this.batch = batch;
+      this.batchIdx = 0;
+      if (batch == END) this.producer.rethrowFailure();
+    }
+    return true;
+  }
+
+  @Override
+  public Token next() {
+    if (!this.hasNext()) throw new NoSuchElementException();
+    var token = this.batch[this.batchIdx];
+    this.batch[this.batchIdx++] = null;
+    return token;
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * <p>The batch is filled with the tokens which the producer has already created.
+   */
+  @Override
+  public int nextBatch(TokenBatch batch) {
+    batch.clear();
+    while (!batch.isFull() && this.hasNext()) {
+      var count = Math.min(batch.capacity() - batch.size(), this.batch.length - this.batchIdx);
+      for (int idx = 0; idx < count; idx++) {
+        batch.add(this.batch[this.batchIdx]);
+        this.batch[this.batchIdx++] = null;
+      }
+    }
+    return batch.size();
+  }
+
+  /**
+   * Stops the producer, and discards any tokens which it had lexed but which haven't been returned.
+   * Does nothing if every token has been returned.
+   */
+  @Override
+  public void close() {
+    this.cleanable.clean();
+    this.batch = END;
+    this.batchIdx = 0;
+  }
+
+  private static void startDaemonThread(Runnable task) {
+    var thread = new Thread(task, "pipelined-lexer-" + THREAD_COUNT.incrementAndGet());
+    // an unclosed iterator shouldn't keep the JVM running
+    thread.setDaemon(true);
+    thread.start();
+  }
+
+  /**
+   * Lexes the decorated iterator's tokens into the ring. Kept apart from the iterator, and never
+   * given a reference to it, so that an abandoned iterator can still be garbage collected.
+   */
+  private static final class Producer implements Runnable {
+
+    private final TokenIterator tokens;
+    final SpscRing<Token[]> ring;
+    final WaitStrategy waitStrategy;
+
+    /** Set by the consumer, or once the iterator has been collected, to stop the producer early. */
+    private volatile boolean stopped;
+
+    /** Set by the producer before it publishes {@link #END}, if it failed. */
+    private volatile Throwable failure;
+
+    Producer(TokenIterator tokens, SpscRing<Token[]> ring, WaitStrategy waitStrategy) {
+      this.tokens = tokens;
+      this.ring = ring;
+      this.waitStrategy = waitStrategy;
+    }
+
+    @Override
+    public void run() {
+      try {
+        while (!this.stopped && this.tokens.hasNext()) {
+          var batch = new Token[BATCH_SIZE];
+          var size = 0;
+          while (size < BATCH_SIZE && this.tokens.hasNext()) {
+            var token = this.tokens.next();
+            // the parser carries on adding lines once the token's been published, so its position
+            // can't be left to resolve them lazily on the consumer
+            token.position().resolve();
+            batch[size++] = token;
+          }
+          if (!this.publish(size == BATCH_SIZE ? batch : Arrays.copyOf(batch, size))) return;
+        }
+      } catch (Throwable e) {
+        this.failure = e;
+      }
+      this.publish(END);
+    }
+
+    void stop() {
+      this.stopped = true;
+    }
+
+    void rethrowFailure() {
+      var e = this.failure;
+      if (e == null) return;
+      if (e instanceof RuntimeException) throw (RuntimeException) e;
+      throw (Error) e;
+    }
+
+    /** @return {@code false} if the producer was stopped while waiting for space */
+    private boolean publish(Token[] batch) {
+      var waits = 0;
+      while (!this.ring.offer(batch)) {
+        if (this.stopped) return false;
+        if (waits < MAX_FULL_WAITS) {
+          waits++;
+          this.waitStrategy.idle();
+        } else {
+          WaitStrategy.PARK.idle();
+        }
+      }
+      return true;
+    }
+  }
+}
@@ -0,0 +1,62 @@
+package com.jakemarsden.java.lexer;
+
+import static java.lang.String.format;
+import static java.util.Objects.hash;
+import static java.util.Objects.requireNonNull;
+
+import java.util.List;
+
+/**
+ * The package and imports declared by a compilation unit, as found by a {@link HeaderExtractor}.
+ * Names are exactly as written, without any whitespace or comments, e.g. {@code "java.util.List"}
+ * or {@code "java.util.*"}.
+ */
+public final class SourceHeader {
+
+  private final String packageName;
+  private final List<String> imports;
+  private final List<String> staticImports;
+
+  SourceHeader(String packageName, List<String> imports, List<String> staticImports) {
+    this.packageName = requireNonNull(packageName);
+    this.imports = List.copyOf(imports);
+    this.staticImports = List.copyOf(staticImports);
+  }
+
+  /** @return the name of the package, or an empty string for the unnamed package */
+  public String packageName() {
+    return this.packageName;
+  }
+
+  /** @return the name of each single-type or on-demand import, in the order they're declared */
+  public List<String> imports() {
+    return this.imports;
+  }
+
+  /** @return the name of each static import, in the order they're declared */
+  public List<String> staticImports() {
+    return this.staticImports;
+  }
+
+  @Override
+  public String toString() {
+    return format(
+        "%s[%s %s %s]",
+        SourceHeader.class.getSimpleName(), this.packageName, this.imports, this.staticImports);
+  }
+
+  @Override
+  public int hashCode() {
+    return hash(this.packageName, this.imports, this.staticImports);
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (o == this) return true;
+    if (!(o instanceof SourceHeader)) return false;
+    var obj = (SourceHeader) o;
+    return this.packageName.equals(obj.packageName)
+        && this.imports.equals(obj.imports)
+        && this.staticImports.equals(obj.staticImports);
+  }
+}
@@ -0,0 +1,87 @@
+package com.jakemarsden.java.lexer;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A bounded, lock-free queue for passing elements from exactly one producer thread to exactly one
+ * consumer thread. Neither {@link #offer(Object)} nor {@link #poll()} ever blocks: they fail if the
+ * ring is full or empty, and it's up to the caller how to wait.
+ *
+ * <p>The producer only ever writes the {@link #tail}, and the consumer only ever writes the {@link
+ * #head}. Each publishes its progress with an ordered write, and keeps a cached copy of the other's
+ * index so that it only needs to read it again when the ring appears to be full or empty.
+ *
+ * @param <E> the type of element passed through the ring
+ */
+final class SpscRing<E> {
+
+  private final Object[] elements;
+  private final int mask;
+
+  /** The running index of the next element to poll. Only written by the consumer. */
+  private final AtomicLong head = new AtomicLong();
+
+  /** The running index of the next element to offer. Only written by the producer. */
+  private final AtomicLong tail = new AtomicLong();
+
+  /** The producer's copy of the {@link #head}, which may be out of date. */
+  private long cachedHead;
+
+  /** The consumer's copy of the {@link #tail}, which may be out of date. */
+  private long cachedTail;
+
+  /**
+   * @param capacity the minimum number of elements the ring can hold, which is rounded up to a
+   *     power of two
+   * @throws IllegalArgumentException if {@code capacity} isn't positive, or is too large
+   */
+  SpscRing(int capacity) {
+    if (capacity <= 0 || capacity > 1 << 30) {
+      throw new IllegalArgumentException("Invalid capacity: " + capacity);
+    }
+    var size = Integer.highestOneBit(capacity);
+    if (size < capacity) size <<= 1;
+    this.elements = new Object[size];
+    this.mask = size - 1;
+  }
+
+  int capacity() {
+    return this.elements.length;
+  }
+
+  /**
+   * May only be called by the producer.
+   *
+   * @param element the element to add to the tail of the ring
+   * @return {@code true} if the element was added, or {@code false} if the ring is full
+   */
+  boolean offer(E element) {
+    var tail = this.tail.get();
+    if (tail - this.cachedHead == this.elements.length) {
+      this.cachedHead = this.head.get();
+      if (tail - this.cachedHead == this.elements.length) return false;
+    }
+    this.elements[(int) tail & this.mask] = element;
+    this.tail.lazySet(tail + 1);
+    return true;
+  }
+
+  /**
+   * May only be called by the consumer.
+   *
+   * @return the element removed from the head of the ring, or {@code null} if the ring is empty
+   */
+  E poll() {
+    var head = this.head.get();
+    if (head == this.cachedTail) {
+      this.cachedTail = this.tail.get();
+      if (head == this.cachedTail) return null;
+    }
+    var idx = (int) head & this.mask;
+    @SuppressWarnings("unchecked")
+    var element = (E) this.elements[idx];
+    this.elements[idx] = null;
+    this.head.lazySet(head + 1);
+    return element;
+  }
+}
@@ -0,0 +1,46 @@
+package com.jakemarsden.java.lexer;
+
+import com.jakemarsden.java.lexer.text.TextPosition;
+import com.jakemarsden.java.lexer.token.CommentType;
+import com.jakemarsden.java.lexer.token.Keyword;
+import com.jakemarsden.java.lexer.token.Operator;
+import com.jakemarsden.java.lexer.token.Separator;
+import com.jakemarsden.java.lexer.token.Token;
+import com.jakemarsden.java.lexer.token.TokenType;
+
+/**
+ * Unpacks the subtypes of tokens, packed as for {@link Token#of(TokenType, int, int, CharSequence,
+ * TextPosition)}, without allocating.
+ */
+final class Subtypes {
+
+  private static final TokenType[] TYPES = TokenType.values();
+  private static final CommentType[] COMMENT_TYPES = CommentType.values();
+  private static final Keyword[] KEYWORDS = Keyword.values();
+  private static final Operator[] OPERATORS = Operator.values();
+  private static final Separator[] SEPARATORS = Separator.values();
+
+  static TokenType type(int ordinal) {
+    return TYPES[ordinal];
+  }
+
+  static CommentType commentType(TokenType type, int subtype) {
+    return type == TokenType.COMMENT ? COMMENT_TYPES[subtype] : null;
+  }
+
+  static Keyword keyword(TokenType type, int subtype) {
+    return type == TokenType.KEYWORD ? KEYWORDS[subtype] : null;
+  }
+
+  static Operator operator(TokenType type, int subtype) {
+    return type == TokenType.OPERATOR ? OPERATORS[subtype] : null;
+  }
+
+  static Separator separator(TokenType type, int subtype) {
+    return type == TokenType.SEPARATOR ? SEPARATORS[subtype] : null;
+  }
+
+  private Subtypes() {
+    throw new UnsupportedOperationException();
+  }
+}
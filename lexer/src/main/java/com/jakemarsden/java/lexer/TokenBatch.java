@@ -0,0 +1,368 @@
+package com.jakemarsden.java.lexer;
+
+import static com.jakemarsden.java.lexer.util.StringUtils.codePointCount;
+import static java.lang.Math.toIntExact;
+import static java.util.Objects.checkIndex;
+
+import com.jakemarsden.java.lexer.parser.TokenScanner;
+import com.jakemarsden.java.lexer.text.AbstractTextParser;
+import com.jakemarsden.java.lexer.text.TextPosition;
+import com.jakemarsden.java.lexer.token.BooleanLiteralToken;
+import com.jakemarsden.java.lexer.token.CharacterLiteralToken;
+import com.jakemarsden.java.lexer.token.CommentToken;
+import com.jakemarsden.java.lexer.token.CommentType;
+import com.jakemarsden.java.lexer.token.IdentifierToken;
+import com.jakemarsden.java.lexer.token.InvalidToken;
+import com.jakemarsden.java.lexer.token.Keyword;
+import com.jakemarsden.java.lexer.token.KeywordToken;
+import com.jakemarsden.java.lexer.token.NumberLiteralToken;
+import com.jakemarsden.java.lexer.token.Operator;
+import com.jakemarsden.java.lexer.token.OperatorToken;
+import com.jakemarsden.java.lexer.token.Separator;
+import com.jakemarsden.java.lexer.token.SeparatorToken;
+import com.jakemarsden.java.lexer.token.StringLiteralToken;
+import com.jakemarsden.java.lexer.token.Token;
+import com.jakemarsden.java.lexer.token.TokenType;
+import com.jakemarsden.java.lexer.token.WhitespaceToken;
+import java.nio.CharBuffer;
+import java.util.Arrays;
+
+/**
+ * A reusable buffer for a run of consecutive tokens, stored column-wise in primitive arrays in the
+ * same way as a {@link TokenTable}. A batch is owned by the caller, and is refilled by each call to
+ * {@link TokenIterator#nextBatch(TokenBatch)}, so nothing is allocated per token or per batch.
+ *
+ * <p>Example usage:
+ *
+ * <pre><code>
+ * var batch = new TokenBatch(1024);
+ * var tokens = new Lexer().lex(sourceCode);
+ * while (tokens.nextBatch(batch) != 0) {
+ *   for (int idx = 0; idx &lt; batch.size(); idx++) {
+ *     if (batch.type(idx) == TokenType.IDENTIFIER) ...
+ *   }
+ * }
+ * </code></pre>
+ *
+ * <p>Tokens are referred to by their index within the batch, from {@code 0} to {@link #size()}.
+ * Their text and positions are resolved from the source only when asked for, and only until the
+ * batch is next refilled. If the source isn't held in memory, e.g. if it's read from a {@link
+ * java.io.Reader}, the text of each token is copied into the batch as it's filled instead, except
+ * where it's implied by the type of the token. The storage for the copies is reused by later
+ * batches. Iterators which don't lex tokens themselves, such as a {@link PipelinedTokenIterator},
+ * fill the batch with {@link Token}s which have already been created.
+ */
+public final class TokenBatch {
+
+  private final byte[] types;
+
+  /** Packed as for {@link Token#of(TokenType, int, int, CharSequence, TextPosition)}. */
+  private final byte[] subtypes;
+
+  private final long[] starts;
+  private final long[] lengths;
+  private final int[] values;
+  private int size;
+
+  /**
+   * Where the tokens were lexed from, or {@code null} if the batch has never been filled or was
+   * filled with {@link #tokens}.
+   */
+  private AbstractTextParser parser;
+
+  /** The tokens which the batch was filled with, if it wasn't filled by lexing them itself. */
+  private Token[] tokens;
+
+  /**
+   * Whether the text of each token was copied into {@link #chars}, as the parser doesn't hold it.
+   */
+  private boolean copied;
+
+  /**
+   * The copied text of every token, one after another, or {@code null} until text first needs to be
+   * copied. Tokens whose text is implied by their type take up no space.
+   */
+  private CharBuffer chars;
+
+  /** The index within {@link #chars} after the text of each token, if it was copied. */
+  private int[] charEnds;
+
+  /**
+   * @param capacity the maximum number of tokens in each batch
+   * @throws IllegalArgumentException if {@code capacity} isn't positive
+   */
+  public TokenBatch(int capacity) {
+    if (capacity <= 0) throw new IllegalArgumentException("Invalid capacity: " + capacity);
+    this.types = new byte[capacity];
+    this.subtypes = new byte[capacity];
+    this.starts = new long[capacity];
+    this.lengths = new long[capacity];
+    this.values = new int[capacity];
+  }
+
+  /** @return the maximum number of tokens in each batch */
+  public int capacity() {
+    return this.types.length;
+  }
+
+  /** @return the number of tokens in the batch */
+  public int size() {
+    return this.size;
+  }
+
+  /**
+   * @param idx the index of the token
+   * @return the type of the token
+   */
+  public TokenType type(int idx) {
+    checkIndex(idx, this.size);
+    return Subtypes.type(this.types[idx]);
+  }
+
+  /**
+   * @param idx the index of the token
+   * @return the subtype of the token, packed as for {@link Token#of(TokenType, int, int,
+   *     CharSequence, TextPosition)}
+   */
+  public int subtype(int idx) {
+    checkIndex(idx, this.size);
+    return this.subtypes[idx];
+  }
+
+  /**
+   * @param idx the index of the token
+   * @return the type of the comment, or {@code null} if it isn't a comment
+   */
+  public CommentType commentType(int idx) {
+    return Subtypes.commentType(this.type(idx), this.subtypes[idx]);
+  }
+
+  /**
+   * @param idx the index of the token
+   * @return the keyword, or {@code null} if it isn't a keyword
+   */
+  public Keyword keyword(int idx) {
+    return Subtypes.keyword(this.type(idx), this.subtypes[idx]);
+  }
+
+  /**
+   * @param idx the index of the token
+   * @return the operator, or {@code null} if it isn't an operator
+   */
+  public Operator operator(int idx) {
+    return Subtypes.operator(this.type(idx), this.subtypes[idx]);
+  }
+
+  /**
+   * @param idx the index of the token
+   * @return the separator, or {@code null} if it isn't a separator
+   */
+  public Separator separator(int idx) {
+    return Subtypes.separator(this.type(idx), this.subtypes[idx]);
+  }
+
+  /**
+   * @param idx the index of the token
+   * @return the value of the number literal, or {@code 0} if it isn't one
+   */
+  public int value(int idx) {
+    return this.type(idx) == TokenType.NUMBER_LITERAL ? this.values[idx] : 0;
+  }
+
+  /**
+   * @param idx the index of the token
+   * @return the index of the first character of the token from the start of the source, in code
+   *     points
+   */
+  public long start(int idx) {
+    checkIndex(idx, this.size);
+    return this.starts[idx];
+  }
+
+  /**
+   * @param idx the index of the token
+   * @return the number of characters in the token, in code points
+   */
+  public long length(int idx) {
+    checkIndex(idx, this.size);
+    return this.lengths[idx];
+  }
+
+  /**
+   * @param idx the index of the token
+   * @return the characters of the token, as a view of the source or of the batch if possible
+   */
+  public CharSequence text(int idx) {
+    checkIndex(idx, this.size);
+    if (this.parser == null) return textOf(this.tokens[idx]);
+    var impliedText = TokenScanner.impliedText(Subtypes.type(this.types[idx]), this.subtypes[idx]);
+    if (impliedText != null) return impliedText;
+    if (this.copied) {
+      var from = idx == 0 ? 0 : this.charEnds[idx - 1];
+      return this.chars.duplicate().position(from).limit(this.charEnds[idx]);
+    }
+    var start = this.starts[idx];
+    return this.parser.getText(start, start + this.lengths[idx]);
+  }
+
+  /**
+   * @param idx the index of the token
+   * @return the position of the first character of the token
+   */
+  public TextPosition position(int idx) {
+    checkIndex(idx, this.size);
+    if (this.parser == null) return this.tokens[idx].position();
+    return this.parser.positionOf(this.starts[idx]);
+  }
+
+  /**
+   * @param idx the index of the token
+   * @return a new token equivalent to the token
+   */
+  public Token token(int idx) {
+    var type = this.type(idx);
+    if (this.parser == null) return this.tokens[idx];
+    return Token.of(type, this.subtypes[idx], this.values[idx], this.text(idx), this.position(idx));
+  }
+
+  /**
+   * Replaces the contents of the batch with the next tokens of the {@code scanner} whose types are
+   * in the {@code typeMask}, without returning to the caller between tokens.
+   *
+   * @param current whether the scanner's current token is one which hasn't been returned yet, in
+   *     which case it's the first token of the batch
+   * @return the number of tokens in the batch, which is only {@code 0} at the end of the text
+   */
+  int fill(TokenScanner scanner, int typeMask, boolean current) {
+    this.clear(scanner.parser());
+    var capacity = this.types.length;
+    var size = 0;
+    if (current) this.set(size++, scanner);
+    while (size < capacity && scanner.advance(typeMask)) this.set(size++, scanner);
+    this.size = size;
+    return size;
+  }
+
+  /**
+   * Replaces the contents of the batch with the next tokens of the {@code header}, as for {@link
+   * #fill(TokenScanner, int, boolean)}.
+   *
+   * @param current whether the scanner's current token is one which hasn't been returned yet
+   * @return the number of tokens in the batch, which is only {@code 0} at the end of the header
+   */
+  int fill(HeaderScanner header, boolean current) {
+    var scanner = header.scanner();
+    this.clear(scanner.parser());
+    var capacity = this.types.length;
+    var size = 0;
+    if (current) this.set(size++, scanner);
+    while (size < capacity && header.advance()) this.set(size++, scanner);
+    this.size = size;
+    return size;
+  }
+
+  /** Empties the batch, ready to be refilled with {@link Token}s by {@link #add(Token)}. */
+  void clear() {
+    this.clear(null);
+    if (this.tokens == null) this.tokens = new Token[this.types.length];
+  }
+
+  /** @return {@code true} if the batch can't hold any more tokens */
+  boolean isFull() {
+    return this.size == this.types.length;
+  }
+
+  /** Adds a token which has already been created to the batch, which mustn't be full. */
+  void add(Token token) {
+    var idx = this.size;
+    var type = token.type();
+    var text = textOf(token);
+    this.types[idx] = (byte) type.ordinal();
+    this.subtypes[idx] = (byte) subtypeOf(token);
+    this.starts[idx] = token.position().charIndex();
+    this.lengths[idx] = codePointCount(text);
+    this.values[idx] =
+        type == TokenType.NUMBER_LITERAL
+            ? ((NumberLiteralToken) token).value().value().intValue()
+            : 0;
+    this.tokens[idx] = token;
+    this.size = idx + 1;
+  }
+
+  /** Empties the batch, ready to be refilled with tokens lexed from the {@code parser}. */
+  private void clear(AbstractTextParser parser) {
+    // don't keep the previous tokens reachable
+    if (this.tokens != null) Arrays.fill(this.tokens, 0, this.size, null);
+    this.size = 0;
+    this.parser = parser;
+    this.copied = parser != null && !parser.isTextHeld();
+    if (this.copied && this.chars == null) {
+      this.chars = CharBuffer.allocate(this.types.length * 16);
+      this.charEnds = new int[this.types.length];
+    }
+    if (this.copied) this.chars.clear();
+  }
+
+  private void set(int idx, TokenScanner scanner) {
+    this.types[idx] = (byte) scanner.type().ordinal();
+    this.subtypes[idx] = (byte) scanner.subtype();
+    this.starts[idx] = scanner.start();
+    this.lengths[idx] = scanner.length();
+    this.values[idx] = scanner.value();
+    if (this.copied) this.copyText(idx, scanner);
+  }
+
+  private void copyText(int idx, TokenScanner scanner) {
+    if (TokenScanner.impliedText(scanner.type(), scanner.subtype()) == null) {
+      // each code point is at most two chars
+      var maxChars = toIntExact(2 * scanner.length());
+      if (this.chars.remaining() < maxChars) {
+        var used = this.chars.position();
+        var capacity = Math.max(this.chars.capacity() << 1, used + maxChars);
+        this.chars = CharBuffer.allocate(capacity).put(this.chars.flip());
+      }
+      scanner.text(this.chars);
+    }
+    this.charEnds[idx] = this.chars.position();
+  }
+
+  /** @return the subtype of the {@code token}, packed as for {@link #subtype(int)} */
+  private static int subtypeOf(Token token) {
+    switch (token.type()) {
+      case BOOLEAN_LITERAL:
+        return ((BooleanLiteralToken) token).value() ? 1 : 0;
+      case COMMENT:
+        return ((CommentToken) token).commentType().ordinal();
+      case KEYWORD:
+        return ((KeywordToken) token).keyword().ordinal();
+      case OPERATOR:
+        return ((OperatorToken) token).operator().ordinal();
+      case SEPARATOR:
+        return ((SeparatorToken) token).separator().ordinal();
+      default:
+        return -1;
+    }
+  }
+
+  /** @return the characters of the {@code token} */
+  private static CharSequence textOf(Token token) {
+    switch (token.type()) {
+      case CHARACTER_LITERAL:
+        return ((CharacterLiteralToken) token).value();
+      case COMMENT:
+        return ((CommentToken) token).value();
+      case IDENTIFIER:
+        return ((IdentifierToken) token).value();
+      case INVALID:
+        return ((InvalidToken) token).value();
+      case NUMBER_LITERAL:
+        return ((NumberLiteralToken) token).value().rawValue();
+      case STRING_LITERAL:
+        return ((StringLiteralToken) token).value();
+      case WHITESPACE:
+        return ((WhitespaceToken) token).value();
+      default:
+        return TokenScanner.impliedText(token.type(), subtypeOf(token));
+    }
+  }
+}
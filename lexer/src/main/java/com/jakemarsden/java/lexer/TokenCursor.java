@@ -0,0 +1,92 @@
+package com.jakemarsden.java.lexer;
+
+import com.jakemarsden.java.lexer.text.TextPosition;
+import com.jakemarsden.java.lexer.token.CommentType;
+import com.jakemarsden.java.lexer.token.Keyword;
+import com.jakemarsden.java.lexer.token.Operator;
+import com.jakemarsden.java.lexer.token.Separator;
+import com.jakemarsden.java.lexer.token.Token;
+import com.jakemarsden.java.lexer.token.TokenType;
+import java.nio.BufferOverflowException;
+import java.nio.CharBuffer;
+
+/**
+ * An alternative to a {@link TokenIterator} which moves over the tokens one at a time and describes
+ * the current token in place, rather than creating a {@link Token} for each one. Once the text is
+ * being lexed, nothing is allocated to move to the next token or to examine its type, subtype, span
+ * or text, so this suits consumers which look at every token but keep few of them.
+ *
+ * <p>Example usage:
+ *
+ * <pre><code>
+ * String sourceCode = ...
+ *
+ * var lexer = new Lexer();
+ * var tokens = lexer.lexToCursor(sourceCode);
+ * while (tokens.advance()) {
+ *   if (tokens.keyword() == Keyword.CLASS) ...
+ * }
+ * </code></pre>
+ *
+ * <p>Every method other than {@link #advance()} describes the current token, and throws an {@link
+ * IllegalStateException} if there isn't one, i.e. before the first call to {@code advance()} or
+ * after it has returned {@code false}.
+ *
+ * @see Lexer#lexToCursor(CharSequence)
+ */
+public interface TokenCursor {
+
+  /**
+   * Moves to the next token, which becomes the current token.
+   *
+   * @return {@code true} if there was another token, or {@code false} if there are no more tokens
+   */
+  boolean advance();
+
+  /** @return the type of the current token */
+  TokenType type();
+
+  /** @return the type of the comment, or {@code null} if the current token isn't a comment */
+  CommentType commentType();
+
+  /** @return the keyword, or {@code null} if the current token isn't a keyword */
+  Keyword keyword();
+
+  /** @return the operator, or {@code null} if the current token isn't an operator */
+  Operator operator();
+
+  /** @return the separator, or {@code null} if the current token isn't a separator */
+  Separator separator();
+
+  /** @return the value of the number literal, or {@code 0} if the current token isn't one */
+  int value();
+
+  /** @return the index of the first character of the current token, in code points */
+  long start();
+
+  /** @return the number of characters in the current token, in code points */
+  long length();
+
+  /**
+   * Copies the characters of the current token into the {@code out} buffer, as UTF-16, without
+   * allocating anything.
+   *
+   * @param out the buffer to put the characters into
+   * @return the number of {@code char}s put into the buffer
+   * @throws BufferOverflowException if there isn't enough room left in the buffer, in which case
+   *     its position is left unchanged
+   */
+  int text(CharBuffer out);
+
+  /**
+   * @return the characters of the current token, which are a view of the source wherever possible
+   *     and so are only valid until the next call to {@link #advance()}
+   */
+  CharSequence text();
+
+  /** @return the position of the first character of the current token */
+  TextPosition position();
+
+  /** @return a new token equivalent to the current token */
+  Token token();
+}
@@ -24,6 +24,26 @@ public interface TokenIterator extends Iterator<Token> {
   @Override
   Token next();
 
+  /**
+   * Replaces the contents of the {@code batch} with as many of the next tokens as it can hold, in a
+   * single call. This avoids the cost of creating a {@link Token} for each token, and of returning
+   * to the caller between tokens. Tokens may be consumed with a mixture of this and {@link
+   * #next()}.
+   *
+   * <p>By default, the batch is filled with tokens returned by {@link #next()}, so only the cost of
+   * returning to the caller between tokens is avoided.
+   *
+   * @param batch the caller-owned batch to fill, whose {@link TokenBatch#capacity() capacity}
+   *     decides how many tokens are lexed
+   * @return the number of tokens put into the batch, which is only {@code 0} if there are no more
+   *     tokens
+   */
+  default int nextBatch(TokenBatch batch) {
+    batch.clear();
+    while (!batch.isFull() && this.hasNext()) batch.add(this.next());
+    return batch.size();
+  }
+
   /**
    * Always throws an {@link UnsupportedOperationException}.
    *
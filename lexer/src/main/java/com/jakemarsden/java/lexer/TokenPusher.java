@@ -0,0 +1,56 @@
+package com.jakemarsden.java.lexer;
+
+import com.jakemarsden.java.lexer.parser.TokenScanner;
+import com.jakemarsden.java.lexer.text.AbstractTextParser;
+
+/**
+ * Lexes the characters of an {@link AbstractTextParser}, pushing each token to a {@link TokenSink}.
+ */
+final class TokenPusher {
+
+  /**
+   * @return {@code true} if every token was pushed, or {@code false} if the {@code sink} stopped
+   *     lexing early
+   */
+  static boolean push(AbstractTextParser parser, TokenSink sink) {
+    var scanner = new TokenScanner(parser);
+    while (scanner.advance()) {
+      var type = scanner.type();
+      var subtype = scanner.subtype();
+      boolean more;
+      switch (type) {
+        case KEYWORD:
+          more = sink.onKeyword(Subtypes.keyword(type, subtype), scanner.start(), scanner.length());
+          break;
+        case IDENTIFIER:
+          more = sink.onIdentifier(scanner.text(), scanner.start());
+          break;
+        case OPERATOR:
+          more = sink.onOperator(Subtypes.operator(type, subtype), scanner.start());
+          break;
+        case SEPARATOR:
+          more = sink.onSeparator(Subtypes.separator(type, subtype), scanner.start());
+          break;
+        case COMMENT:
+          var commentType = Subtypes.commentType(type, subtype);
+          more = sink.onComment(commentType, scanner.start(), scanner.length());
+          break;
+        case WHITESPACE:
+          more = sink.onWhitespace(scanner.start(), scanner.length());
+          break;
+        case INVALID:
+          more = sink.onInvalid(scanner.start(), scanner.length());
+          break;
+        default:
+          more = sink.onLiteral(type, scanner.text(), scanner.start(), scanner.length());
+          break;
+      }
+      if (!more) return false;
+    }
+    return true;
+  }
+
+  private TokenPusher() {
+    throw new UnsupportedOperationException();
+  }
+}
@@ -0,0 +1,121 @@
+package com.jakemarsden.java.lexer;
+
+import com.jakemarsden.java.lexer.token.CommentType;
+import com.jakemarsden.java.lexer.token.Keyword;
+import com.jakemarsden.java.lexer.token.Operator;
+import com.jakemarsden.java.lexer.token.Separator;
+import com.jakemarsden.java.lexer.token.Token;
+import com.jakemarsden.java.lexer.token.TokenType;
+
+/**
+ * Receives the tokens of a text as they're lexed, for when the lexer should drive the loop rather
+ * than the caller pulling each token from a {@link TokenIterator}. No {@link Token}s are created:
+ * each token is described by the arguments of a callback for its type instead.
+ *
+ * <p>Every callback does nothing by default, so implementations need only override the callbacks
+ * for the tokens they're interested in. Each callback returns whether lexing should continue, so a
+ * sink can stop as soon as it has seen enough.
+ *
+ * <p>Example usage:
+ *
+ * <pre><code>
+ * String sourceCode = ...
+ *
+ * var lexer = new Lexer();
+ * lexer.lex(sourceCode, new TokenSink() {
+ *   &#64;Override
+ *   public boolean onKeyword(Keyword keyword, long start, long length) {
+ *     return keyword != Keyword.CLASS;
+ *   }
+ * });
+ * </code></pre>
+ *
+ * <p>Offsets and lengths are in code points, from the start of the text.
+ *
+ * @see Lexer#lex(CharSequence, TokenSink)
+ */
+public interface TokenSink {
+
+  /**
+   * @param keyword the keyword
+   * @param start the index of the first character of the keyword
+   * @param length the number of characters in the keyword
+   * @return {@code true} to continue lexing, or {@code false} to stop
+   */
+  default boolean onKeyword(Keyword keyword, long start, long length) {
+    return true;
+  }
+
+  /**
+   * @param text the characters of the identifier, which are a view of the text wherever possible
+   *     and so are only valid until this callback returns
+   * @param start the index of the first character of the identifier
+   * @return {@code true} to continue lexing, or {@code false} to stop
+   */
+  default boolean onIdentifier(CharSequence text, long start) {
+    return true;
+  }
+
+  /**
+   * @param operator the operator
+   * @param start the index of the first character of the operator
+   * @return {@code true} to continue lexing, or {@code false} to stop
+   */
+  default boolean onOperator(Operator operator, long start) {
+    return true;
+  }
+
+  /**
+   * @param separator the separator
+   * @param start the index of the first character of the separator
+   * @return {@code true} to continue lexing, or {@code false} to stop
+   */
+  default boolean onSeparator(Separator separator, long start) {
+    return true;
+  }
+
+  /**
+   * @param type the type of the comment
+   * @param start the index of the first character of the comment
+   * @param length the number of characters in the comment
+   * @return {@code true} to continue lexing, or {@code false} to stop
+   */
+  default boolean onComment(CommentType type, long start, long length) {
+    return true;
+  }
+
+  /**
+   * Called for boolean, character, null, number and string literals.
+   *
+   * @param type the type of the literal
+   * @param text the characters of the literal, including any quotes, which are a view of the text
+   *     wherever possible and so are only valid until this callback returns
+   * @param start the index of the first character of the literal
+   * @param length the number of characters in the literal
+   * @return {@code true} to continue lexing, or {@code false} to stop
+   */
+  default boolean onLiteral(TokenType type, CharSequence text, long start, long length) {
+    return true;
+  }
+
+  /**
+   * @param start the index of the first whitespace character
+   * @param length the number of consecutive whitespace characters
+   * @return {@code true} to continue lexing, or {@code false} to stop
+   */
+  default boolean onWhitespace(long start, long length) {
+    return true;
+  }
+
+  /**
+   * Called for a character which can't start any token, and for a comment, character literal or
+   * string literal which isn't closed before the end of its line or of the text.
+   *
+   * @param start the index of the first character of the invalid token
+   * @param length the number of characters in the invalid token
+   * @return {@code true} to continue lexing, or {@code false} to stop
+   */
+  default boolean onInvalid(long start, long length) {
+    return true;
+  }
+}
@@ -0,0 +1,109 @@
+package com.jakemarsden.java.lexer;
+
+import com.jakemarsden.java.lexer.parser.TokenScanner;
+import com.jakemarsden.java.lexer.text.AbstractTextParser;
+import com.jakemarsden.java.lexer.token.Token;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/**
+ * A {@link Spliterator} over the tokens of a text, which can be split for use by a parallel stream
+ * if the whole text is held in memory as a {@link CharSequence}.
+ *
+ * <p>Tokens are lexed lazily by a {@link TokenScanner} until the spliterator is first split. A
+ * token can only be lexed correctly from the end of the previous token, so the text can't simply be
+ * split in half. Instead, the first split lexes the rest of the text into a {@link TokenTable}, in
+ * parallel, with the {@link ParallelLexer} finding where its speculative chunks resynchronise with
+ * each other. The table is then split by token index, and each part creates a {@link Token} for
+ * each of its own tokens.
+ */
+final class TokenSpliterator implements Spliterator<Token> {
+
+  /** The number of {@code char}s in the average token, for estimating the number of tokens. */
+  private static final int AVERAGE_TOKEN_LENGTH = 4;
+
+  /** Fewer tokens than this aren't worth splitting, as the work would be too small to share. */
+  static final int MIN_SPLIT_SIZE = 1024;
+
+  private static final int CHARACTERISTICS = ORDERED | NONNULL;
+
+  /**
+   * The text being lexed, if it can be split, or {@code null} once it's been lexed into a table.
+   */
+  private CharSequence text;
+
+  /** Lexes tokens lazily until the text is lexed into a {@link #table}. */
+  private TokenScanner scanner;
+
+  private long estimatedSize;
+
+  private TokenTable table;
+  private int tableIdx;
+  private int tableEnd;
+
+  /** @param text the characters of the {@code parser}, or {@code null} if it can't be split */
+  TokenSpliterator(AbstractTextParser parser, CharSequence text) {
+    this.text = text;
+    this.scanner = new TokenScanner(parser);
+    this.estimatedSize = text != null ? text.length() / AVERAGE_TOKEN_LENGTH : Long.MAX_VALUE;
+  }
+
+  private TokenSpliterator(TokenTable table, int fromIdx, int toIdx) {
+    this.table = table;
+    this.tableIdx = fromIdx;
+    this.tableEnd = toIdx;
+  }
+
+  @Override
+  public boolean tryAdvance(Consumer<? super Token> action) {
+    if (this.table != null) {
+      if (this.tableIdx == this.tableEnd) return false;
+      action.accept(this.table.token(this.tableIdx++));
+      return true;
+    }
+
+    var scanner = this.scanner;
+    if (!scanner.advance()) return false;
+    if (this.estimatedSize != Long.MAX_VALUE && this.estimatedSize > 0) this.estimatedSize--;
+    action.accept(scanner.token());
+    return true;
+  }
+
+  @Override
+  public Spliterator<Token> trySplit() {
+    if (this.table == null) {
+      if (this.text == null || this.estimatedSize < MIN_SPLIT_SIZE) return null;
+      this.lexToTable();
+    }
+
+    var fromIdx = this.tableIdx;
+    var count = this.tableEnd - fromIdx;
+    if (count < MIN_SPLIT_SIZE) return null;
+    this.tableIdx = fromIdx + (count >>> 1);
+    return new TokenSpliterator(this.table, fromIdx, this.tableIdx);
+  }
+
+  @Override
+  public long estimateSize() {
+    return this.table != null ? this.tableEnd - this.tableIdx : this.estimatedSize;
+  }
+
+  @Override
+  public int characteristics() {
+    return this.table != null ? CHARACTERISTICS | SIZED | SUBSIZED : CHARACTERISTICS;
+  }
+
+  /**
+   * Lexes the rest of the {@link #text} into a {@link #table}, from the end of the last token
+   * returned by the scanner. The table works out everything it needs up front, so its parts can
+   * create tokens on separate threads.
+   */
+  private void lexToTable() {
+    var table = ParallelLexer.lexFrom(this.text, this.scanner.parser().getCharIndex());
+    this.table = table;
+    this.tableIdx = 0;
+    this.tableEnd = table.size();
+    this.text = null;
+    this.scanner = null;
+  }
+}
@@ -0,0 +1,242 @@
+package com.jakemarsden.java.lexer;
+
+import static java.lang.Math.toIntExact;
+import static java.util.Objects.checkIndex;
+
+import com.jakemarsden.java.lexer.parser.TokenScanner;
+import com.jakemarsden.java.lexer.text.AbstractTextParser;
+import com.jakemarsden.java.lexer.text.TextPosition;
+import com.jakemarsden.java.lexer.token.CommentType;
+import com.jakemarsden.java.lexer.token.Keyword;
+import com.jakemarsden.java.lexer.token.Operator;
+import com.jakemarsden.java.lexer.token.Separator;
+import com.jakemarsden.java.lexer.token.Token;
+import com.jakemarsden.java.lexer.token.TokenType;
+import java.util.Arrays;
+
+/**
+ * Every token of a text, stored column-wise in primitive arrays rather than as a {@link Token}
+ * object per token. Each token costs ten bytes, plus four more for each number literal, however
+ * many of them are kept.
+ *
+ * <p>Tokens are referred to by their index, from {@code 0} to {@link #size()}. The text of each
+ * token is a view of the source, and its position is resolved from the source's line starts, only
+ * when asked for. So the source must not be modified while the table is still in use. A {@link
+ * Token} can be created for any token on demand.
+ *
+ * <p>Not safe for use by multiple threads at once, as some of the details needed to resolve the
+ * text of a token are only worked out when they're first needed. Tables returned by {@link
+ * Lexer#lexToTableInParallel(CharSequence)} are the exception, as they work everything out up
+ * front.
+ *
+ * @see Lexer#lexToTable(CharSequence)
+ */
+public final class TokenTable {
+
+  private static final int INITIAL_CAPACITY = 256;
+
+  /** Lexes every token of the text of the {@code parser}, which must be held in memory. */
+  static TokenTable lex(AbstractTextParser parser) {
+    var table = new TokenTable(parser);
+    var scanner = new TokenScanner(parser);
+    while (scanner.advance()) table.add(scanner, 0);
+    table.trimToSize();
+    return table;
+  }
+
+  /** Retained to resolve the text and position of each token. */
+  private final AbstractTextParser parser;
+
+  private byte[] types = new byte[INITIAL_CAPACITY];
+
+  /** Packed as for {@link Token#of(TokenType, int, int, CharSequence, TextPosition)}. */
+  private byte[] subtypes = new byte[INITIAL_CAPACITY];
+
+  private int[] starts = new int[INITIAL_CAPACITY];
+  private int[] lengths = new int[INITIAL_CAPACITY];
+
+  /** The value of each number literal, or {@code null} until the first number literal. */
+  private int[] values;
+
+  private int size;
+
+  TokenTable(AbstractTextParser parser) {
+    this.parser = parser;
+  }
+
+  /** @return the number of tokens */
+  public int size() {
+    return this.size;
+  }
+
+  /**
+   * @param idx the index of the token
+   * @return the type of the token
+   */
+  public TokenType type(int idx) {
+    checkIndex(idx, this.size);
+    return Subtypes.type(this.types[idx]);
+  }
+
+  /**
+   * @param idx the index of the token
+   * @return the subtype of the token, packed as for {@link Token#of(TokenType, int, int,
+   *     CharSequence, TextPosition)}
+   */
+  public int subtype(int idx) {
+    checkIndex(idx, this.size);
+    return this.subtypes[idx];
+  }
+
+  /**
+   * @param idx the index of the token
+   * @return the type of the comment, or {@code null} if it isn't a comment
+   */
+  public CommentType commentType(int idx) {
+    return Subtypes.commentType(this.type(idx), this.subtypes[idx]);
+  }
+
+  /**
+   * @param idx the index of the token
+   * @return the keyword, or {@code null} if it isn't a keyword
+   */
+  public Keyword keyword(int idx) {
+    return Subtypes.keyword(this.type(idx), this.subtypes[idx]);
+  }
+
+  /**
+   * @param idx the index of the token
+   * @return the operator, or {@code null} if it isn't an operator
+   */
+  public Operator operator(int idx) {
+    return Subtypes.operator(this.type(idx), this.subtypes[idx]);
+  }
+
+  /**
+   * @param idx the index of the token
+   * @return the separator, or {@code null} if it isn't a separator
+   */
+  public Separator separator(int idx) {
+    return Subtypes.separator(this.type(idx), this.subtypes[idx]);
+  }
+
+  /**
+   * @param idx the index of the token
+   * @return the value of the number literal, or {@code 0} if it isn't one
+   */
+  public int value(int idx) {
+    return this.type(idx) == TokenType.NUMBER_LITERAL ? this.values[idx] : 0;
+  }
+
+  /**
+   * @param idx the index of the token
+   * @return the index of the first character of the token, in code points
+   */
+  public int start(int idx) {
+    checkIndex(idx, this.size);
+    return this.starts[idx];
+  }
+
+  /**
+   * @param idx the index of the token
+   * @return the number of characters in the token, in code points
+   */
+  public int length(int idx) {
+    checkIndex(idx, this.size);
+    return this.lengths[idx];
+  }
+
+  /**
+   * @param idx the index of the token
+   * @return the characters of the token, as a view of the source if possible
+   */
+  public CharSequence text(int idx) {
+    checkIndex(idx, this.size);
+    var start = this.starts[idx];
+    return this.parser.getText(start, start + this.lengths[idx]);
+  }
+
+  /**
+   * @param idx the index of the token
+   * @return the position of the first character of the token
+   */
+  public TextPosition position(int idx) {
+    checkIndex(idx, this.size);
+    return this.parser.positionOf(this.starts[idx]);
+  }
+
+  /**
+   * @param idx the index of the token
+   * @return a new token equivalent to the token
+   */
+  public Token token(int idx) {
+    var type = this.type(idx);
+    var value = type == TokenType.NUMBER_LITERAL ? this.values[idx] : 0;
+    return Token.of(type, this.subtypes[idx], value, this.text(idx), this.position(idx));
+  }
+
+  /**
+   * Adds the current token of the {@code scanner}, whose start is {@code offset} characters before
+   * where it would be in this table.
+   */
+  void add(TokenScanner scanner, long offset) {
+    if (this.size == this.types.length) this.resize(this.size << 1);
+    var idx = this.size;
+    this.types[idx] = (byte) scanner.type().ordinal();
+    this.subtypes[idx] = (byte) scanner.subtype();
+    this.starts[idx] = toIntExact(offset + scanner.start());
+    this.lengths[idx] = toIntExact(scanner.length());
+    if (scanner.type() == TokenType.NUMBER_LITERAL) {
+      if (this.values == null) this.values = new int[this.types.length];
+      this.values[idx] = scanner.value();
+    }
+    this.size++;
+  }
+
+  /**
+   * Adds the tokens of the {@code other} table from index {@code from} onwards, whose starts are
+   * {@code offset} characters before where they would be in this table.
+   */
+  void addAll(TokenTable other, int from, long offset) {
+    var count = other.size - from;
+    if (this.size + count > this.types.length) {
+      this.resize(Math.max(this.size + count, this.types.length << 1));
+    }
+    System.arraycopy(other.types, from, this.types, this.size, count);
+    System.arraycopy(other.subtypes, from, this.subtypes, this.size, count);
+    System.arraycopy(other.lengths, from, this.lengths, this.size, count);
+    for (int idx = 0; idx < count; idx++) {
+      this.starts[this.size + idx] = toIntExact(offset + other.starts[from + idx]);
+    }
+    if (other.values != null) {
+      if (this.values == null) this.values = new int[this.types.length];
+      System.arraycopy(other.values, from, this.values, this.size, count);
+    }
+    this.size += count;
+  }
+
+  /** @return the index of the token which starts at {@code start}, or {@code -1} if none does */
+  int indexOfStart(long start) {
+    if (start > Integer.MAX_VALUE) return -1;
+    var idx = Arrays.binarySearch(this.starts, 0, this.size, (int) start);
+    return idx >= 0 ? idx : -1;
+  }
+
+  /** @return the index of the character after the last token, or {@code 0} if there are none */
+  long end() {
+    var last = this.size - 1;
+    return last < 0 ? 0 : (long) this.starts[last] + this.lengths[last];
+  }
+
+  void trimToSize() {
+    if (this.size != this.types.length) this.resize(this.size);
+  }
+
+  private void resize(int capacity) {
+    this.types = Arrays.copyOf(this.types, capacity);
+    this.subtypes = Arrays.copyOf(this.subtypes, capacity);
+    this.starts = Arrays.copyOf(this.starts, capacity);
+    this.lengths = Arrays.copyOf(this.lengths, capacity);
+    if (this.values != null) this.values = Arrays.copyOf(this.values, capacity);
+  }
+}
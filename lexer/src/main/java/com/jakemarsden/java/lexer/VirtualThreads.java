@@ -0,0 +1,29 @@
+package com.jakemarsden.java.lexer;
+
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Creates executors which run each task on a new virtual thread, on behalf of {@link BatchLexer}.
+ *
+ * <p>This is the portable implementation, as virtual threads don't exist before JDK 21. On JDK 21
+ * and later, the multi-release jar replaces it with one which supports them.
+ */
+final class VirtualThreads {
+
+  /** @return {@code true} if virtual threads are supported by the runtime */
+  static boolean isSupported() {
+    return false;
+  }
+
+  /**
+   * @return an executor which starts a new virtual thread for each task
+   * @throws UnsupportedOperationException if virtual threads aren't supported by the runtime
+   */
+  static ExecutorService newExecutor() {
+    throw new UnsupportedOperationException("Virtual threads require JDK 21 or later");
+  }
+
+  private VirtualThreads() {
+    throw new UnsupportedOperationException();
+  }
+}
@@ -0,0 +1,43 @@
+package com.jakemarsden.java.lexer;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * How a {@link PipelinedTokenIterator} waits while its ring of token batches is empty, on the
+ * consumer's side, or full, on the producer's side. Trades latency against the CPU time burnt while
+ * waiting.
+ */
+public enum WaitStrategy {
+
+  /** Busy-waits, which has the lowest latency but keeps a core fully occupied while waiting. */
+  SPIN {
+    @Override
+    void idle() {
+      Thread.onSpinWait();
+    }
+  },
+
+  /** Yields to any other threads waiting for the core, which is a little kinder than spinning. */
+  YIELD {
+    @Override
+    void idle() {
+      Thread.yield();
+    }
+  },
+
+  /**
+   * Sleeps for a few microseconds at a time, which burns almost no CPU time but adds latency. Best
+   * when there are fewer cores than busy threads.
+   */
+  PARK {
+    @Override
+    void idle() {
+      LockSupport.parkNanos(PARK_NANOS);
+    }
+  };
+
+  private static final long PARK_NANOS = 10_000;
+
+  /** Waits a little while, before the caller checks again whether it can make progress. */
+  abstract void idle();
+}
@@ -1,51 +1,56 @@
 package com.jakemarsden.java.lexer.parser;
 
+import static com.jakemarsden.java.lexer.text.CharClass.ASTERISK;
+import static com.jakemarsden.java.lexer.text.CharClass.LINE_FEED;
 import static com.jakemarsden.java.lexer.token.CommentType.BLOCK;
 import static com.jakemarsden.java.lexer.token.CommentType.LINE;
 
-import com.jakemarsden.java.lexer.text.TextParser;
-import com.jakemarsden.java.lexer.token.Token;
+import com.jakemarsden.java.lexer.text.AbstractTextParser;
+import com.jakemarsden.java.lexer.token.TokenType;
 
 public final class CommentTokenParser extends TokenParser {
 
-  public CommentTokenParser(TextParser parser) {
+  public CommentTokenParser(AbstractTextParser parser) {
     super(parser);
   }
 
   @Override
-  Token maybeConsumeNextToken() {
+  boolean scan() {
     var ch0 = this.parser.peek();
     var ch1 = this.parser.peek(1);
 
     if (ch0 == '/' && ch1 == '/') {
       // terminating newline **is not** part of the token
-      var startPos = this.parser.getPosition();
-      var tokenBuf = new StringBuilder();
       this.parser.consumeExact("//");
-      tokenBuf.append("//");
 
-      this.parser.consumeWhile(tokenBuf, p -> p.peek() != '\n');
-      return Token.comment(LINE, tokenBuf, startPos);
+      this.parser.skipUntil(LINE_FEED);
+      return this.scanned(TokenType.COMMENT, LINE.ordinal());
     }
 
     if (ch0 == '/' && ch1 == '*') {
       // terminating "*/" **is** part of the token
-      var startPos = this.parser.getPosition();
-      var tokenBuf = new StringBuilder();
       this.parser.consumeExact("/*");
-      tokenBuf.append("/*");
 
-      var eof = !this.parser.consumeWhile(tokenBuf, p -> p.peek() != '*' || p.peek(1) != '/');
+      var eof = !this.skipBlockCommentBody();
       if (eof) {
         // unclosed block comment is invalid
-        return Token.invalid(tokenBuf, startPos);
+        return this.scanned(TokenType.INVALID, -1);
       }
 
       this.parser.consumeExact("*/");
-      tokenBuf.append("*/");
-      return Token.comment(BLOCK, tokenBuf, startPos);
+      return this.scanned(TokenType.COMMENT, BLOCK.ordinal());
     }
 
-    return null;
+    return false;
+  }
+
+  /** @return {@code true} if the closing {@code "*\/"} was found before the end of the text */
+  private boolean skipBlockCommentBody() {
+    while (true) {
+      this.parser.skipUntil(ASTERISK);
+      if (!this.parser.hasRemaining()) return false;
+      if (this.parser.peek(1) == '/') return true;
+      this.parser.skip(1);
+    }
   }
 }
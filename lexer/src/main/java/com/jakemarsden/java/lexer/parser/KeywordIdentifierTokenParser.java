@@ -1,38 +1,39 @@
 package com.jakemarsden.java.lexer.parser;
 
-import com.jakemarsden.java.lexer.text.TextParser;
-import com.jakemarsden.java.lexer.token.Keyword;
-import com.jakemarsden.java.lexer.token.Token;
+import static com.jakemarsden.java.lexer.text.CharClass.IDENTIFIER_PART;
+import static com.jakemarsden.java.lexer.text.CharClass.IDENTIFIER_START;
+
+import com.jakemarsden.java.lexer.text.AbstractTextParser;
+import com.jakemarsden.java.lexer.text.CharClass;
+import com.jakemarsden.java.lexer.token.ReservedWords;
+import com.jakemarsden.java.lexer.token.TokenType;
+import java.nio.CharBuffer;
 
 public final class KeywordIdentifierTokenParser extends TokenParser {
 
-  public KeywordIdentifierTokenParser(TextParser parser) {
+  /** Reused to look up each word which is short enough to be reserved, without allocating. */
+  private final CharBuffer word = CharBuffer.allocate(ReservedWords.MAX_LENGTH);
+
+  public KeywordIdentifierTokenParser(AbstractTextParser parser) {
     super(parser);
   }
 
   @Override
-  Token maybeConsumeNextToken() {
+  boolean scan() {
     var ch0 = this.parser.peek();
 
-    if (isKeywordOrIdentifierStart(ch0)) {
-      var startPos = this.parser.getPosition();
-      var tokenBuf = new StringBuilder();
-      this.parser.consumeWhile(tokenBuf, p -> isKeywordOrIdentifierPart(p.peek()));
+    if (CharClass.matches(ch0, IDENTIFIER_START)) {
+      // identifiers are always ASCII, so each character is a single char
+      var length = this.parser.skipWhile(IDENTIFIER_PART);
+      if (length > ReservedWords.MAX_LENGTH) return this.scanned(TokenType.IDENTIFIER, -1);
 
-      var keyword = Keyword.of(tokenBuf.toString());
-      return keyword.isPresent()
-          ? Token.keyword(keyword.get(), startPos)
-          : Token.identifier(tokenBuf, startPos);
+      this.word.clear();
+      this.parser.getMarkedText(this.word);
+      var slot = ReservedWords.slotOf(this.word.flip());
+      if (slot < 0) return this.scanned(TokenType.IDENTIFIER, -1);
+      return this.scanned(ReservedWords.type(slot), ReservedWords.subtype(slot));
     }
 
-    return null;
-  }
-
-  static boolean isKeywordOrIdentifierStart(int ch0) {
-    return (ch0 >= 'a' && ch0 <= 'z') || (ch0 >= 'A' && ch0 <= 'Z') || ch0 == '$' || ch0 == '_';
-  }
-
-  static boolean isKeywordOrIdentifierPart(int ch0) {
-    return isKeywordOrIdentifierStart(ch0) || (ch0 >= '0' && ch0 <= '9');
+    return false;
   }
 }
@@ -1,31 +1,29 @@
 package com.jakemarsden.java.lexer.parser;
 
 import static com.jakemarsden.java.lexer.util.NumberUtils.DEC;
-import static com.jakemarsden.java.lexer.util.NumberUtils.isDigit;
 import static com.jakemarsden.java.lexer.util.NumberUtils.toDigit;
 
-import com.jakemarsden.java.lexer.text.TextParser;
-import com.jakemarsden.java.lexer.token.NumberLiteral;
-import com.jakemarsden.java.lexer.token.Token;
+import com.jakemarsden.java.lexer.text.AbstractTextParser;
+import com.jakemarsden.java.lexer.text.CharClass;
+import com.jakemarsden.java.lexer.token.TokenType;
 
 public final class NumberLiteralTokenParser extends TokenParser {
 
-  public NumberLiteralTokenParser(TextParser parser) {
+  public NumberLiteralTokenParser(AbstractTextParser parser) {
     super(parser);
   }
 
   @Override
-  Token maybeConsumeNextToken() {
+  boolean scan() {
     // TODO: Only currently supporting decimal integers
     var p = this.parser;
     var ch0 = p.peek();
 
-    if (!isDigit(ch0, DEC)) return null;
+    if (!CharClass.matches(ch0, CharClass.DEC_DIGIT)) return false;
 
-    var startPos = p.getPosition();
-    var rawValue = new StringBuilder();
     int value = 0;
     int radix = DEC;
+    var digitClass = CharClass.digit(radix);
 
     int prevCh;
     int ch = -1;
@@ -33,15 +31,15 @@ public final class NumberLiteralTokenParser extends TokenParser {
       prevCh = ch;
       ch = p.peek();
 
-      if (isDigit(ch, radix)) {
+      if (CharClass.matches(ch, digitClass)) {
         p.consumeExact(ch);
-        rawValue.appendCodePoint(ch);
         value *= radix;
         value += toDigit(ch, radix);
 
-      } else if (ch == '_' && isDigit(prevCh, radix) && isDigit(p.peek(1), radix)) {
+      } else if (ch == '_'
+          && CharClass.matches(prevCh, digitClass)
+          && CharClass.matches(p.peek(1), digitClass)) {
         p.consumeExact('_');
-        rawValue.appendCodePoint('_');
 
       } else {
         // not a valid addition to the number literal
@@ -49,6 +47,6 @@ public final class NumberLiteralTokenParser extends TokenParser {
       }
     }
 
-    return Token.numberLiteral(NumberLiteral.of(value, rawValue), startPos);
+    return this.scanned(TokenType.NUMBER_LITERAL, -1, value);
   }
 }
@@ -1,79 +1,35 @@
 package com.jakemarsden.java.lexer.parser;
 
-import static com.jakemarsden.java.lexer.token.Separator.*;
-
-import com.jakemarsden.java.lexer.text.TextParser;
+import com.jakemarsden.java.lexer.text.AbstractTextParser;
 import com.jakemarsden.java.lexer.token.Separator;
-import com.jakemarsden.java.lexer.token.SeparatorToken;
-import com.jakemarsden.java.lexer.token.Token;
+import com.jakemarsden.java.lexer.token.TokenType;
 
+/**
+ * Recognises the separators declared in the lexical spec, using the generated {@link LexicalDfa}.
+ */
 public final class SeparatorTokenParser extends TokenParser {
 
-  public SeparatorTokenParser(TextParser parser) {
-    super(parser);
-  }
-
-  @Override
-  Token maybeConsumeNextToken() {
-    var p = this.parser;
-    var ch0 = p.peek();
-
-    switch (ch0) {
-      case '{':
-        return this.consumeExactToken('{', OPENING_BRACE);
-
-      case '}':
-        return this.consumeExactToken('}', CLOSING_BRACE);
-
-      case '[':
-        return this.consumeExactToken('[', OPENING_BRACKET);
-
-      case ']':
-        return this.consumeExactToken(']', CLOSING_BRACKET);
-
-      case '(':
-        return this.consumeExactToken('(', OPENING_PAREN);
+  /** The separator matched by each rule, or {@code null} for rules which don't match separators. */
+  private static final Separator[] SEPARATORS = new Separator[LexicalDfa.ruleCount()];
 
-      case ')':
-        return this.consumeExactToken(')', CLOSING_PAREN);
-
-      case '@':
-        return this.consumeExactToken('@', ANNOTATION);
-
-      case '.':
-        if (p.peek(1) == '.' && p.peek(2) == '.') {
-          return this.consumeExactToken("...", VARARG);
-        } else {
-          return this.consumeExactToken('.', DOT);
-        }
-
-      case ',':
-        return this.consumeExactToken(',', ELEMENT_DELIMITER);
-
-      case ':':
-        if (p.peek(1) == ':') {
-          return this.consumeExactToken("::", METHOD_REFERENCE);
-        } else {
-          return null;
-        }
-
-      case ';':
-        return this.consumeExactToken(';', SEMICOLON);
-
-      default:
-        return null;
+  static {
+    for (int rule = 0; rule < SEPARATORS.length; rule++) {
+      if (LexicalDfa.category(rule) == LexicalDfa.SEPARATOR) {
+        SEPARATORS[rule] = Separator.valueOf(LexicalDfa.name(rule));
+      }
     }
   }
 
-  private SeparatorToken consumeExactToken(int expected, Separator sep) {
-    var startPos = this.parser.getPosition();
-    this.parser.consumeExact(expected);
-    return Token.separator(sep, startPos);
+  public SeparatorTokenParser(AbstractTextParser parser) {
+    super(parser);
   }
 
-  private SeparatorToken consumeExactToken(CharSequence expected, Separator sep) {
-    var startPos = this.parser.getPosition();
-    this.parser.consumeExact(expected);
-    return Token.separator(sep, startPos);
+  @Override
+  boolean scan() {
+    var rule = LexicalDfa.longestMatch(this.parser);
+    if (rule == LexicalDfa.NO_MATCH || SEPARATORS[rule] == null) return false;
+
+    this.parser.skip(LexicalDfa.length(rule));
+    return this.scanned(TokenType.SEPARATOR, SEPARATORS[rule].ordinal());
   }
 }
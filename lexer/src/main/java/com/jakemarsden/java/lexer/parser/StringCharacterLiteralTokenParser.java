@@ -1,52 +1,48 @@
 package com.jakemarsden.java.lexer.parser;
 
-import com.jakemarsden.java.lexer.text.TextParser;
-import com.jakemarsden.java.lexer.token.Token;
+import static com.jakemarsden.java.lexer.text.CharClass.DOUBLE_QUOTE;
+import static com.jakemarsden.java.lexer.text.CharClass.LINE_FEED;
+import static com.jakemarsden.java.lexer.text.CharClass.SINGLE_QUOTE;
+
+import com.jakemarsden.java.lexer.text.AbstractTextParser;
+import com.jakemarsden.java.lexer.token.TokenType;
 
 public final class StringCharacterLiteralTokenParser extends TokenParser {
 
-  public StringCharacterLiteralTokenParser(TextParser parser) {
+  public StringCharacterLiteralTokenParser(AbstractTextParser parser) {
     super(parser);
   }
 
   @Override
-  Token maybeConsumeNextToken() {
+  boolean scan() {
     var ch0 = this.parser.peek();
 
     if (ch0 == '\'') {
-      var startPos = this.parser.getPosition();
-      var tokenBuf = new StringBuilder();
       this.parser.consumeExact('\'');
-      tokenBuf.append('\'');
 
-      var eof = !this.parser.consumeWhile(tokenBuf, p -> p.peek() != '\'' && p.peek() != '\n');
-      if (eof || this.parser.peek() != '\'') {
+      this.parser.skipUntil(SINGLE_QUOTE | LINE_FEED);
+      if (this.parser.peek() != '\'') {
         // unclosed character literal is invalid
-        return Token.invalid(tokenBuf, startPos);
+        return this.scanned(TokenType.INVALID, -1);
       }
 
       this.parser.consumeExact('\'');
-      tokenBuf.append('\'');
-      return Token.characterLiteral(tokenBuf, startPos);
+      return this.scanned(TokenType.CHARACTER_LITERAL, -1);
     }
 
     if (ch0 == '"') {
-      var startPos = this.parser.getPosition();
-      var tokenBuf = new StringBuilder();
       this.parser.consumeExact('"');
-      tokenBuf.append('"');
 
-      var eof = !this.parser.consumeWhile(tokenBuf, p -> p.peek() != '"' && p.peek() != '\n');
-      if (eof || this.parser.peek() != '"') {
+      this.parser.skipUntil(DOUBLE_QUOTE | LINE_FEED);
+      if (this.parser.peek() != '"') {
         // unclosed string literal is invalid
-        return Token.invalid(tokenBuf, startPos);
+        return this.scanned(TokenType.INVALID, -1);
       }
 
       this.parser.consumeExact('"');
-      tokenBuf.append('"');
-      return Token.stringLiteral(tokenBuf, startPos);
+      return this.scanned(TokenType.STRING_LITERAL, -1);
     }
 
-    return null;
+    return false;
   }
 }
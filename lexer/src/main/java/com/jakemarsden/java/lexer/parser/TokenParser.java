@@ -2,21 +2,134 @@ package com.jakemarsden.java.lexer.parser;
 
 import static java.util.Objects.requireNonNull;
 
-import com.jakemarsden.java.lexer.text.TextParser;
+import com.jakemarsden.java.lexer.text.AbstractTextParser;
+import com.jakemarsden.java.lexer.text.TextPosition;
+import com.jakemarsden.java.lexer.token.Keyword;
+import com.jakemarsden.java.lexer.token.Operator;
+import com.jakemarsden.java.lexer.token.Separator;
 import com.jakemarsden.java.lexer.token.Token;
+import com.jakemarsden.java.lexer.token.TokenType;
 import java.util.Optional;
 
 public abstract class TokenParser {
 
-  final TextParser parser;
+  /** The characters of each keyword, operator and separator, indexed by its ordinal. */
+  private static final String[] KEYWORD_TEXTS = new String[Keyword.values().length];
 
-  TokenParser(TextParser parser) {
+  private static final String[] OPERATOR_TEXTS = new String[Operator.values().length];
+  private static final String[] SEPARATOR_TEXTS = new String[Separator.values().length];
+
+  static {
+    for (var keyword : Keyword.values()) KEYWORD_TEXTS[keyword.ordinal()] = keyword.toString();
+    for (int rule = 0; rule < LexicalDfa.ruleCount(); rule++) {
+      if (LexicalDfa.category(rule) == LexicalDfa.OPERATOR) {
+        OPERATOR_TEXTS[Operator.valueOf(LexicalDfa.name(rule)).ordinal()] = LexicalDfa.text(rule);
+      } else if (LexicalDfa.category(rule) == LexicalDfa.SEPARATOR) {
+        SEPARATOR_TEXTS[Separator.valueOf(LexicalDfa.name(rule)).ordinal()] = LexicalDfa.text(rule);
+      }
+    }
+  }
+
+  final AbstractTextParser parser;
+
+  /**
+   * Describe the token which was most recently {@link #scan() scanned}, packed as for {@link
+   * Token#of(TokenType, int, int, CharSequence, TextPosition)}.
+   */
+  TokenType type;
+
+  int subtype;
+  int value;
+
+  TokenParser(AbstractTextParser parser) {
     this.parser = requireNonNull(parser);
   }
 
   public final Optional<? extends Token> maybeConsumeNext() {
-    return Optional.ofNullable(this.maybeConsumeNextToken());
+    return Optional.ofNullable(this.consumeNextOrNull());
+  }
+
+  /**
+   * Equivalent to {@link #maybeConsumeNext()}, but without wrapping the result. Nothing is
+   * allocated when the next token isn't recognised, which matters when lexing large texts.
+   *
+   * @return the consumed token, or {@code null} if the next token isn't recognised by this parser
+   */
+  public final Token consumeNextOrNull() {
+    var startPos = this.parser.getPosition();
+    this.parser.mark();
+    return this.scan() ? this.token(startPos) : null;
+  }
+
+  /**
+   * Consumes the next token if it's recognised, but only describes it rather than creating it. The
+   * position must already be marked at the first character of the token, so that its characters are
+   * the marked text afterwards.
+   *
+   * @return {@code true} if the next token was recognised and consumed
+   */
+  abstract boolean scan();
+
+  /** @return the token which was most recently {@link #scan() scanned} */
+  final Token token(TextPosition startPos) {
+    return unpack(this.parser, this.type, this.subtype, this.value, startPos);
+  }
+
+  /** Records what kind of token was just scanned. */
+  final boolean scanned(TokenType type, int subtype) {
+    return this.scanned(type, subtype, 0);
+  }
+
+  /** Records what kind of token was just scanned. */
+  final boolean scanned(TokenType type, int subtype, int value) {
+    this.type = type;
+    this.subtype = subtype;
+    this.value = value;
+    return true;
   }
 
-  abstract Token maybeConsumeNextToken();
+  /**
+   * @return the token which has just been scanned from the marked text of the {@code parser}. The
+   *     marked text is only retrieved if the token actually needs it
+   */
+  static Token unpack(
+      AbstractTextParser parser, TokenType type, int subtype, int value, TextPosition startPos) {
+    var text = hasImpliedText(type) ? null : parser.getMarkedText();
+    return Token.of(type, subtype, value, text, startPos);
+  }
+
+  /**
+   * @return the characters of a token whose characters are implied by its {@code type} and {@code
+   *     subtype}, or {@code null} if they aren't
+   */
+  static String impliedText(TokenType type, int subtype) {
+    switch (type) {
+      case BOOLEAN_LITERAL:
+        return subtype != 0 ? "true" : "false";
+      case KEYWORD:
+        return KEYWORD_TEXTS[subtype];
+      case NULL_LITERAL:
+        return "null";
+      case OPERATOR:
+        return OPERATOR_TEXTS[subtype];
+      case SEPARATOR:
+        return SEPARATOR_TEXTS[subtype];
+      default:
+        return null;
+    }
+  }
+
+  /** @return {@code true} if the characters of tokens of the {@code type} are implied by it */
+  static boolean hasImpliedText(TokenType type) {
+    switch (type) {
+      case BOOLEAN_LITERAL:
+      case KEYWORD:
+      case NULL_LITERAL:
+      case OPERATOR:
+      case SEPARATOR:
+        return true;
+      default:
+        return false;
+    }
+  }
 }
@@ -0,0 +1,264 @@
+package com.jakemarsden.java.lexer.parser;
+
+import static com.jakemarsden.java.lexer.text.TextParser.EOF;
+import static java.lang.String.format;
+import static java.util.Objects.requireNonNull;
+import static org.fissore.slf4j.FluentLoggerFactory.getLogger;
+
+import com.jakemarsden.java.lexer.text.AbstractTextParser;
+import com.jakemarsden.java.lexer.text.CharClass;
+import com.jakemarsden.java.lexer.text.TextPosition;
+import com.jakemarsden.java.lexer.token.Token;
+import com.jakemarsden.java.lexer.token.TokenType;
+import java.nio.CharBuffer;
+import java.util.Set;
+import org.fissore.slf4j.FluentLogger;
+
+/**
+ * Lexes the characters of an {@link AbstractTextParser} one token at a time, describing the current
+ * token by its type, subtype and span rather than creating a {@link Token} for it. Every way of
+ * consuming tokens is built on top of this.
+ *
+ * <p>The first character of a token is almost always ASCII, and is almost always enough to decide
+ * which {@link TokenParser} can parse the token. So the parsers to try are looked up in a table
+ * indexed by the first character, rather than trying every parser in turn. Non-ASCII characters
+ * fall back to trying every parser in turn.
+ */
+public final class TokenScanner {
+
+  /** A mask of every type of token, for {@link #advance(int)}. */
+  public static final int ALL_TYPES = (1 << TokenType.values().length) - 1;
+
+  private static final FluentLogger LOGGER = getLogger(TokenScanner.class);
+
+  /** Characters below this value are looked up in the dispatch tables. */
+  private static final int DISPATCH_TABLE_SIZE = 128;
+
+  private final AbstractTextParser parser;
+
+  /** Every parser, in the order in which they're tried when a character isn't in the tables. */
+  private final TokenParser[] parsers;
+
+  /**
+   * The parser to try first for each ASCII character, or {@code null} if no parser can parse a
+   * token starting with that character.
+   */
+  private final TokenParser[] primaryParsers = new TokenParser[DISPATCH_TABLE_SIZE];
+
+  /**
+   * The parser to try if the primary parser doesn't recognise the token, or {@code null} if there's
+   * nothing else to try. Only needed where a character can start more than one kind of token, e.g.
+   * {@code '/'} which can start either a comment or an operator.
+   */
+  private final TokenParser[] fallbackParsers = new TokenParser[DISPATCH_TABLE_SIZE];
+
+  /**
+   * Describe the current token, packed as for {@link Token#of(TokenType, int, int, CharSequence,
+   * TextPosition)}. {@code type} is {@code null} before the first token.
+   */
+  private TokenType type;
+
+  private int subtype;
+  private int value;
+  private long start;
+  private long length;
+
+  public TokenScanner(AbstractTextParser parser) {
+    this.parser = requireNonNull(parser);
+    var commentParser = new CommentTokenParser(this.parser);
+    var keywordIdentifierParser = new KeywordIdentifierTokenParser(this.parser);
+    var numberLiteralParser = new NumberLiteralTokenParser(this.parser);
+    var operatorParser = new OperatorTokenParser(this.parser);
+    var separatorParser = new SeparatorTokenParser(this.parser);
+    var stringCharacterLiteralParser = new StringCharacterLiteralTokenParser(this.parser);
+    var whitespaceParser = new WhitespaceTokenParser(this.parser);
+    this.parsers =
+        new TokenParser[] {
+          whitespaceParser,
+          commentParser,
+          numberLiteralParser,
+          stringCharacterLiteralParser,
+          keywordIdentifierParser,
+          separatorParser,
+          operatorParser
+        };
+
+    for (int ch = 0; ch < DISPATCH_TABLE_SIZE; ch++) {
+      if (CharClass.matches(ch, CharClass.WHITESPACE)) this.dispatch(ch, whitespaceParser, null);
+    }
+    this.dispatch("0123456789", numberLiteralParser, null);
+    this.dispatch("'\"", stringCharacterLiteralParser, null);
+    for (int ch = 'a'; ch <= 'z'; ch++) this.dispatch(ch, keywordIdentifierParser, null);
+    for (int ch = 'A'; ch <= 'Z'; ch++) this.dispatch(ch, keywordIdentifierParser, null);
+    this.dispatch("$_", keywordIdentifierParser, null);
+    this.dispatch("{}[]()@.,;", separatorParser, null);
+    this.dispatch("=+*%-&~|^<>!?", operatorParser, null);
+    // "::" is a separator, but ':' on its own is an operator
+    this.dispatch(":", separatorParser, operatorParser);
+    // "//" and "/*" start comments, but '/' on its own is an operator
+    this.dispatch("/", commentParser, operatorParser);
+  }
+
+  /** @return the parser which the characters are read from */
+  public AbstractTextParser parser() {
+    return this.parser;
+  }
+
+  /** @return {@code true} if there are more tokens, i.e. if {@link #advance()} would succeed */
+  public boolean hasNext() {
+    return this.parser.hasRemaining();
+  }
+
+  /**
+   * Consumes the next token, which becomes the current token. A character which can't start any
+   * token is consumed as an {@link TokenType#INVALID INVALID} token on its own.
+   *
+   * @return {@code true} if there was another token, or {@code false} if the end of the text has
+   *     been reached
+   */
+  public boolean advance() {
+    var start = this.parser.getCharIndex();
+    this.parser.mark();
+
+    var ch = this.parser.peek();
+    var tokenParser =
+        ch >= 0 && ch < DISPATCH_TABLE_SIZE ? this.scanDispatched(ch) : this.scanUndispatched();
+    if (tokenParser != null) {
+      this.type = tokenParser.type;
+      this.subtype = tokenParser.subtype;
+      this.value = tokenParser.value;
+    } else {
+      if (this.parser.consume() == EOF) return false;
+      this.type = TokenType.INVALID;
+      this.subtype = -1;
+      this.value = 0;
+    }
+    this.start = start;
+    this.length = this.parser.getCharIndex() - start;
+    if (this.type == TokenType.INVALID) {
+      LOGGER.warn().log(() -> format("Invalid token: %s", this.token()));
+    }
+    return true;
+  }
+
+  /**
+   * Consumes tokens until one of the included types is found, which becomes the current token.
+   * Excluded tokens are scanned over in the same way as any other, but nothing else is done with
+   * them.
+   *
+   * @param typeMask the types of token to stop at, as built by {@link #typeMask(Set)}
+   * @return {@code true} if there was another token of an included type, or {@code false} if the
+   *     end of the text has been reached
+   */
+  public boolean advance(int typeMask) {
+    while (this.advance()) {
+      if ((typeMask & (1 << this.type.ordinal())) != 0) return true;
+    }
+    return false;
+  }
+
+  /**
+   * Returns the characters of a keyword, operator, separator, or boolean or null literal, which are
+   * implied by its type and subtype. They're known without the characters being retained.
+   *
+   * @param type the type of the token
+   * @param subtype the subtype of the token, packed as for {@link Token#of(TokenType, int, int,
+   *     CharSequence, TextPosition)}
+   * @return the characters of the token, or {@code null} if they aren't implied by its {@code type}
+   */
+  public static String impliedText(TokenType type, int subtype) {
+    return TokenParser.impliedText(type, subtype);
+  }
+
+  /**
+   * @param types the types of token to include
+   * @return a mask of the {@code types}, for {@link #advance(int)}
+   */
+  public static int typeMask(Set<TokenType> types) {
+    var mask = 0;
+    for (var type : types) mask |= 1 << type.ordinal();
+    return mask;
+  }
+
+  /** @return the type of the current token */
+  public TokenType type() {
+    return this.type;
+  }
+
+  /**
+   * @return the subtype of the current token, packed as for {@link Token#of(TokenType, int, int,
+   *     CharSequence, TextPosition)}
+   */
+  public int subtype() {
+    return this.subtype;
+  }
+
+  /** @return the value of the current token if it's a number literal */
+  public int value() {
+    return this.value;
+  }
+
+  /** @return the index of the first character of the current token, in code points */
+  public long start() {
+    return this.start;
+  }
+
+  /** @return the number of characters in the current token, in code points */
+  public long length() {
+    return this.length;
+  }
+
+  /**
+   * @return the characters of the current token, which are a view of the underlying text wherever
+   *     possible and so are only valid until the next call to {@link #advance()}
+   */
+  public CharSequence text() {
+    return this.parser.getMarkedText();
+  }
+
+  /**
+   * Copies the characters of the current token into the {@code out} buffer without allocating
+   * anything, as for {@link AbstractTextParser#getMarkedText(CharBuffer)}.
+   *
+   * @param out the buffer to put the characters into
+   * @return the number of {@code char}s put into the buffer
+   */
+  public int text(CharBuffer out) {
+    return this.parser.getMarkedText(out);
+  }
+
+  /** @return the position of the first character of the current token */
+  public TextPosition position() {
+    return this.parser.positionOf(this.start);
+  }
+
+  /** @return a new token equivalent to the current token */
+  public Token token() {
+    return TokenParser.unpack(this.parser, this.type, this.subtype, this.value, this.position());
+  }
+
+  private TokenParser scanDispatched(int ch) {
+    var primaryParser = this.primaryParsers[ch];
+    if (primaryParser == null) return null;
+    if (primaryParser.scan()) return primaryParser;
+
+    var fallbackParser = this.fallbackParsers[ch];
+    return fallbackParser != null && fallbackParser.scan() ? fallbackParser : null;
+  }
+
+  private TokenParser scanUndispatched() {
+    for (var parser : this.parsers) {
+      if (parser.scan()) return parser;
+    }
+    return null;
+  }
+
+  private void dispatch(CharSequence chars, TokenParser primaryParser, TokenParser fallbackParser) {
+    chars.chars().forEach(ch -> this.dispatch(ch, primaryParser, fallbackParser));
+  }
+
+  private void dispatch(int ch, TokenParser primaryParser, TokenParser fallbackParser) {
+    this.primaryParsers[ch] = primaryParser;
+    this.fallbackParsers[ch] = fallbackParser;
+  }
+}
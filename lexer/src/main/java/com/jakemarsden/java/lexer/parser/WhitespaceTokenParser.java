@@ -1,23 +1,24 @@
 package com.jakemarsden.java.lexer.parser;
 
-import com.jakemarsden.java.lexer.text.TextParser;
-import com.jakemarsden.java.lexer.token.Token;
+import static com.jakemarsden.java.lexer.text.CharClass.WHITESPACE;
+
+import com.jakemarsden.java.lexer.text.AbstractTextParser;
+import com.jakemarsden.java.lexer.text.CharClass;
+import com.jakemarsden.java.lexer.token.TokenType;
 
 public final class WhitespaceTokenParser extends TokenParser {
 
-  public WhitespaceTokenParser(TextParser parser) {
+  public WhitespaceTokenParser(AbstractTextParser parser) {
     super(parser);
   }
 
   @Override
-  Token maybeConsumeNextToken() {
-    if (Character.isWhitespace(this.parser.peek())) {
-      var tokenBuf = new StringBuilder();
-      var startPos = this.parser.getPosition();
-      this.parser.consumeWhile(tokenBuf, p -> Character.isWhitespace(p.peek()));
-      return Token.whitespace(tokenBuf, startPos);
+  boolean scan() {
+    if (CharClass.matches(this.parser.peek(), WHITESPACE)) {
+      this.parser.skipWhile(WHITESPACE);
+      return this.scanned(TokenType.WHITESPACE, -1);
     }
 
-    return null;
+    return false;
   }
 }
@@ -0,0 +1,541 @@
+package com.jakemarsden.java.lexer.text;
+
+import static java.lang.String.format;
+import static java.util.Objects.requireNonNull;
+
+import java.nio.BufferOverflowException;
+import java.nio.CharBuffer;
+import java.util.function.Predicate;
+
+/**
+ * Useful for parsing some or all of the characters of a text. Concrete implementations decide how
+ * characters are retrieved from the underlying text, but all of them report positions and advance
+ * in the same way.
+ *
+ * @see TextParser
+ * @see CharSequenceTextParser
+ */
+public abstract class AbstractTextParser implements UnmodifiableTextParser {
+
+  private LineStartTable lines;
+
+  /**
+   * Whether the {@link #lines} already hold the start of every line in the text, so they never need
+   * to be added to or truncated, and line terminators don't need to be looked at individually.
+   */
+  private boolean linesComplete;
+
+  /**
+   * Whether any position which resolves its line from the {@link #lines} has been handed out, in
+   * which case the lines must never be cleared for reuse by another text.
+   */
+  private boolean linesShared;
+
+  /** Index of the current character from the start of the text, in code points. */
+  private long charIdx;
+
+  /** Index of the marked character, or {@code -1} if the position has never been marked. */
+  private long markCharIdx = -1;
+
+  /** The most recently returned position, which is reused until the position advances. */
+  private TextPosition position = TextPosition.start();
+
+  AbstractTextParser() {
+    this.lines = new LineStartTable();
+    this.linesComplete = false;
+  }
+
+  /** @param lines the start of every line in the whole text, worked out in advance */
+  AbstractTextParser(LineStartTable lines) {
+    this.lines = requireNonNull(lines);
+    this.linesComplete = true;
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * <p>The line and column of the returned position are resolved lazily, so it's cheap to call this
+   * method even if they're never needed.
+   */
+  @Override
+  public final TextPosition getPosition() {
+    var position = this.position;
+    if (position.charIndex() != this.charIdx) {
+      position = TextPosition.of(this.lines, this.charIdx);
+      this.position = position;
+      this.linesShared = true;
+    }
+    return position;
+  }
+
+  /**
+   * Returns the index of the current character from the start of the text, in code points. The same
+   * as {@code getPosition().charIndex()}, but never allocates.
+   *
+   * @return the index of the current character
+   */
+  public final long getCharIndex() {
+    return this.charIdx;
+  }
+
+  /**
+   * Returns the position of a character which the position has already advanced past (or reached).
+   * Its line and column are resolved lazily, in the same way as for {@link #getPosition()}.
+   *
+   * @param charIdx the index of the character from the start of the text, in code points
+   * @return the position of the character at {@code charIdx}
+   * @throws IllegalArgumentException if {@code charIdx} is negative or after the current character
+   */
+  public final TextPosition positionOf(long charIdx) {
+    if (charIdx < 0 || charIdx > this.charIdx) {
+      throw new IllegalArgumentException("Invalid character index: " + charIdx);
+    }
+    if (charIdx == this.charIdx) return this.getPosition();
+    this.linesShared = true;
+    return TextPosition.of(this.lines, charIdx);
+  }
+
+  /**
+   * Returns the characters in the range {@code [fromCharIdx, toCharIdx)}, which the position must
+   * already have advanced past. Only supported where the whole text is held in memory, in which
+   * case the returned characters are a view of it wherever possible, just as for {@link
+   * #getMarkedText()}.
+   *
+   * @param fromCharIdx the index of the first character, in code points
+   * @param toCharIdx the index after the last character, in code points
+   * @return the characters in the range
+   * @throws IllegalArgumentException if the range is invalid, or isn't before the current character
+   * @throws UnsupportedOperationException if the text isn't held in memory
+   */
+  public final CharSequence getText(long fromCharIdx, long toCharIdx) {
+    if (fromCharIdx < 0 || fromCharIdx > toCharIdx || toCharIdx > this.charIdx) {
+      throw new IllegalArgumentException(
+          format("Invalid character range: [%d, %d)", fromCharIdx, toCharIdx));
+    }
+    return this.text(fromCharIdx, toCharIdx);
+  }
+
+  /**
+   * @return {@code true} if the whole text is held in memory, so that {@link #getText(long, long)}
+   *     is supported
+   */
+  public abstract boolean isTextHeld();
+
+  /**
+   * Marks the current position, so that it can be returned to later by calling {@link #reset()}.
+   * Any existing mark is replaced.
+   *
+   * <p>Characters from the marked position onwards are retained until the mark is replaced, so
+   * speculative parsing can back off without having to retrieve the characters from the underlying
+   * text again.
+   */
+  public final void mark() {
+    this.markCharIdx = this.charIdx;
+    this.markIndex();
+  }
+
+  /**
+   * Returns to the position which was most recently {@link #mark() marked}. The mark is retained,
+   * so it's possible to reset to the same position more than once.
+   *
+   * @throws IllegalStateException if the position has never been marked
+   */
+  public final void reset() {
+    if (this.markCharIdx < 0) throw new IllegalStateException("Position was never marked");
+    this.charIdx = this.markCharIdx;
+    if (!this.linesComplete) this.lines.truncate(this.charIdx);
+    this.resetIndex();
+  }
+
+  /**
+   * Returns the characters from the {@link #mark() marked} position up to, but not including, the
+   * current character. Where the underlying text is already in memory and can't change, the
+   * returned characters are a view of it rather than a copy; otherwise, they're copied into a
+   * {@link String} of exactly the right size. Either way, call {@link Object#toString()} on the
+   * result if a {@code String} is needed.
+   *
+   * @return the characters consumed since the position was marked
+   * @throws IllegalStateException if the position has never been marked
+   */
+  public final CharSequence getMarkedText() {
+    if (this.markCharIdx < 0) throw new IllegalStateException("Position was never marked");
+    return this.markedText();
+  }
+
+  /**
+   * Copies the characters from the {@link #mark() marked} position up to, but not including, the
+   * current character into the {@code out} buffer, as UTF-16. Unlike {@link #getMarkedText()},
+   * nothing is allocated.
+   *
+   * @param out the buffer to put the characters into
+   * @return the number of {@code char}s put into the buffer
+   * @throws BufferOverflowException if there isn't enough room left in the buffer, in which case
+   *     its position is left unchanged
+   * @throws IllegalStateException if the position has never been marked
+   */
+  public final int getMarkedText(CharBuffer out) {
+    if (this.markCharIdx < 0) throw new IllegalStateException("Position was never marked");
+    var startPos = out.position();
+    try {
+      this.markedText(out);
+    } catch (BufferOverflowException e) {
+      out.position(startPos);
+      throw e;
+    }
+    return out.position() - startPos;
+  }
+
+  /**
+   * Moves the position straight to the character at {@code charIdx}, without reading any of the
+   * characters in between. Only valid if the {@link #lines} are complete, and once the
+   * implementation's own index has been moved to the same character.
+   */
+  final void jumpTo(long charIdx) {
+    if (!this.linesComplete) throw new IllegalStateException("Lines aren't known in advance");
+    this.charIdx = charIdx;
+  }
+
+  /**
+   * Returns to the start of the text, and forgets the mark, ready for parsing a different text
+   * whose lines aren't known in advance. Called by implementations which can be reused, once
+   * they've switched to the new text. Positions handed out for the previous text are unaffected.
+   */
+  final void restart() {
+    if (this.linesComplete || this.linesShared) {
+      this.lines = new LineStartTable();
+    } else {
+      this.lines.clear();
+    }
+    this.linesComplete = false;
+    this.restartIndex();
+  }
+
+  /**
+   * Returns to the start of the text, as for {@link #restart()}, but for a text whose lines are
+   * known in advance.
+   *
+   * @param lines the start of every line in the whole new text, which must be a different table
+   *     from the current one if {@link #isLinesShared()}
+   */
+  final void restart(LineStartTable lines) {
+    this.lines = requireNonNull(lines);
+    this.linesComplete = true;
+    this.restartIndex();
+  }
+
+  /**
+   * @return {@code true} if positions handed out still resolve their lines from the current line
+   *     starts, which therefore mustn't be changed
+   */
+  final boolean isLinesShared() {
+    return this.linesShared;
+  }
+
+  private void restartIndex() {
+    this.charIdx = 0;
+    this.markCharIdx = -1;
+    this.position = TextPosition.start();
+    this.linesShared = false;
+  }
+
+  /**
+   * Advances the position by {@code count} characters.
+   *
+   * @param count the number of characters to advance the position by
+   */
+  public final void skip(int count) {
+    if (count < 0) throw new IllegalArgumentException("Invalid count: " + count);
+    while (count > 0) {
+      var ch = this.read();
+      if (ch == EOF) return;
+      this.advancePosition(ch);
+      count--;
+    }
+  }
+
+  /**
+   * Returns the current character, and then advances the position to the next character. If the end
+   * of the text is reached before the current character {@link #EOF} is returned instead.
+   *
+   * <p>Functionally equivalent to:
+   *
+   * <pre><code>
+   * var ch = this.{@link #peek(int) peek(0)};
+   * this.{@link #skip(int) skip(1)};
+   * return ch;
+   * </code></pre>
+   *
+   * @return the current character before advancing the position, or {@link #EOF} if the end of the
+   *     text is reached first
+   */
+  public final int consume() {
+    var ch = this.read();
+    if (ch != EOF) this.advancePosition(ch);
+    return ch;
+  }
+
+  /**
+   * Advances the position if the current character matches the {@code expected} character;
+   * otherwise, throws an {@code IllegalStateException}. The position is not advanced if an
+   * exception is thrown.
+   *
+   * <p>An {@code IllegalStateException} will always be thrown if the end of the text is reached,
+   * regardless of the {@code expected} character.
+   *
+   * <p>Functionally equivalent to:
+   *
+   * <pre><code>
+   * var ch = this.{@link #peek(int) peek(0)};
+   * if (ch == expected &amp;&amp; ch != {@link #EOF EOF}) {
+   *   this.{@link #skip(int) skip(1)};
+   * } else {
+   *   throw new IllegalStateException(...);
+   * }
+   * </code></pre>
+   *
+   * @param expected the character to (maybe) consume
+   * @throws IllegalStateException if the current character doesn't match the {@code expected}
+   *     character, or if the end of the text is reached
+   */
+  public final void consumeExact(int expected) {
+    var ch = this.peek(0);
+    if (ch == EOF) {
+      throw new IllegalStateException(
+          format(
+              "Expected: '%c' U+%04X at position %s but was: EOF",
+              expected, expected, this.getPosition()));
+    }
+    if (ch != expected) {
+      throw new IllegalStateException(
+          format(
+              "Expected: '%c' U+%04X at position %s but was: '%c' U+%04X",
+              expected, expected, this.getPosition(), ch, ch));
+    }
+    this.read();
+    this.advancePosition(ch);
+  }
+
+  /**
+   * Advances the position if the next characters all match the {@code expectedChars}; otherwise,
+   * throws an {@code IllegalStateException}. The position is not advanced if an exception is
+   * thrown.
+   *
+   * <p>An {@code IllegalStateException} will always be thrown if the end of the text is reached,
+   * regardless of the {@code expectedChars}.
+   *
+   * <p><strong>Not</strong> functionally equivalent to:
+   *
+   * <pre><code>
+   * expectedChars.codePoints()
+   *     .forEach(this::consumeExact);
+   * </code></pre>
+   *
+   * @param expectedChars the characters to (maybe) consume
+   * @throws IllegalStateException the next characters don't match the {@code expectedChars}, or if
+   *     the end of the text is reached
+   */
+  public final void consumeExact(CharSequence expectedChars) {
+    int offset = 0;
+    for (int idx = 0; idx < expectedChars.length(); ) {
+      var expected = Character.codePointAt(expectedChars, idx);
+      idx += Character.charCount(expected);
+      var ch = this.peek(offset);
+      if (ch == EOF) {
+        throw new IllegalStateException(
+            format(
+                "Expected: '%c' U+%04X at position %s+%d but was: EOF",
+                expected, expected, this.getPosition(), offset));
+      }
+      if (ch != expected) {
+        throw new IllegalStateException(
+            format(
+                "Expected: '%c' U+%04X at position %s+%d but was: '%c' U+%04X",
+                expected, expected, this.getPosition(), offset, ch, ch));
+      }
+      offset++;
+    }
+    this.skip(offset);
+  }
+
+  /**
+   * Consumes characters and appends them to the output buffer, until the {@code predicate} fails
+   * for the <em>next</em> character or until the end of the text is reached. The current character
+   * when the {@code predicate} fails is <em>not</em> appended to the output buffer, but it
+   * <em>will</em> be the current character after this method (and so can be accessed via {@code
+   * peek(0)}).
+   *
+   * <p>Returns
+   *
+   * <ul>
+   *   <li>{@code true} if the {@code predicate} failed before the end of the text
+   *   <li>{@code false} if the end of the text was reached before the {@code predicate} failed
+   * </ul>
+   *
+   * <p>Functionally equivalent to:
+   *
+   * <pre><code>
+   * while (true) {
+   *   var ch = this.{@link #peek(int) peek(0)};
+   *   if (ch == {@link #EOF EOF}) return false;
+   *   if (!predicate.test(this)) return true;
+   *   outBuf.append(ch);
+   *   this.{@link #skip(int) skip(1)};
+   * }
+   * </code></pre>
+   *
+   * @param outBuf the buffer to append consumed characters to
+   * @param predicate the condition which should return {@code false} to stop consuming characters
+   * @return {@code true} if the {@code predicate} failed before the end of the text was reached
+   */
+  public final boolean consumeWhile(
+      StringBuilder outBuf, Predicate<UnmodifiableTextParser> predicate) {
+    requireNonNull(outBuf);
+    requireNonNull(predicate);
+    while (true) {
+      var ch = this.peek(0);
+      if (ch == EOF) return false;
+      if (!predicate.test(this)) return true;
+      outBuf.appendCodePoint(ch);
+      this.read();
+      this.advancePosition(ch);
+    }
+  }
+
+  /**
+   * Advances the position until the {@code predicate} fails for the <em>next</em> character or
+   * until the end of the text is reached. Behaves exactly like {@link #consumeWhile(StringBuilder,
+   * Predicate)} except that the consumed characters aren't copied anywhere; use {@link
+   * #getMarkedText()} to retrieve them afterwards if they're needed.
+   *
+   * @param predicate the condition which should return {@code false} to stop consuming characters
+   * @return {@code true} if the {@code predicate} failed before the end of the text was reached
+   */
+  public final boolean skipWhile(Predicate<UnmodifiableTextParser> predicate) {
+    requireNonNull(predicate);
+    while (true) {
+      var ch = this.peek(0);
+      if (ch == EOF) return false;
+      if (!predicate.test(this)) return true;
+      this.read();
+      this.advancePosition(ch);
+    }
+  }
+
+  /**
+   * Advances the position while the current character belongs to the {@code charClass}, until the
+   * end of the text is reached. Runs of ASCII characters are skipped in a tight loop directly over
+   * the underlying text.
+   *
+   * @param charClass a single {@link CharClass}
+   * @return the number of characters skipped
+   * @throws IllegalArgumentException if {@code charClass} isn't a single class
+   */
+  public final long skipWhile(int charClass) {
+    if (Integer.bitCount(charClass) != 1) {
+      throw new IllegalArgumentException("Invalid char class: " + charClass);
+    }
+    return this.skipClasses(this.skipMask(charClass), charClass, charClass, true);
+  }
+
+  /**
+   * Advances the position until the current character belongs to any of the {@code charClasses}, or
+   * until the end of the text is reached. Runs of ASCII characters are skipped in a tight loop
+   * directly over the underlying text.
+   *
+   * @param charClasses one or more {@link CharClass}es, combined with {@code |}
+   * @return the number of characters skipped
+   */
+  public final long skipUntil(int charClasses) {
+    return this.skipClasses(this.skipMask(charClasses), 0, charClasses, false);
+  }
+
+  /**
+   * Advances past the current character without updating the position.
+   *
+   * @return the current character before advancing, or {@link #EOF} if the end of the text is
+   *     reached first
+   */
+  abstract int read();
+
+  /** Remembers the index of the current character so that it can be returned to later. */
+  abstract void markIndex();
+
+  /** Returns to the index which was most recently remembered by {@link #markIndex()}. */
+  abstract void resetIndex();
+
+  /**
+   * Advances past ASCII characters, without updating the position, while the classes of each one
+   * masked with {@code mask} equal {@code expected}. Stops at the first non-ASCII character, or
+   * sooner if the rest of the run isn't readily available. Unless the lines were worked out in
+   * advance, {@code mask} includes {@link CharClass#LINE_TERMINATOR} and {@code expected} doesn't,
+   * so line terminators aren't skipped.
+   *
+   * @return the number of characters skipped
+   */
+  abstract int skipAscii(int mask, int expected);
+
+  /**
+   * @return the characters from the index which was most recently remembered by {@link
+   *     #markIndex()} up to, but not including, the current character
+   */
+  abstract CharSequence markedText();
+
+  /**
+   * Puts the characters from the index which was most recently remembered by {@link #markIndex()}
+   * up to, but not including, the current character into the {@code out} buffer.
+   *
+   * @throws BufferOverflowException if there isn't enough room left in the buffer
+   */
+  abstract void markedText(CharBuffer out);
+
+  /**
+   * @return the characters in the range {@code [fromCharIdx, toCharIdx)}, which has already been
+   *     validated
+   * @throws UnsupportedOperationException if the text isn't held in memory
+   */
+  abstract CharSequence text(long fromCharIdx, long toCharIdx);
+
+  /** @return the mask to skip by, which only stops at line terminators if they need recording */
+  private int skipMask(int charClasses) {
+    return this.linesComplete ? charClasses : charClasses | CharClass.LINE_TERMINATOR;
+  }
+
+  private long skipClasses(int mask, int expected, int charClasses, boolean matching) {
+    var startCharIdx = this.charIdx;
+    while (true) {
+      this.charIdx += this.skipAscii(mask, expected);
+
+      // line terminators, non-ASCII characters and the ends of buffers
+      var ch = this.peek(0);
+      if (ch == EOF || CharClass.matches(ch, charClasses) != matching) break;
+      this.read();
+      this.advancePosition(ch);
+    }
+    return this.charIdx - startCharIdx;
+  }
+
+  /**
+   * Puts a code point into the {@code out} buffer as UTF-16.
+   *
+   * @throws BufferOverflowException if there isn't enough room left in the buffer
+   */
+  static void putCodePoint(CharBuffer out, int ch) {
+    if (Character.isBmpCodePoint(ch)) {
+      out.put((char) ch);
+    } else {
+      if (out.remaining() < 2) throw new BufferOverflowException();
+      out.put(Character.highSurrogate(ch));
+      out.put(Character.lowSurrogate(ch));
+    }
+  }
+
+  /**
+   * Advances the position past {@code ch}, which has just been {@link #read()}. Recognises {@code
+   * "\n"}, {@code "\r"} and {@code "\r\n"} as line terminators.
+   */
+  private void advancePosition(int ch) {
+    this.charIdx++;
+    if (this.linesComplete) return;
+    if (ch == '\n' || (ch == '\r' && this.peek(0) != '\n')) this.lines.add(this.charIdx);
+  }
+}
@@ -0,0 +1,39 @@
+package com.jakemarsden.java.lexer.text;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Skips runs of ASCII bytes by {@link CharClass}, on behalf of the {@link Utf8TextParser} and the
+ * {@link MappedFileTextParser}. Only used for the scans which the {@link StructuralIndex} can't
+ * answer, which in practice are runs of whitespace and identifier characters.
+ *
+ * <p>This is the portable implementation, which examines one byte at a time. On JDK 21 and later,
+ * the multi-release jar replaces it with one which examines a whole vector of bytes at a time, but
+ * only for bytes backed by an array and only if the {@code jdk.incubator.vector} module is
+ * available. The direct buffers of memory-mapped files are always examined one byte at a time.
+ */
+final class AsciiScanner {
+
+  /**
+   * @param text the bytes to scan
+   * @param from the index of the first byte to examine
+   * @param to the index after the last byte to examine
+   * @param mask the classes to look at
+   * @param expected which of the masked classes each skipped byte must belong to
+   * @return the index of the first non-ASCII byte in the range whose classes masked with {@code
+   *     mask} don't equal {@code expected}, or {@code to} if there isn't one
+   */
+  static int skip(ByteBuffer text, int from, int to, int mask, int expected) {
+    var idx = from;
+    while (idx < to) {
+      var b = text.get(idx);
+      if (b < 0 || (CharClass.ASCII_CLASSES[b] & mask) != expected) break;
+      idx++;
+    }
+    return idx;
+  }
+
+  private AsciiScanner() {
+    throw new UnsupportedOperationException();
+  }
+}
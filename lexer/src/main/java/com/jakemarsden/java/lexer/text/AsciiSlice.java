@@ -0,0 +1,69 @@
+package com.jakemarsden.java.lexer.text;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static java.util.Objects.checkFromToIndex;
+import static java.util.Objects.checkIndex;
+
+import java.nio.ByteBuffer;
+
+/**
+ * A read-only view of a range of ASCII bytes of a {@link ByteBuffer}, as characters. Nothing is
+ * copied until {@link #toString()} is called.
+ *
+ * <p>Equal to any other slice of the same characters, whichever text it's a view of. {@link
+ * #hashCode()} is consistent with {@link String#hashCode()} for the same characters, but a slice is
+ * never equal to a {@link String}: use {@link String#contentEquals(CharSequence)} or {@link
+ * CharSequence#compare(CharSequence, CharSequence)} to compare the two.
+ */
+final class AsciiSlice implements CharSequence {
+
+  private final ByteBuffer bytes;
+  private final int start;
+  private final int end;
+
+  AsciiSlice(ByteBuffer bytes, int start, int end) {
+    checkFromToIndex(start, end, bytes.limit());
+    this.bytes = bytes;
+    this.start = start;
+    this.end = end;
+  }
+
+  @Override
+  public int length() {
+    return this.end - this.start;
+  }
+
+  @Override
+  public char charAt(int idx) {
+    checkIndex(idx, this.length());
+    return (char) this.bytes.get(this.start + idx);
+  }
+
+  @Override
+  public CharSequence subSequence(int start, int end) {
+    checkFromToIndex(start, end, this.length());
+    return new AsciiSlice(this.bytes, this.start + start, this.start + end);
+  }
+
+  @Override
+  public String toString() {
+    var buf = new byte[this.length()];
+    this.bytes.duplicate().position(this.start).get(buf);
+    return new String(buf, US_ASCII);
+  }
+
+  /** @return {@code true} if {@code obj} is a slice of the same characters */
+  @Override
+  public boolean equals(Object obj) {
+    if (this == obj) return true;
+    if (!(obj instanceof CharSequenceSlice || obj instanceof AsciiSlice)) return false;
+    return CharSequence.compare(this, (CharSequence) obj) == 0;
+  }
+
+  @Override
+  public int hashCode() {
+    int hash = 0;
+    for (int idx = this.start; idx < this.end; idx++) hash = 31 * hash + this.bytes.get(idx);
+    return hash;
+  }
+}
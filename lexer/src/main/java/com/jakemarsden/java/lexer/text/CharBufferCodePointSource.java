@@ -0,0 +1,84 @@
+package com.jakemarsden.java.lexer.text;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.CharBuffer;
+
+/**
+ * A source of code points which retrieves characters in blocks, and combines surrogate pairs as
+ * they're copied out of the block. A leading byte order mark is skipped.
+ */
+abstract class CharBufferCodePointSource implements CodePointSource {
+
+  static final int BLOCK_SIZE = 8192;
+
+  private static final char BYTE_ORDER_MARK = '\uFEFF';
+
+  /** Characters which have been retrieved but not yet returned. Always in "read" mode. */
+  private final CharBuffer chars = CharBuffer.allocate(BLOCK_SIZE).flip();
+
+  private boolean start = true;
+  private boolean eof;
+
+  @Override
+  public final int read(int[] buf, int off, int len) {
+    int count = 0;
+    while (count < len) {
+      if (this.needsFill()) {
+        // a block of characters has already been returned, so don't block waiting for another
+        if (count != 0 || this.eof) break;
+        this.fill();
+        continue;
+      }
+
+      var ch = this.chars.get();
+      if (Character.isHighSurrogate(ch) && this.chars.hasRemaining()) {
+        var low = this.chars.get(this.chars.position());
+        if (Character.isLowSurrogate(low)) {
+          this.chars.get();
+          buf[off + count++] = Character.toCodePoint(ch, low);
+          continue;
+        }
+      }
+      buf[off + count++] = ch;
+    }
+    return count == 0 ? -1 : count;
+  }
+
+  /**
+   * Retrieves more characters and appends them to the {@code chars}, which is in "write" mode.
+   *
+   * @param chars where to append the characters to
+   * @return {@code false} if the end of the text was reached before any more characters could be
+   *     retrieved
+   * @throws IOException if the characters can't be retrieved
+   */
+  abstract boolean fill(CharBuffer chars) throws IOException;
+
+  /**
+   * @return {@code true} if there are no characters left to return, or if the only character left
+   *     is a high surrogate (which might be the first half of a surrogate pair)
+   */
+  private boolean needsFill() {
+    var remaining = this.chars.remaining();
+    return remaining == 0
+        || (remaining == 1
+            && !this.eof
+            && Character.isHighSurrogate(this.chars.get(this.chars.position())));
+  }
+
+  private void fill() {
+    this.chars.compact();
+    try {
+      this.eof = !this.fill(this.chars);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    } finally {
+      this.chars.flip();
+    }
+    if (this.start && this.chars.hasRemaining()) {
+      this.start = false;
+      if (this.chars.get(this.chars.position()) == BYTE_ORDER_MARK) this.chars.get();
+    }
+  }
+}
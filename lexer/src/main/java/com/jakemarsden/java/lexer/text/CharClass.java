@@ -0,0 +1,112 @@
+package com.jakemarsden.java.lexer.text;
+
+/**
+ * Classes of characters which are interesting to the lexer, represented as bit flags so that they
+ * can be combined. The classes of every ASCII character are looked up in a precomputed table, so
+ * testing a character is a single array access and a mask.
+ *
+ * <p>Only {@link #WHITESPACE} contains any non-ASCII characters.
+ */
+public final class CharClass {
+
+  /** Characters for which {@link Character#isWhitespace(int)} is {@code true}. */
+  public static final int WHITESPACE = 1;
+
+  /** {@code '\n'} and {@code '\r'}. */
+  public static final int LINE_TERMINATOR = 1 << 1;
+
+  /**
+   * Characters which can start an identifier or keyword: ASCII letters, {@code '$'} and {@code
+   * '_'}.
+   */
+  public static final int IDENTIFIER_START = 1 << 2;
+
+  /** Characters which can continue an identifier or keyword: identifier starts and ASCII digits. */
+  public static final int IDENTIFIER_PART = 1 << 3;
+
+  public static final int BIN_DIGIT = 1 << 4;
+  public static final int OCT_DIGIT = 1 << 5;
+  public static final int DEC_DIGIT = 1 << 6;
+
+  /** ASCII digits, and the letters {@code 'a'} to {@code 'f'} in either case. */
+  public static final int HEX_DIGIT = 1 << 7;
+
+  /** {@code '\n'}, which ends a line comment or an unclosed character or string literal. */
+  public static final int LINE_FEED = 1 << 8;
+
+  /** {@code '"'}, which ends a string literal. */
+  public static final int DOUBLE_QUOTE = 1 << 9;
+
+  /** {@code '\''}, which ends a character literal. */
+  public static final int SINGLE_QUOTE = 1 << 10;
+
+  /** {@code '*'}, which may end a block comment. */
+  public static final int ASTERISK = 1 << 11;
+
+  /** {@code '/'}, which may start a comment. */
+  public static final int SLASH = 1 << 12;
+
+  /** {@code '\\'}, which starts an escape sequence. */
+  public static final int BACKSLASH = 1 << 13;
+
+  static final int ASCII_SIZE = 128;
+
+  /** The classes of each ASCII character. */
+  static final int[] ASCII_CLASSES = new int[ASCII_SIZE];
+
+  static {
+    for (int ch = 0; ch < ASCII_SIZE; ch++) {
+      var classes = 0;
+      if (Character.isWhitespace(ch)) classes |= WHITESPACE;
+      if (ch == '\n' || ch == '\r') classes |= LINE_TERMINATOR;
+      if ((ch >= 'a' && ch <= 'z') || (ch >= 'A' && ch <= 'Z') || ch == '$' || ch == '_') {
+        classes |= IDENTIFIER_START | IDENTIFIER_PART;
+      }
+      if (ch >= '0' && ch <= '9') classes |= IDENTIFIER_PART | DEC_DIGIT | HEX_DIGIT;
+      if (ch >= '0' && ch <= '7') classes |= OCT_DIGIT;
+      if (ch >= '0' && ch <= '1') classes |= BIN_DIGIT;
+      if ((ch >= 'a' && ch <= 'f') || (ch >= 'A' && ch <= 'F')) classes |= HEX_DIGIT;
+      if (ch == '\n') classes |= LINE_FEED;
+      if (ch == '"') classes |= DOUBLE_QUOTE;
+      if (ch == '\'') classes |= SINGLE_QUOTE;
+      if (ch == '*') classes |= ASTERISK;
+      if (ch == '/') classes |= SLASH;
+      if (ch == '\\') classes |= BACKSLASH;
+      ASCII_CLASSES[ch] = classes;
+    }
+  }
+
+  /**
+   * @param ch the code point to examine, or {@link UnmodifiableTextParser#EOF}
+   * @param charClasses one or more classes, combined with {@code |}
+   * @return {@code true} if {@code ch} belongs to any of the {@code charClasses}
+   */
+  public static boolean matches(int ch, int charClasses) {
+    if (ch >= 0 && ch < ASCII_SIZE) return (ASCII_CLASSES[ch] & charClasses) != 0;
+    return ch >= ASCII_SIZE && (charClasses & WHITESPACE) != 0 && Character.isWhitespace(ch);
+  }
+
+  /**
+   * @param radix one of {@code 2}, {@code 8}, {@code 10} or {@code 16}
+   * @return the class of digits for the {@code radix}
+   * @throws IllegalArgumentException if the {@code radix} isn't supported
+   */
+  public static int digit(int radix) {
+    switch (radix) {
+      case 2:
+        return BIN_DIGIT;
+      case 8:
+        return OCT_DIGIT;
+      case 10:
+        return DEC_DIGIT;
+      case 16:
+        return HEX_DIGIT;
+      default:
+        throw new IllegalArgumentException("Unsupported radix: " + radix);
+    }
+  }
+
+  private CharClass() {
+    throw new UnsupportedOperationException();
+  }
+}
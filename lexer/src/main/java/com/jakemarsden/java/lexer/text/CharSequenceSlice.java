@@ -0,0 +1,82 @@
+package com.jakemarsden.java.lexer.text;
+
+import static java.util.Objects.checkFromToIndex;
+import static java.util.Objects.checkIndex;
+
+/**
+ * A read-only view of a range of characters of a {@link CharSequence} or a {@code char[]}. Nothing
+ * is copied until {@link #toString()} is called.
+ *
+ * <p>Equal to any other slice of the same characters, whichever text it's a view of. {@link
+ * #hashCode()} is consistent with {@link String#hashCode()} for the same characters, but a slice is
+ * never equal to a {@link String}: use {@link String#contentEquals(CharSequence)} or {@link
+ * CharSequence#compare(CharSequence, CharSequence)} to compare the two.
+ */
+final class CharSequenceSlice implements CharSequence {
+
+  /** Exactly one of {@code array} and {@code text} is non-null. */
+  private final char[] array;
+
+  private final CharSequence text;
+  private final int start;
+  private final int end;
+
+  CharSequenceSlice(char[] array, int start, int end) {
+    checkFromToIndex(start, end, array.length);
+    this.array = array;
+    this.text = null;
+    this.start = start;
+    this.end = end;
+  }
+
+  CharSequenceSlice(CharSequence text, int start, int end) {
+    checkFromToIndex(start, end, text.length());
+    this.array = null;
+    this.text = text;
+    this.start = start;
+    this.end = end;
+  }
+
+  @Override
+  public int length() {
+    return this.end - this.start;
+  }
+
+  @Override
+  public char charAt(int idx) {
+    checkIndex(idx, this.length());
+    return this.array != null ? this.array[this.start + idx] : this.text.charAt(this.start + idx);
+  }
+
+  @Override
+  public CharSequence subSequence(int start, int end) {
+    checkFromToIndex(start, end, this.length());
+    return this.array != null
+        ? new CharSequenceSlice(this.array, this.start + start, this.start + end)
+        : new CharSequenceSlice(this.text, this.start + start, this.start + end);
+  }
+
+  @Override
+  public String toString() {
+    return this.array != null
+        ? new String(this.array, this.start, this.length())
+        : this.text.subSequence(this.start, this.end).toString();
+  }
+
+  /** @return {@code true} if {@code obj} is a slice of the same characters */
+  @Override
+  public boolean equals(Object obj) {
+    if (this == obj) return true;
+    if (!(obj instanceof CharSequenceSlice || obj instanceof AsciiSlice)) return false;
+    return CharSequence.compare(this, (CharSequence) obj) == 0;
+  }
+
+  @Override
+  public int hashCode() {
+    int hash = 0;
+    for (int idx = this.start; idx < this.end; idx++) {
+      hash = 31 * hash + (this.array != null ? this.array[idx] : this.text.charAt(idx));
+    }
+    return hash;
+  }
+}
@@ -0,0 +1,363 @@
+package com.jakemarsden.java.lexer.text;
+
+import static java.lang.Math.toIntExact;
+import static java.util.Objects.checkFromIndexSize;
+import static java.util.Objects.requireNonNull;
+
+import java.nio.BufferOverflowException;
+import java.nio.CharBuffer;
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * Useful for parsing some or all of the characters of a text which is already held in memory, as
+ * either a {@link CharSequence} or a {@code char[]}. Characters are read directly from the backing
+ * text, so nothing needs to be buffered and lookahead is just index arithmetic.
+ *
+ * <p>Marked text is returned as a view of the backing text rather than a copy, so the backing text
+ * must not be modified while the marked text is still in use.
+ *
+ * <p>Surrogate pairs are combined into a single code point, in the same way as {@link
+ * CharSequence#codePoints()}. Unpaired surrogates are returned as-is.
+ */
+public final class CharSequenceTextParser extends AbstractTextParser {
+
+  /** The number of {@code char}s in each chunk of a text whose lines are found in parallel. */
+  private static final int LINE_CHUNK_SIZE = 1 << 20;
+
+  /** Exactly one of {@code array} and {@code text} is non-null. */
+  private char[] array;
+
+  private CharSequence text;
+  private int start;
+  private int end;
+
+  /** Index of the current {@code char} within the backing text. */
+  private int idx;
+
+  private int markIdx;
+
+  /**
+   * Every surrogate pair of the backing text, or {@code null} until it's first needed. Kept for
+   * reuse if the parser moves on to a different text, in which case {@code surrogatePairsBuilt} is
+   * cleared.
+   */
+  private WideCharTable surrogatePairs;
+
+  private boolean surrogatePairsBuilt;
+
+  public CharSequenceTextParser(CharSequence text) {
+    this.init(requireNonNull(text));
+  }
+
+  /**
+   * @param text the text to parse some of
+   * @param offset the index of the first {@code char} of the {@code text} to parse
+   * @param length the number of {@code char}s of the {@code text} to parse
+   */
+  public CharSequenceTextParser(CharSequence text, int offset, int length) {
+    this.init(text, offset, length);
+  }
+
+  public CharSequenceTextParser(char[] text) {
+    this(text, 0, text.length);
+  }
+
+  public CharSequenceTextParser(char[] text, int offset, int length) {
+    this.init(text, offset, length);
+  }
+
+  /**
+   * Moves on to parsing a different text, from its start, as if this were a new parser. Text and
+   * positions previously returned by this parser are unaffected, as long as the previous text isn't
+   * modified.
+   *
+   * @param text the new text to parse
+   */
+  public void setText(CharSequence text) {
+    this.init(requireNonNull(text));
+    this.restart();
+  }
+
+  /**
+   * Moves on to parsing a different text, from its start, as if this were a new parser, as for
+   * {@link #setText(CharSequence)}.
+   *
+   * @param text the new text to parse
+   * @param offset the index of the first {@code char} of the {@code text} to parse
+   * @param length the number of {@code char}s of the {@code text} to parse
+   */
+  public void setText(char[] text, int offset, int length) {
+    this.init(text, offset, length);
+    this.restart();
+  }
+
+  /**
+   * Positioned at the end of the {@code text}, with every line start and surrogate pair already
+   * known.
+   */
+  private CharSequenceTextParser(
+      CharSequence text, LineStartTable lines, WideCharTable surrogatePairs, long charCount) {
+    super(lines);
+    this.init(text);
+    this.idx = this.end;
+    this.surrogatePairs = surrogatePairs;
+    this.surrogatePairsBuilt = true;
+    this.jumpTo(charCount);
+  }
+
+  /**
+   * Returns a parser which has already consumed every character of the {@code text}, for resolving
+   * the text and positions of characters which were found in some other way, e.g. by lexing chunks
+   * of the text in parallel. The start of every line and every surrogate pair are found up front,
+   * in parallel if the text is large, rather than by reading every character in order. Nothing is
+   * then worked out lazily, so the parser can be used to resolve text and positions by multiple
+   * threads at once.
+   *
+   * @param text the text to parse
+   * @return a parser positioned at the end of the {@code text}
+   */
+  public static CharSequenceTextParser consumed(CharSequence text) {
+    var chunkCount = text.length() / LINE_CHUNK_SIZE + 1;
+    var chunks =
+        IntStream.range(0, chunkCount)
+            .parallel()
+            .mapToObj(
+                chunk -> LineChunk.scan(text, chunkStart(text, chunk), chunkStart(text, chunk + 1)))
+            .toArray(LineChunk[]::new);
+
+    var lines = new LineStartTable();
+    var surrogatePairs = new WideCharTable();
+    var charCount = 0L;
+    for (var chunk : chunks) {
+      for (int idx = 0; idx < chunk.count; idx++) lines.add(charCount + chunk.lineStarts[idx]);
+      for (int idx = 0; idx < chunk.pairCount; idx++) {
+        surrogatePairs.add(toIntExact(charCount + chunk.pairStarts[idx]), 1);
+      }
+      charCount += chunk.charCount;
+    }
+    return new CharSequenceTextParser(text, lines, surrogatePairs, charCount);
+  }
+
+  /** @return where the chunk starts, adjusted so that no surrogate pair is split */
+  private static int chunkStart(CharSequence text, int chunk) {
+    var idx = (int) Math.min((long) chunk * LINE_CHUNK_SIZE, text.length());
+    var splitsPair =
+        idx > 0
+            && idx < text.length()
+            && Character.isHighSurrogate(text.charAt(idx - 1))
+            && Character.isLowSurrogate(text.charAt(idx));
+    return splitsPair ? idx + 1 : idx;
+  }
+
+  private void init(CharSequence text) {
+    this.init(text, 0, text.length());
+  }
+
+  private void init(CharSequence text, int offset, int length) {
+    checkFromIndexSize(offset, length, text.length());
+    this.array = null;
+    this.text = text;
+    this.start = offset;
+    this.idx = offset;
+    this.end = offset + length;
+    this.surrogatePairsBuilt = false;
+  }
+
+  private void init(char[] text, int offset, int length) {
+    checkFromIndexSize(offset, length, text.length);
+    this.array = text;
+    this.text = null;
+    this.start = offset;
+    this.idx = offset;
+    this.end = offset + length;
+    this.surrogatePairsBuilt = false;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public boolean hasRemaining(int count) {
+    if (count < 0) throw new IllegalArgumentException("Invalid count: " + count);
+    return count == 0 || this.indexOf(count - 1) < this.end;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public int peek(int offset) {
+    if (offset < 0) throw new IllegalArgumentException("Invalid offset: " + offset);
+    var charIdx = this.indexOf(offset);
+    return charIdx < this.end ? this.codePointAt(charIdx) : EOF;
+  }
+
+  @Override
+  int read() {
+    if (this.idx >= this.end) return EOF;
+    var ch = this.codePointAt(this.idx);
+    this.idx += Character.charCount(ch);
+    return ch;
+  }
+
+  @Override
+  void markIndex() {
+    this.markIdx = this.idx;
+  }
+
+  @Override
+  void resetIndex() {
+    this.idx = this.markIdx;
+  }
+
+  @Override
+  int skipAscii(int mask, int expected) {
+    var idx = this.idx;
+    if (this.array != null) {
+      var array = this.array;
+      while (idx < this.end) {
+        var ch = array[idx];
+        if (ch >= CharClass.ASCII_SIZE || (CharClass.ASCII_CLASSES[ch] & mask) != expected) break;
+        idx++;
+      }
+    } else {
+      var text = this.text;
+      while (idx < this.end) {
+        var ch = text.charAt(idx);
+        if (ch >= CharClass.ASCII_SIZE || (CharClass.ASCII_CLASSES[ch] & mask) != expected) break;
+        idx++;
+      }
+    }
+    var count = idx - this.idx;
+    this.idx = idx;
+    return count;
+  }
+
+  @Override
+  CharSequence markedText() {
+    return this.array != null
+        ? new CharSequenceSlice(this.array, this.markIdx, this.idx)
+        : new CharSequenceSlice(this.text, this.markIdx, this.idx);
+  }
+
+  @Override
+  void markedText(CharBuffer out) {
+    if (out.remaining() < this.idx - this.markIdx) throw new BufferOverflowException();
+    if (this.array != null) {
+      out.put(this.array, this.markIdx, this.idx - this.markIdx);
+    } else {
+      for (int idx = this.markIdx; idx < this.idx; idx++) out.put(this.text.charAt(idx));
+    }
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public boolean isTextHeld() {
+    return true;
+  }
+
+  /** The backing text is scanned for surrogate pairs the first time this is called. */
+  @Override
+  CharSequence text(long fromCharIdx, long toCharIdx) {
+    var from = this.indexOfChar((int) fromCharIdx);
+    var to = this.indexOfChar((int) toCharIdx);
+    return this.array != null
+        ? new CharSequenceSlice(this.array, from, to)
+        : new CharSequenceSlice(this.text, from, to);
+  }
+
+  /** @return the index within the backing text of the character at {@code charIdx} */
+  private int indexOfChar(int charIdx) {
+    if (!this.surrogatePairsBuilt) {
+      if (this.surrogatePairs == null) this.surrogatePairs = new WideCharTable();
+      var surrogatePairs = this.surrogatePairs;
+      surrogatePairs.clear();
+      var pairCharIdx = 0;
+      for (int idx = this.start; idx < this.end; pairCharIdx++) {
+        if (this.isSurrogatePair(idx)) {
+          surrogatePairs.add(pairCharIdx, 1);
+          idx += 2;
+        } else {
+          idx++;
+        }
+      }
+      this.surrogatePairsBuilt = true;
+    }
+    return this.start + charIdx + this.surrogatePairs.extraUnitsBefore(charIdx);
+  }
+
+  /**
+   * @return the index within the backing text of the code point which is {@code offset} code points
+   *     ahead of the current character, or the {@link #end} if the end of the text is reached first
+   */
+  private int indexOf(int offset) {
+    var charIdx = this.idx;
+    while (offset > 0 && charIdx < this.end) {
+      charIdx += this.isSurrogatePair(charIdx) ? 2 : 1;
+      offset--;
+    }
+    return charIdx;
+  }
+
+  private int codePointAt(int charIdx) {
+    var ch = this.charAt(charIdx);
+    if (Character.isHighSurrogate(ch) && charIdx + 1 < this.end) {
+      var low = this.charAt(charIdx + 1);
+      if (Character.isLowSurrogate(low)) return Character.toCodePoint(ch, low);
+    }
+    return ch;
+  }
+
+  private boolean isSurrogatePair(int charIdx) {
+    return Character.isHighSurrogate(this.charAt(charIdx))
+        && charIdx + 1 < this.end
+        && Character.isLowSurrogate(this.charAt(charIdx + 1));
+  }
+
+  private char charAt(int charIdx) {
+    return this.array != null ? this.array[charIdx] : this.text.charAt(charIdx);
+  }
+
+  /**
+   * The line starts and surrogate pairs within one chunk of a text, as code point offsets from the
+   * chunk's start.
+   */
+  private static final class LineChunk {
+
+    private int[] lineStarts = new int[16];
+    private int count;
+    private int[] pairStarts = new int[16];
+    private int pairCount;
+    private int charCount;
+
+    static LineChunk scan(CharSequence text, int from, int to) {
+      var chunk = new LineChunk();
+      var charIdx = 0;
+      for (int idx = from; idx < to; idx++, charIdx++) {
+        var ch = text.charAt(idx);
+        if (ch == '\n'
+            || (ch == '\r' && (idx + 1 == text.length() || text.charAt(idx + 1) != '\n'))) {
+          chunk.add(charIdx + 1);
+        } else if (Character.isHighSurrogate(ch)
+            && idx + 1 < to
+            && Character.isLowSurrogate(text.charAt(idx + 1))) {
+          chunk.addPair(charIdx);
+          idx++;
+        }
+      }
+      chunk.charCount = charIdx;
+      return chunk;
+    }
+
+    private void add(int lineStart) {
+      if (this.count == this.lineStarts.length) {
+        this.lineStarts = Arrays.copyOf(this.lineStarts, this.count << 1);
+      }
+      this.lineStarts[this.count++] = lineStart;
+    }
+
+    private void addPair(int pairStart) {
+      if (this.pairCount == this.pairStarts.length) {
+        this.pairStarts = Arrays.copyOf(this.pairStarts, this.pairCount << 1);
+      }
+      this.pairStarts[this.pairCount++] = pairStart;
+    }
+  }
+}
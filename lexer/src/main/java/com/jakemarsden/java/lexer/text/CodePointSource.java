@@ -0,0 +1,35 @@
+package com.jakemarsden.java.lexer.text;
+
+import java.util.PrimitiveIterator;
+
+/** Where a {@link TextParser} retrieves its code points from, potentially many at a time. */
+interface CodePointSource {
+
+  /**
+   * Returns a source which retrieves one code point at a time from the {@code codePoints}.
+   *
+   * @param codePoints where to retrieve the code points from
+   * @return a source which retrieves code points from {@code codePoints}
+   */
+  static CodePointSource of(PrimitiveIterator.OfInt codePoints) {
+    return (buf, off, len) -> {
+      if (!codePoints.hasNext()) return -1;
+      buf[off] = codePoints.nextInt();
+      return 1;
+    };
+  }
+
+  /**
+   * Retrieves between {@code 1} and {@code len} code points and writes them into {@code buf},
+   * starting at index {@code off}. Blocks until at least one code point is available, but doesn't
+   * block again once any have been retrieved.
+   *
+   * @param buf where to write the code points
+   * @param off the index of {@code buf} to start writing at
+   * @param len the maximum number of code points to retrieve, which is always at least {@code 1}
+   * @return the number of code points retrieved, or {@code -1} if the end of the text was reached
+   *     before any could be retrieved
+   * @throws java.io.UncheckedIOException if the code points can't be retrieved
+   */
+  int read(int[] buf, int off, int len);
+}
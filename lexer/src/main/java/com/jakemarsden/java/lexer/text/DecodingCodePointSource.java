@@ -0,0 +1,95 @@
+package com.jakemarsden.java.lexer.text;
+
+import static java.nio.charset.StandardCharsets.UTF_16BE;
+import static java.nio.charset.StandardCharsets.UTF_16LE;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Objects.requireNonNull;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+
+/**
+ * A source of code points which reads blocks of bytes from an {@link InputStream} and decodes them
+ * in bulk.
+ *
+ * <p>The charset is detected from the byte order mark at the start of the stream, if there is one,
+ * otherwise the default charset is used. Malformed and unmappable input is replaced with the
+ * decoder's replacement character.
+ */
+final class DecodingCodePointSource extends CharBufferCodePointSource {
+
+  private final InputStream in;
+  private final Charset defaultCharset;
+
+  /** Bytes which have been read but not yet decoded. Always in "read" mode. */
+  private final ByteBuffer bytes = ByteBuffer.allocate(BLOCK_SIZE).flip();
+
+  private CharsetDecoder decoder;
+  private boolean eof;
+  private boolean flushed;
+
+  DecodingCodePointSource(InputStream in, Charset defaultCharset) {
+    this.in = requireNonNull(in);
+    this.defaultCharset = requireNonNull(defaultCharset);
+  }
+
+  @Override
+  boolean fill(CharBuffer chars) throws IOException {
+    if (this.decoder == null) {
+      this.decoder =
+          this.detectCharset()
+              .newDecoder()
+              .onMalformedInput(CodingErrorAction.REPLACE)
+              .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    }
+
+    var startPos = chars.position();
+    while (true) {
+      // decode whatever has already been read before blocking to read any more
+      if (!this.flushed) {
+        var result = this.decoder.decode(this.bytes, chars, this.eof);
+        if (this.eof && result.isUnderflow()) {
+          this.flushed = this.decoder.flush(chars).isUnderflow();
+        }
+      }
+      if (chars.position() != startPos) return true;
+      if (this.eof) return false;
+      this.readBytes();
+    }
+  }
+
+  private Charset detectCharset() throws IOException {
+    while (this.bytes.remaining() < 3 && !this.eof) this.readBytes();
+
+    var b0 = this.bytes.remaining() >= 2 ? this.bytes.get(0) & 0xFF : -1;
+    var b1 = this.bytes.remaining() >= 2 ? this.bytes.get(1) & 0xFF : -1;
+    var b2 = this.bytes.remaining() >= 3 ? this.bytes.get(2) & 0xFF : -1;
+
+    // the byte order mark itself is decoded as U+FEFF, which is skipped by the superclass
+    if (b0 == 0xEF && b1 == 0xBB && b2 == 0xBF) return UTF_8;
+    if (b0 == 0xFE && b1 == 0xFF) return UTF_16BE;
+    if (b0 == 0xFF && b1 == 0xFE) return UTF_16LE;
+    return this.defaultCharset;
+  }
+
+  private void readBytes() throws IOException {
+    this.bytes.compact();
+    try {
+      var pos = this.bytes.position();
+      var count =
+          this.in.read(this.bytes.array(), this.bytes.arrayOffset() + pos, this.bytes.remaining());
+      if (count < 0) {
+        this.eof = true;
+      } else {
+        this.bytes.position(pos + count);
+      }
+    } finally {
+      this.bytes.flip();
+    }
+  }
+}
@@ -0,0 +1,79 @@
+package com.jakemarsden.java.lexer.text;
+
+import java.util.Arrays;
+
+/**
+ * The character index at which each line of a text starts, in ascending order. Used to resolve the
+ * line and column of a character index only when they're actually needed.
+ *
+ * <p>Line starts are stored as {@code int}s until one is added which doesn't fit, at which point
+ * the whole table is widened to {@code long}s. Texts smaller than 2 GiB never pay for the wider
+ * representation.
+ */
+final class LineStartTable {
+
+  private static final int INITIAL_CAPACITY = 64;
+
+  /**
+   * Exactly one of {@code starts} and {@code wideStarts} is non-null. The first line always starts
+   * at character index {@code 0}.
+   */
+  private int[] starts = new int[INITIAL_CAPACITY];
+
+  private long[] wideStarts;
+  private int count = 1;
+
+  /**
+   * Records that a new line starts at {@code charIdx}, which must be greater than the start of
+   * every line recorded so far.
+   */
+  void add(long charIdx) {
+    if (this.wideStarts == null && charIdx > Integer.MAX_VALUE) this.widen();
+    if (this.wideStarts == null) {
+      if (this.count == this.starts.length) {
+        this.starts = Arrays.copyOf(this.starts, this.count << 1);
+      }
+      this.starts[this.count++] = (int) charIdx;
+    } else {
+      if (this.count == this.wideStarts.length) {
+        this.wideStarts = Arrays.copyOf(this.wideStarts, this.count << 1);
+      }
+      this.wideStarts[this.count++] = charIdx;
+    }
+  }
+
+  /** Forgets about every line but the first, keeping the storage for reuse. */
+  void clear() {
+    this.count = 1;
+  }
+
+  /** Forgets about every line which starts after {@code charIdx}. */
+  void truncate(long charIdx) {
+    while (this.count > 1 && this.startOf(this.count - 1) > charIdx) this.count--;
+  }
+
+  /** @return zero-based index of the line which contains the character at {@code charIdx} */
+  int lineOf(long charIdx) {
+    int idx;
+    if (this.wideStarts != null) {
+      idx = Arrays.binarySearch(this.wideStarts, 0, this.count, charIdx);
+    } else if (charIdx > Integer.MAX_VALUE) {
+      return this.count - 1;
+    } else {
+      idx = Arrays.binarySearch(this.starts, 0, this.count, (int) charIdx);
+    }
+    return idx >= 0 ? idx : -idx - 2;
+  }
+
+  /** @return the character index at which the line at {@code lineIdx} starts */
+  long startOf(int lineIdx) {
+    return this.wideStarts != null ? this.wideStarts[lineIdx] : this.starts[lineIdx];
+  }
+
+  private void widen() {
+    var wideStarts = new long[this.starts.length];
+    for (int idx = 0; idx < this.count; idx++) wideStarts[idx] = this.starts[idx];
+    this.wideStarts = wideStarts;
+    this.starts = null;
+  }
+}
@@ -0,0 +1,202 @@
+package com.jakemarsden.java.lexer.text;
+
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+import static java.util.Objects.requireNonNull;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Useful for parsing some or all of the characters of a UTF-8 encoded file, without first reading
+ * the file onto the heap. The file is memory-mapped and decoded in place.
+ *
+ * <p>Files which are larger than a single mapping are handled by sliding a window along the file:
+ * whenever the characters being parsed run past the end of the current window, a new window is
+ * mapped starting at the current character. Positions, lookahead and {@link #mark() marks} all work
+ * across window boundaries.
+ *
+ * <p>A leading byte order mark is skipped. Malformed byte sequences are each decoded as a single
+ * {@code U+FFFD} replacement character, and are split up in exactly the same way as by the {@link
+ * java.nio.charset.StandardCharsets#UTF_8} decoder, so a file gives the same tokens as if it had
+ * been decoded first.
+ */
+public final class MappedFileTextParser extends AbstractTextParser {
+
+  /** The default maximum number of bytes in a single mapping. */
+  static final int DEFAULT_WINDOW_SIZE = 64 << 20;
+
+  private final Path path;
+  private final long size;
+  private final int windowSize;
+
+  private MappedByteBuffer window;
+  private long windowStart;
+  private long windowEnd;
+
+  /** Offset of the current character from the start of the file, in bytes. */
+  private long pos;
+
+  private long markPos;
+
+  /**
+   * Offset of the most recently read multi-byte (or malformed) sequence, or {@code -1} if there
+   * hasn't been one. If it's before the {@link #markPos} then the marked text is pure ASCII.
+   */
+  private long lastNonAsciiPos = -1;
+
+  /**
+   * @param path the UTF-8 encoded file to parse
+   * @throws IOException if the file can't be opened or mapped
+   */
+  public MappedFileTextParser(Path path) throws IOException {
+    this(path, DEFAULT_WINDOW_SIZE);
+  }
+
+  MappedFileTextParser(Path path, int windowSize) throws IOException {
+    if (windowSize <= 0) throw new IllegalArgumentException("Invalid window size: " + windowSize);
+    this.path = requireNonNull(path);
+    this.windowSize = windowSize;
+    try (var channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      this.size = channel.size();
+      this.map(channel, 0, min(this.size, windowSize));
+    }
+    if (Utf8.isByteOrderMark(this.window, 0)) this.pos = 3;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public boolean hasRemaining(int count) {
+    if (count < 0) throw new IllegalArgumentException("Invalid count: " + count);
+    return count == 0 || this.indexOf(count - 1) < this.size;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public int peek(int offset) {
+    if (offset < 0) throw new IllegalArgumentException("Invalid offset: " + offset);
+    var bytePos = this.indexOf(offset);
+    if (bytePos >= this.size) return EOF;
+
+    var windowIdx = (int) (bytePos - this.windowStart);
+    var b = this.window.get(windowIdx);
+    if (b >= 0) return b;
+    return Utf8.decode(this.window, windowIdx, Utf8.sequenceLength(this.window, windowIdx));
+  }
+
+  @Override
+  int read() {
+    if (this.pos >= this.size) return EOF;
+    this.ensureMapped(this.pos, this.pos + Utf8.MAX_BYTES_PER_CHAR);
+
+    var windowIdx = (int) (this.pos - this.windowStart);
+    var b = this.window.get(windowIdx);
+    if (b >= 0) {
+      this.pos++;
+      return b;
+    }
+    var len = Utf8.sequenceLength(this.window, windowIdx);
+    var ch = Utf8.decode(this.window, windowIdx, len);
+    this.lastNonAsciiPos = this.pos;
+    this.pos += len;
+    return ch;
+  }
+
+  @Override
+  void markIndex() {
+    this.markPos = this.pos;
+  }
+
+  @Override
+  void resetIndex() {
+    this.pos = this.markPos;
+  }
+
+  /** Only skips as far as the end of the current window. */
+  @Override
+  int skipAscii(int mask, int expected) {
+    if (this.pos < this.windowStart) return 0;
+    var startIdx = (int) (this.pos - this.windowStart);
+    var windowEnd = (int) (this.windowEnd - this.windowStart);
+    var idx = AsciiScanner.skip(this.window, startIdx, windowEnd, mask, expected);
+    this.pos += idx - startIdx;
+    return idx - startIdx;
+  }
+
+  /**
+   * Pure ASCII text is a view of the mapped bytes, which keeps the mapping alive for as long as the
+   * text is in use. Text which contains multi-byte sequences has to be decoded.
+   */
+  @Override
+  CharSequence markedText() {
+    this.ensureMapped(this.markPos, this.pos);
+    var from = (int) (this.markPos - this.windowStart);
+    var to = (int) (this.pos - this.windowStart);
+    if (this.lastNonAsciiPos < this.markPos) return new AsciiSlice(this.window, from, to);
+    return Utf8.decodeRange(this.window, from, to);
+  }
+
+  @Override
+  void markedText(CharBuffer out) {
+    this.ensureMapped(this.markPos, this.pos);
+    var from = (int) (this.markPos - this.windowStart);
+    var to = (int) (this.pos - this.windowStart);
+    Utf8.decodeRange(this.window, from, to, out);
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public boolean isTextHeld() {
+    return false;
+  }
+
+  /** Only a window of the file is mapped at a time, so this isn't supported. */
+  @Override
+  CharSequence text(long fromCharIdx, long toCharIdx) {
+    throw new UnsupportedOperationException("Text is mapped a window at a time");
+  }
+
+  /**
+   * Ensures that the bytes required to decode the code point which is {@code offset} code points
+   * ahead of the current character are mapped.
+   *
+   * @return the offset of that code point from the start of the file, in bytes, or the {@link
+   *     #size} of the file if the end of the file is reached first
+   */
+  private long indexOf(int offset) {
+    this.ensureMapped(this.pos, this.pos + (long) Utf8.MAX_BYTES_PER_CHAR * (offset + 1));
+    var windowIdx = (int) (this.pos - this.windowStart);
+    var windowEnd = (int) (this.windowEnd - this.windowStart);
+    while (offset > 0 && windowIdx < windowEnd) {
+      var b = this.window.get(windowIdx);
+      windowIdx += b >= 0 ? 1 : Utf8.sequenceLength(this.window, windowIdx);
+      offset--;
+    }
+    return this.windowStart + windowIdx;
+  }
+
+  /**
+   * Slides the window along the file if any of the bytes in the range {@code [from, to)} aren't
+   * currently mapped. Bytes past the end of the file are ignored.
+   */
+  private void ensureMapped(long from, long to) {
+    to = min(to, this.size);
+    if (from >= this.windowStart && to <= this.windowEnd) return;
+    try (var channel = FileChannel.open(this.path, StandardOpenOption.READ)) {
+      this.map(channel, from, min(this.size - from, max(this.windowSize, to - from)));
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private void map(FileChannel channel, long start, long length) throws IOException {
+    this.window = channel.map(FileChannel.MapMode.READ_ONLY, start, length);
+    this.windowStart = start;
+    this.windowEnd = start + length;
+  }
+}
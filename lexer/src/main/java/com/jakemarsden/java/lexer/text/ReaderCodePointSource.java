@@ -0,0 +1,27 @@
+package com.jakemarsden.java.lexer.text;
+
+import static java.util.Objects.requireNonNull;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.CharBuffer;
+
+/** A source of code points which reads blocks of characters from a {@link Reader}. */
+final class ReaderCodePointSource extends CharBufferCodePointSource {
+
+  private final Reader reader;
+
+  ReaderCodePointSource(Reader reader) {
+    this.reader = requireNonNull(reader);
+  }
+
+  @Override
+  boolean fill(CharBuffer chars) throws IOException {
+    // read directly into the backing array, as Reader.read(CharBuffer) allocates a temporary array
+    var pos = chars.position();
+    var count = this.reader.read(chars.array(), chars.arrayOffset() + pos, chars.remaining());
+    if (count < 0) return false;
+    chars.position(pos + count);
+    return true;
+  }
+}
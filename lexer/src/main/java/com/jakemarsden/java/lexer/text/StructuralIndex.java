@@ -0,0 +1,183 @@
+package com.jakemarsden.java.lexer.text;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+/**
+ * A bitmap of the structurally interesting bytes of some UTF-8 encoded text, built in a single pass
+ * before lexing starts: line terminators, quotes, comment delimiters, backslashes and every byte of
+ * every non-ASCII sequence. Scans which are only looking for some of those bytes can jump straight
+ * from one to the next, rather than examining all of the bytes in between.
+ *
+ * <p>The pass reads the text a word at a time, finding the interesting bytes in each word with
+ * bitwise arithmetic (SWAR), and works out where every line starts as it goes.
+ */
+final class StructuralIndex {
+
+  /** The classes of every structural ASCII byte. */
+  static final int INDEXED_CLASSES =
+      CharClass.LINE_FEED
+          | CharClass.LINE_TERMINATOR
+          | CharClass.DOUBLE_QUOTE
+          | CharClass.SINGLE_QUOTE
+          | CharClass.ASTERISK
+          | CharClass.SLASH
+          | CharClass.BACKSLASH;
+
+  private static final long ONES = 0x0101010101010101L;
+  private static final long LOW_BITS = 0x7F7F7F7F7F7F7F7FL;
+  private static final long HIGH_BITS = 0x8080808080808080L;
+
+  private static final long LINE_FEEDS = '\n' * ONES;
+  private static final long CARRIAGE_RETURNS = '\r' * ONES;
+  private static final long DOUBLE_QUOTES = '"' * ONES;
+  private static final long SINGLE_QUOTES = '\'' * ONES;
+  private static final long ASTERISKS = '*' * ONES;
+  private static final long SLASHES = '/' * ONES;
+  private static final long BACKSLASHES = '\\' * ONES;
+
+  private int start;
+  private int end;
+
+  /**
+   * Bit {@code n} is set if the byte at {@code start + n} is structural. Only the first {@code
+   * wordCount} words are in use, as the array is reused for smaller texts.
+   */
+  private long[] structural;
+
+  private int wordCount;
+
+  private LineStartTable lines = new LineStartTable();
+  private final WideCharTable wideChars = new WideCharTable();
+
+  /**
+   * Indexes the bytes in the range {@code [start, end)} of the {@code text}. Line starts and
+   * multi-byte sequences are recorded as code point offsets from {@code start}, decoding exactly as
+   * {@link Utf8} does.
+   */
+  StructuralIndex(ByteBuffer text, int start, int end) {
+    this.rebuild(text, start, end);
+  }
+
+  /**
+   * Replaces the index with one of the bytes in the range {@code [start, end)} of the {@code text},
+   * reusing the existing storage wherever it's big enough. The same {@link #lines()} and {@link
+   * #wideChars()} are kept, and updated in place, unless the lines have been {@link #detachLines()
+   * detached}.
+   */
+  void rebuild(ByteBuffer text, int start, int end) {
+    this.start = start;
+    this.end = end;
+    var wordCount = ((end - start) >>> 6) + 1;
+    if (this.structural == null || this.structural.length < wordCount) {
+      this.structural = new long[wordCount];
+    } else {
+      Arrays.fill(this.structural, 0, wordCount, 0);
+    }
+    this.wordCount = wordCount;
+    this.lines.clear();
+    this.wideChars.clear();
+
+    var words =
+        text.order() == ByteOrder.LITTLE_ENDIAN
+            ? text
+            : text.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+    var idx = start;
+    for (; idx + Long.BYTES <= end; idx += Long.BYTES) {
+      var word = words.getLong(idx);
+      var matches = (word & HIGH_BITS) | structuralBytes(word);
+      while (matches != 0) {
+        this.mark(idx + (Long.numberOfTrailingZeros(matches) >>> 3));
+        matches &= matches - 1;
+      }
+    }
+    for (; idx < end; idx++) {
+      var b = text.get(idx);
+      if (b < 0 || (CharClass.ASCII_CLASSES[b] & INDEXED_CLASSES) != 0) this.mark(idx);
+    }
+    this.indexCharacters(text);
+  }
+
+  /**
+   * Stops updating the current {@link #lines()}, so that they're left as they are for anything
+   * still using them, and uses a new table from the next rebuild onwards.
+   */
+  void detachLines() {
+    this.lines = new LineStartTable();
+  }
+
+  /** @return the line starts of the whole text, which is never truncated */
+  LineStartTable lines() {
+    return this.lines;
+  }
+
+  /** @return every multi-byte sequence of the whole text */
+  WideCharTable wideChars() {
+    return this.wideChars;
+  }
+
+  /**
+   * @return the index of the first structural byte at or after {@code idx}, or the end of the
+   *     indexed range if there isn't one
+   */
+  int nextStructural(int idx) {
+    if (idx >= this.end) return this.end;
+    var offset = idx - this.start;
+    var wordIdx = offset >>> 6;
+    var bits = this.structural[wordIdx] & (-1L << offset);
+    while (bits == 0) {
+      if (++wordIdx == this.wordCount) return this.end;
+      bits = this.structural[wordIdx];
+    }
+    return Math.min(this.start + (wordIdx << 6) + Long.numberOfTrailingZeros(bits), this.end);
+  }
+
+  private void mark(int idx) {
+    var offset = idx - this.start;
+    this.structural[offset >>> 6] |= 1L << offset;
+  }
+
+  /**
+   * Visits only the structural bytes, which include every line terminator and every byte of every
+   * multi-byte sequence.
+   */
+  private void indexCharacters(ByteBuffer text) {
+    // the number of bytes so far which didn't start a code point
+    var excessBytes = 0;
+    var idx = this.nextStructural(this.start);
+    while (idx < this.end) {
+      var b = text.get(idx);
+      if (b < 0) {
+        var len = Utf8.sequenceLength(text, idx);
+        this.wideChars.add(idx - this.start - excessBytes, len - 1);
+        excessBytes += len - 1;
+        idx = this.nextStructural(idx + len);
+        continue;
+      }
+      if (b == '\n' || (b == '\r' && (idx + 1 == this.end || text.get(idx + 1) != '\n'))) {
+        this.lines.add(idx + 1 - this.start - excessBytes);
+      }
+      idx = this.nextStructural(idx + 1);
+    }
+  }
+
+  /** @return a word with the high bit of each byte set if that byte is a structural ASCII byte */
+  private static long structuralBytes(long word) {
+    return zeroBytes(word ^ LINE_FEEDS)
+        | zeroBytes(word ^ CARRIAGE_RETURNS)
+        | zeroBytes(word ^ DOUBLE_QUOTES)
+        | zeroBytes(word ^ SINGLE_QUOTES)
+        | zeroBytes(word ^ ASTERISKS)
+        | zeroBytes(word ^ SLASHES)
+        | zeroBytes(word ^ BACKSLASHES);
+  }
+
+  /**
+   * @return a word with the high bit of each byte set if that byte is zero. Exact, as no byte can
+   *     carry into the next
+   */
+  private static long zeroBytes(long word) {
+    return ~(((word & LOW_BITS) + LOW_BITS) | word | LOW_BITS);
+  }
+}
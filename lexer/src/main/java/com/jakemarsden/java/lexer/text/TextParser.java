@@ -1,34 +1,87 @@
 package com.jakemarsden.java.lexer.text;
 
-import static java.lang.String.format;
+import static java.lang.Math.min;
 import static java.util.Objects.requireNonNull;
 
-import java.util.LinkedList;
+import java.io.InputStream;
+import java.io.Reader;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
 import java.util.PrimitiveIterator;
-import java.util.function.Predicate;
 
 /**
  * Useful for parsing some or all of the characters retrieved from a {@link
- * PrimitiveIterator.OfInt}.
+ * PrimitiveIterator.OfInt}, a {@link Reader} or an {@link InputStream}. Characters are retrieved
+ * lazily, as they're needed, so the text can be streamed.
+ *
+ * <p>Prefer a {@link CharSequenceTextParser} if all of the text is already in memory.
  */
-public final class TextParser implements UnmodifiableTextParser {
+public final class TextParser extends AbstractTextParser {
 
-  private final PrimitiveIterator.OfInt text;
-  private TextPosition position = TextPosition.start();
-  private LinkedList<Integer> buffer = new LinkedList<>();
+  private static final int INITIAL_BUFFER_CAPACITY = 16;
+  private static final int INITIAL_BLOCK_BUFFER_CAPACITY = 1024;
+
+  private final CodePointSource text;
+
+  /**
+   * Ring buffer of code points which have been retrieved from the {@link #text} but not yet
+   * discarded. Always has a power-of-two length so that indices can be wrapped with {@link
+   * #bufferMask}.
+   */
+  private int[] buffer;
+
+  private int bufferMask;
+
+  /**
+   * Running indices into the {@link #buffer}, which are wrapped with the {@link #bufferMask} only
+   * when accessing an element. Characters in the range {@code [bufferStart, bufferEnd)} are
+   * buffered, the current character is at {@code bufferPos}, and {@code bufferStart} is the marked
+   * character if there is a mark (or the current character if there isn't). They're allowed to
+   * overflow, as only the differences between them are meaningful.
+   */
+  private int bufferStart;
+
+  private int bufferPos;
+  private int bufferEnd;
+  private boolean marked;
 
   public TextParser(CharSequence text) {
     this(text.codePoints().iterator());
   }
 
   public TextParser(PrimitiveIterator.OfInt text) {
-    this.text = requireNonNull(text);
+    this(CodePointSource.of(requireNonNull(text)), INITIAL_BUFFER_CAPACITY);
   }
 
-  /** {@inheritDoc} */
-  @Override
-  public TextPosition getPosition() {
-    return this.position;
+  /**
+   * Characters are read from the {@code text} in blocks. A leading byte order mark is skipped.
+   * Errors which occur while reading are rethrown as {@link java.io.UncheckedIOException}s.
+   *
+   * @param text where to read the characters from, which is not closed by this parser
+   */
+  public TextParser(Reader text) {
+    this(new ReaderCodePointSource(text), INITIAL_BLOCK_BUFFER_CAPACITY);
+  }
+
+  /**
+   * Bytes are read from the {@code text} and decoded in blocks. If the {@code text} starts with a
+   * UTF-8, UTF-16BE or UTF-16LE byte order mark it's decoded with that charset instead of the
+   * {@code defaultCharset}, and the byte order mark is skipped. Malformed input is replaced with
+   * {@code U+FFFD}. Errors which occur while reading are rethrown as {@link
+   * java.io.UncheckedIOException}s.
+   *
+   * @param text where to read the bytes from, which is not closed by this parser
+   * @param defaultCharset how to decode the bytes if the {@code text} doesn't start with a byte
+   *     order mark
+   */
+  public TextParser(InputStream text, Charset defaultCharset) {
+    this(new DecodingCodePointSource(text, defaultCharset), INITIAL_BLOCK_BUFFER_CAPACITY);
+  }
+
+  private TextParser(CodePointSource text, int initialBufferCapacity) {
+    this.text = text;
+    this.buffer = new int[initialBufferCapacity];
+    this.bufferMask = initialBufferCapacity - 1;
   }
 
   /** {@inheritDoc} */
@@ -43,200 +96,106 @@ public final class TextParser implements UnmodifiableTextParser {
   public int peek(int offset) {
     if (offset < 0) throw new IllegalArgumentException("Invalid offset: " + offset);
     var exists = this.tryPopulateBuffer(offset + 1);
-    return exists ? this.buffer.get(offset) : EOF;
+    return exists ? this.buffer[(this.bufferPos + offset) & this.bufferMask] : EOF;
   }
 
-  /**
-   * Advances the position by {@code count} characters.
-   *
-   * @param count the number of characters to advance the position by
-   */
-  public void skip(int count) {
-    if (count < 0) throw new IllegalArgumentException("Invalid count: " + count);
-    while (count > 0 && !this.buffer.isEmpty()) {
-      var ch = this.buffer.removeFirst();
-      this.advancePosition(ch);
-      count--;
-    }
-    while (count > 0 && this.text.hasNext()) {
-      var ch = this.text.nextInt();
-      this.advancePosition(ch);
-      count--;
-    }
+  @Override
+  int read() {
+    if (!this.tryPopulateBuffer(1)) return EOF;
+    var ch = this.buffer[this.bufferPos & this.bufferMask];
+    this.bufferPos++;
+    if (!this.marked) this.bufferStart = this.bufferPos;
+    return ch;
   }
 
-  /**
-   * Returns the current character, and then advances the position to the next character. If the end
-   * of the text is reached before the current character {@link #EOF} is returned instead.
-   *
-   * <p>Functionally equivalent to:
-   *
-   * <pre><code>
-   * var ch = this.{@link #peek(int) peek(0)};
-   * this.{@link #skip(int) skip(1)};
-   * return ch;
-   * </code></pre>
-   *
-   * @return the current character before advancing the position, or {@link #EOF} if the end of the
-   *     text is reached first
-   */
-  public int consume() {
-    if (!this.buffer.isEmpty()) {
-      var ch = this.buffer.removeFirst();
-      this.advancePosition(ch);
-      return ch;
-    }
-    if (this.text.hasNext()) {
-      var ch = this.text.nextInt();
-      this.advancePosition(ch);
-      return ch;
-    }
-    return EOF;
+  @Override
+  void markIndex() {
+    this.marked = true;
+    this.bufferStart = this.bufferPos;
   }
 
-  /**
-   * Advances the position if the current character matches the {@code expected} character;
-   * otherwise, throws an {@code IllegalStateException}. The position is not advanced if an
-   * exception is thrown.
-   *
-   * <p>An {@code IllegalStateException} will always be thrown if the end of the text is reached,
-   * regardless of the {@code expected} character.
-   *
-   * <p>Functionally equivalent to:
-   *
-   * <pre><code>
-   * var ch = this.{@link #peek(int) peek(0)};
-   * if (ch == expected &amp;&amp; ch != {@link #EOF EOF}) {
-   *   this.{@link #skip(int) skip(1)};
-   * } else {
-   *   throw new IllegalStateException(...);
-   * }
-   * </code></pre>
-   *
-   * @param expected the character to (maybe) consume
-   * @throws IllegalStateException if the current character doesn't match the {@code expected}
-   *     character, or if the end of the text is reached
-   */
-  public void consumeExact(int expected) {
-    var ch = this.tryPopulateBuffer(1) ? this.buffer.getFirst() : EOF;
-    if (ch == EOF) {
-      throw new IllegalStateException(
-          format(
-              "Expected: '%c' U+%04X at position %s but was: EOF",
-              expected, expected, this.getPosition()));
-    }
-    if (ch != expected) {
-      throw new IllegalStateException(
-          format(
-              "Expected: '%c' U+%04X at position %s but was: '%c' U+%04X",
-              expected, expected, this.getPosition(), ch, ch));
-    }
-    this.buffer.removeFirst();
-    this.advancePosition(ch);
+  @Override
+  void resetIndex() {
+    this.bufferPos = this.bufferStart;
   }
 
-  /**
-   * Advances the position if the next characters all match the {@code expectedChars}; otherwise,
-   * throws an {@code IllegalStateException}. The position is not advanced if an exception is
-   * thrown.
-   *
-   * <p>An {@code IllegalStateException} will always be thrown if the end of the text is reached,
-   * regardless of the {@code expectedChars}.
-   *
-   * <p><strong>Not</strong> functionally equivalent to:
-   *
-   * <pre><code>
-   * expectedChars.codePoints()
-   *     .forEach(this::consumeExact);
-   * </code></pre>
-   *
-   * @param expectedChars the characters to (maybe) consume
-   * @throws IllegalStateException the next characters don't match the {@code expectedChars}, or if
-   *     the end of the text is reached
-   */
-  public void consumeExact(CharSequence expectedChars) {
-    var expectedItr = expectedChars.codePoints().iterator();
-    int offset = 0;
-    while (expectedItr.hasNext()) {
-      var expected = expectedItr.nextInt();
-      var ch = this.peek(offset);
-      if (ch == EOF) {
-        throw new IllegalStateException(
-            format(
-                "Expected: '%c' U+%04X at position %s+%d but was: EOF",
-                expected, expected, this.getPosition(), offset));
-      }
-      if (ch != expected) {
-        throw new IllegalStateException(
-            format(
-                "Expected: '%c' U+%04X at position %s+%d but was: '%c' U+%04X",
-                expected, expected, this.getPosition(), offset, ch, ch));
-      }
-      offset++;
+  /** Only skips characters which have already been buffered. */
+  @Override
+  int skipAscii(int mask, int expected) {
+    var buffer = this.buffer;
+    var bufferMask = this.bufferMask;
+    var pos = this.bufferPos;
+    while (pos != this.bufferEnd) {
+      var ch = buffer[pos & bufferMask];
+      if (ch >= CharClass.ASCII_SIZE || (CharClass.ASCII_CLASSES[ch] & mask) != expected) break;
+      pos++;
     }
-    this.skip(offset);
+    var count = pos - this.bufferPos;
+    this.bufferPos = pos;
+    if (!this.marked) this.bufferStart = pos;
+    return count;
   }
 
-  /**
-   * Consumes characters and appends them to the output buffer, until the {@code predicate} fails
-   * for the <em>next</em> character or until the end of the text is reached. The current character
-   * when the {@code predicate} fails is <em>not</em> appended to the output buffer, but it
-   * <em>will</em> be the current character after this method (and so can be accessed via {@code
-   * peek(0)}).
-   *
-   * <p>Returns
-   *
-   * <ul>
-   *   <li>{@code true} if the {@code predicate} failed before the end of the text
-   *   <li>{@code false} if the end of the text was reached before the {@code predicate} failed
-   * </ul>
-   *
-   * <p>Functionally equivalent to:
-   *
-   * <pre><code>
-   * while (true) {
-   *   var ch = this.{@link #peek(int) peek(0)};
-   *   if (ch == {@link #EOF EOF}) return false;
-   *   if (!predicate.test(this)) return true;
-   *   outBuf.append(ch);
-   *   this.{@link #skip(int) skip(1)};
-   * }
-   * </code></pre>
-   *
-   * @param outBuf the buffer to append consumed characters to
-   * @param predicate the condition which should return {@code false} to stop consuming characters
-   * @return {@code true} if the {@code predicate} failed before the end of the text was reached
-   */
-  public boolean consumeWhile(StringBuilder outBuf, Predicate<UnmodifiableTextParser> predicate) {
-    requireNonNull(outBuf);
-    requireNonNull(predicate);
-    while (true) {
-      var ch = this.peek(0);
-      if (ch == EOF) return false;
-      if (!predicate.test(this)) return true;
-      outBuf.appendCodePoint(ch);
-      this.skip(1);
-    }
+  /** The buffer is reused, so the marked characters are always copied. */
+  @Override
+  CharSequence markedText() {
+    var count = this.bufferPos - this.bufferStart;
+    var startIdx = this.bufferStart & this.bufferMask;
+    if (startIdx + count <= this.buffer.length) return new String(this.buffer, startIdx, count);
+
+    var headCount = this.buffer.length - startIdx;
+    var text = new StringBuilder(count + (count >> 1));
+    for (int idx = 0; idx < headCount; idx++) text.appendCodePoint(this.buffer[startIdx + idx]);
+    for (int idx = 0; idx < count - headCount; idx++) text.appendCodePoint(this.buffer[idx]);
+    return text.toString();
   }
 
-  private void advancePosition(int ch) {
-    if (ch == '\n') {
-      this.position = this.position.nextLine();
-    } else {
-      this.position = this.position.nextColumn();
+  @Override
+  void markedText(CharBuffer out) {
+    for (int idx = this.bufferStart; idx != this.bufferPos; idx++) {
+      putCodePoint(out, this.buffer[idx & this.bufferMask]);
     }
   }
 
+  /** {@inheritDoc} */
+  @Override
+  public boolean isTextHeld() {
+    return false;
+  }
+
+  /** Characters are discarded once they've been passed, so this is never supported. */
+  @Override
+  CharSequence text(long fromCharIdx, long toCharIdx) {
+    throw new UnsupportedOperationException("Text is streamed, not held in memory");
+  }
+
   /**
    * @return {@code true} if at least {@code count} characters were buffered before reaching the end
    *     of the text
    */
   private boolean tryPopulateBuffer(int count) {
-    while (this.buffer.size() < count) {
-      if (!this.text.hasNext()) return false;
-      var ch = this.text.nextInt();
-      this.buffer.addLast(ch);
+    while (this.bufferEnd - this.bufferPos < count) {
+      if (this.bufferEnd - this.bufferStart == this.buffer.length) this.growBuffer();
+
+      // fill as much of the free space as possible without wrapping around
+      var free = this.buffer.length - (this.bufferEnd - this.bufferStart);
+      var fillIdx = this.bufferEnd & this.bufferMask;
+      var fillCount = this.text.read(this.buffer, fillIdx, min(free, this.buffer.length - fillIdx));
+      if (fillCount < 0) return false;
+      this.bufferEnd += fillCount;
     }
     return true;
   }
+
+  private void growBuffer() {
+    var oldBuffer = this.buffer;
+    var newBuffer = new int[oldBuffer.length << 1];
+    var oldMask = this.bufferMask;
+    var newMask = newBuffer.length - 1;
+    for (int idx = this.bufferStart; idx != this.bufferEnd; idx++) {
+      newBuffer[idx & newMask] = oldBuffer[idx & oldMask];
+    }
+    this.buffer = newBuffer;
+    this.bufferMask = newMask;
+  }
 }
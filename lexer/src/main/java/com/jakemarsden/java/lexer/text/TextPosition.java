@@ -1,8 +1,17 @@
 package com.jakemarsden.java.lexer.text;
 
+import static java.lang.Math.toIntExact;
 import static java.lang.String.format;
 
-/** Information about the position of a character within text. */
+/**
+ * Information about the position of a character within text.
+ *
+ * <p>Positions created by an {@link AbstractTextParser} only store the character index. The line
+ * and column are resolved from the parser's line-start table whenever they're asked for, so callers
+ * which never look at them don't pay for them. The parser carries on adding to the table as it
+ * advances, so such a position must be {@link #resolve() resolved} before it's handed to another
+ * thread.
+ */
 public final class TextPosition implements Comparable<TextPosition> {
 
   private static final TextPosition START = new TextPosition(0, 0, 0);
@@ -11,23 +20,63 @@ public final class TextPosition implements Comparable<TextPosition> {
     return START;
   }
 
-  public static TextPosition of(int lineIdx, int colIdx, int charIdx) {
+  public static TextPosition of(int lineIdx, int colIdx, long charIdx) {
     return new TextPosition(lineIdx, colIdx, charIdx);
   }
 
-  private final int lineIdx;
-  private final int colIdx;
-  private final int charIdx;
+  static TextPosition of(LineStartTable lines, long charIdx) {
+    return new TextPosition(lines, charIdx);
+  }
+
+  /**
+   * Used to resolve the line and column, or {@code null} if they're already known. Only ever
+   * changes from a table to {@code null}, when the position is {@link #resolve() resolved}.
+   */
+  private LineStartTable lines;
+
+  private int lineIdx;
 
-  private TextPosition(int lineIdx, int colIdx, int charIdx) {
+  /** The index of the first character of the line, which the column is worked out from. */
+  private long lineStart;
+
+  private final long charIdx;
+
+  private TextPosition(int lineIdx, int colIdx, long charIdx) {
     if (lineIdx < 0) throw new IllegalArgumentException("Invalid line index: " + lineIdx);
     if (colIdx < 0) throw new IllegalArgumentException("Invalid column index: " + colIdx);
     if (charIdx < 0) throw new IllegalArgumentException("Invalid character index: " + charIdx);
+    this.lines = null;
     this.lineIdx = lineIdx;
-    this.colIdx = colIdx;
+    this.lineStart = charIdx - colIdx;
     this.charIdx = charIdx;
   }
 
+  private TextPosition(LineStartTable lines, long charIdx) {
+    if (charIdx < 0) throw new IllegalArgumentException("Invalid character index: " + charIdx);
+    this.lines = lines;
+    this.lineIdx = -1;
+    this.lineStart = -1;
+    this.charIdx = charIdx;
+  }
+
+  /**
+   * Works out the line and column now, if they'd otherwise be resolved from the parser's line-start
+   * table whenever they're asked for. The position then no longer refers to the table, so it can be
+   * handed to another thread while the parser carries on advancing.
+   *
+   * @return this position
+   */
+  public TextPosition resolve() {
+    var lines = this.lines;
+    if (lines != null) {
+      var lineIdx = lines.lineOf(this.charIdx);
+      this.lineIdx = lineIdx;
+      this.lineStart = lines.startOf(lineIdx);
+      this.lines = null;
+    }
+    return this;
+  }
+
   /** @return {@code true} if this position represents the first character of the text */
   public boolean isStart() {
     return this.line() == 0 && this.column() == 0;
@@ -35,16 +84,24 @@ public final class TextPosition implements Comparable<TextPosition> {
 
   /** @return zero-based index of the relevant line within the text */
   public int line() {
-    return this.lineIdx;
+    return this.lines != null ? this.lines.lineOf(this.charIdx) : this.lineIdx;
   }
 
-  /** @return zero-based index of the relevant character within the line of text */
+  /**
+   * @return zero-based index of the relevant character within the line of text
+   * @throws ArithmeticException if the line is so long that the index doesn't fit in an {@code int}
+   */
   public int column() {
-    return this.colIdx;
+    var lines = this.lines;
+    var lineStart = lines != null ? lines.startOf(lines.lineOf(this.charIdx)) : this.lineStart;
+    return toIntExact(this.charIdx - lineStart);
   }
 
-  /** @return zero-based index of the relevant character from the start of the text */
-  public int charIndex() {
+  /**
+   * @return zero-based index of the relevant character from the start of the text, which may be
+   *     larger than {@link Integer#MAX_VALUE} for very large texts
+   */
+  public long charIndex() {
     return this.charIdx;
   }
 
@@ -79,6 +136,6 @@ public final class TextPosition implements Comparable<TextPosition> {
 
   @Override
   public int compareTo(TextPosition obj) {
-    return this.charIndex() - obj.charIndex();
+    return Long.compare(this.charIndex(), obj.charIndex());
   }
 }
@@ -0,0 +1,153 @@
+package com.jakemarsden.java.lexer.text;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+
+/** Decodes UTF-8 directly from a {@link ByteBuffer}, one code point at a time. */
+final class Utf8 {
+
+  static final int MAX_BYTES_PER_CHAR = 4;
+  static final int REPLACEMENT_CHAR = 0xFFFD;
+
+  /**
+   * Number of bytes in a sequence, indexed by its leading byte. Bytes which can't start a sequence
+   * (continuation bytes, the leading bytes of overlong 2-byte forms, and the leading bytes of code
+   * points beyond {@code U+10FFFF}) are treated as single-byte malformed sequences.
+   */
+  private static final byte[] SEQUENCE_LENGTHS = new byte[256];
+
+  static {
+    for (int b = 0x00; b <= 0xFF; b++) {
+      if (b >= 0xC2 && b <= 0xDF) {
+        SEQUENCE_LENGTHS[b] = 2;
+      } else if (b >= 0xE0 && b <= 0xEF) {
+        SEQUENCE_LENGTHS[b] = 3;
+      } else if (b >= 0xF0 && b <= 0xF4) {
+        SEQUENCE_LENGTHS[b] = 4;
+      } else {
+        SEQUENCE_LENGTHS[b] = 1;
+      }
+    }
+  }
+
+  /** @return {@code true} if the buffer contains a UTF-8 byte order mark at {@code idx} */
+  static boolean isByteOrderMark(ByteBuffer buf, int idx) {
+    return idx + 3 <= buf.limit()
+        && buf.get(idx) == (byte) 0xEF
+        && buf.get(idx + 1) == (byte) 0xBB
+        && buf.get(idx + 2) == (byte) 0xBF;
+  }
+
+  /**
+   * Malformed sequences are split up in exactly the same way as by the {@link
+   * java.nio.charset.StandardCharsets#UTF_8} decoder: the longest prefix of a sequence which could
+   * still have been valid is a single malformed sequence. The exception is an encoded surrogate,
+   * which is a malformed sequence of all three of its bytes.
+   *
+   * @return the number of bytes in the sequence starting at {@code idx}, which is truncated by the
+   *     {@link ByteBuffer#limit() limit} of the buffer
+   */
+  static int sequenceLength(ByteBuffer buf, int idx) {
+    var b0 = buf.get(idx);
+    if (b0 >= 0) return 1;
+
+    var lead = b0 & 0xFF;
+    var len = SEQUENCE_LENGTHS[lead];
+    var limit = buf.limit();
+    if (len == 1 || idx + 1 >= limit || !isSecondByte(lead, buf.get(idx + 1))) return 1;
+
+    var offset = 2;
+    while (offset < len && idx + offset < limit && (buf.get(idx + offset) & 0xC0) == 0x80) {
+      offset++;
+    }
+    return offset;
+  }
+
+  /**
+   * @param len the {@link #sequenceLength(ByteBuffer, int) length} of the sequence starting at
+   *     {@code idx}
+   * @return the code point encoded by the sequence starting at {@code idx}, or {@link
+   *     #REPLACEMENT_CHAR} if the sequence is malformed
+   */
+  static int decode(ByteBuffer buf, int idx, int len) {
+    var b0 = buf.get(idx);
+    if (len != SEQUENCE_LENGTHS[b0 & 0xFF]) return REPLACEMENT_CHAR;
+    switch (len) {
+      case 1:
+        return b0 >= 0 ? b0 : REPLACEMENT_CHAR;
+      case 2:
+        return ((b0 & 0x1F) << 6) | (buf.get(idx + 1) & 0x3F);
+      case 3:
+        var ch = ((b0 & 0x0F) << 12) | ((buf.get(idx + 1) & 0x3F) << 6) | (buf.get(idx + 2) & 0x3F);
+        return Character.isSurrogate((char) ch) ? REPLACEMENT_CHAR : ch;
+      case 4:
+        return ((b0 & 0x07) << 18)
+            | ((buf.get(idx + 1) & 0x3F) << 12)
+            | ((buf.get(idx + 2) & 0x3F) << 6)
+            | (buf.get(idx + 3) & 0x3F);
+      default:
+        throw new IllegalArgumentException("Invalid sequence length: " + len);
+    }
+  }
+
+  /**
+   * The second byte of a sequence has a narrower range after some leading bytes, which rules out
+   * overlong 3-byte and 4-byte forms, and code points beyond {@code U+10FFFF}.
+   *
+   * @return {@code true} if {@code b1} may follow the leading byte {@code lead}
+   */
+  private static boolean isSecondByte(int lead, byte b1) {
+    var b = b1 & 0xFF;
+    switch (lead) {
+      case 0xE0:
+        return b >= 0xA0 && b <= 0xBF;
+      case 0xF0:
+        return b >= 0x90 && b <= 0xBF;
+      case 0xF4:
+        return b >= 0x80 && b <= 0x8F;
+      default:
+        return b >= 0x80 && b <= 0xBF;
+    }
+  }
+
+  /**
+   * @return the code points encoded by the bytes in the range {@code [from, to)}, each decoded in
+   *     exactly the same way as by {@link #decode(ByteBuffer, int, int)}
+   */
+  static String decodeRange(ByteBuffer buf, int from, int to) {
+    var text = new StringBuilder(to - from);
+    var idx = from;
+    while (idx < to) {
+      var len = sequenceLength(buf, idx);
+      text.appendCodePoint(decode(buf, idx, len));
+      idx += len;
+    }
+    return text.toString();
+  }
+
+  /**
+   * Puts the code points encoded by the bytes in the range {@code [from, to)} into the {@code out}
+   * buffer as UTF-16, each decoded in exactly the same way as by {@link #decode(ByteBuffer, int,
+   * int)}.
+   *
+   * @throws java.nio.BufferOverflowException if there isn't enough room left in the buffer
+   */
+  static void decodeRange(ByteBuffer buf, int from, int to, CharBuffer out) {
+    var idx = from;
+    while (idx < to) {
+      var b = buf.get(idx);
+      if (b >= 0) {
+        out.put((char) b);
+        idx++;
+      } else {
+        var len = sequenceLength(buf, idx);
+        AbstractTextParser.putCodePoint(out, decode(buf, idx, len));
+        idx += len;
+      }
+    }
+  }
+
+  private Utf8() {
+    throw new UnsupportedOperationException();
+  }
+}
@@ -0,0 +1,237 @@
+package com.jakemarsden.java.lexer.text;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.CharBuffer;
+
+/**
+ * Useful for parsing some or all of the characters of UTF-8 encoded text which is already held in
+ * memory, without decoding it into a {@link String} first.
+ *
+ * <p>ASCII characters, which make up almost all source code, are returned straight from the
+ * underlying bytes. Multi-byte sequences are only decoded when they are actually encountered.
+ *
+ * <p>Marked text which is pure ASCII is returned as a view of the underlying bytes, so the bytes
+ * must not be modified while the text is still in use.
+ *
+ * <p>The whole text is indexed up front by a {@link StructuralIndex}, which also works out where
+ * every line starts. Scans for line terminators, quotes and the ends of comments jump straight from
+ * one structural byte to the next.
+ *
+ * <p>A leading byte order mark is skipped. Malformed byte sequences are each decoded as a single
+ * {@code U+FFFD} replacement character, and are split up in exactly the same way as by the {@link
+ * java.nio.charset.StandardCharsets#UTF_8} decoder.
+ */
+public final class Utf8TextParser extends AbstractTextParser {
+
+  /** Always little-endian, which the {@link StructuralIndex} reads most efficiently. */
+  private ByteBuffer text;
+
+  private int start;
+  private int end;
+  private final StructuralIndex index;
+
+  /** Index of the current byte within the {@link #text}. */
+  private int idx;
+
+  private int markIdx;
+
+  /**
+   * Index of the most recently read multi-byte (or malformed) sequence, or {@code -1} if there
+   * hasn't been one. If it's before the {@link #markIdx} then the marked text is pure ASCII.
+   */
+  private int lastNonAsciiIdx = -1;
+
+  public Utf8TextParser(byte[] text) {
+    this(ByteBuffer.wrap(text));
+  }
+
+  /**
+   * Parses the bytes between the current {@link ByteBuffer#position() position} and the {@link
+   * ByteBuffer#limit() limit} of the {@code text}. The position and limit of the {@code text} are
+   * not modified.
+   *
+   * @param text the UTF-8 encoded text to parse
+   */
+  public Utf8TextParser(ByteBuffer text) {
+    this(text.duplicate().order(ByteOrder.LITTLE_ENDIAN), startOf(text));
+  }
+
+  private Utf8TextParser(ByteBuffer text, int start) {
+    this(text, start, new StructuralIndex(text, start, text.limit()));
+  }
+
+  private Utf8TextParser(ByteBuffer text, int start, StructuralIndex index) {
+    super(index.lines());
+    this.text = text;
+    this.start = start;
+    this.idx = start;
+    this.end = text.limit();
+    this.index = index;
+  }
+
+  /**
+   * Moves on to parsing a different text, from its start, as if this were a new parser. The storage
+   * used to index the text is reused, and only grown if the new text is bigger than any before it.
+   * Text and positions previously returned by this parser are unaffected, as long as the previous
+   * text isn't modified.
+   *
+   * @param text the new UTF-8 encoded text to parse
+   */
+  public void setText(byte[] text) {
+    var buffer = ByteBuffer.wrap(text).order(ByteOrder.LITTLE_ENDIAN);
+    this.init(buffer, startOf(buffer));
+  }
+
+  /**
+   * Moves on to parsing the bytes between the current position and the limit of a different text,
+   * as for {@link #setText(byte[])}. The position and limit of the {@code text} are not modified.
+   *
+   * @param text the new UTF-8 encoded text to parse
+   */
+  public void setText(ByteBuffer text) {
+    this.init(text.duplicate().order(ByteOrder.LITTLE_ENDIAN), startOf(text));
+  }
+
+  private void init(ByteBuffer text, int start) {
+    this.text = text;
+    this.start = start;
+    this.idx = start;
+    this.end = text.limit();
+    this.lastNonAsciiIdx = -1;
+    if (this.isLinesShared()) this.index.detachLines();
+    this.index.rebuild(text, start, this.end);
+    this.restart(this.index.lines());
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public boolean hasRemaining(int count) {
+    if (count < 0) throw new IllegalArgumentException("Invalid count: " + count);
+    return count == 0 || this.indexOf(count - 1) < this.end;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public int peek(int offset) {
+    if (offset < 0) throw new IllegalArgumentException("Invalid offset: " + offset);
+    var byteIdx = this.indexOf(offset);
+    if (byteIdx >= this.end) return EOF;
+
+    var b = this.text.get(byteIdx);
+    if (b >= 0) return b;
+    return Utf8.decode(this.text, byteIdx, Utf8.sequenceLength(this.text, byteIdx));
+  }
+
+  @Override
+  int read() {
+    if (this.idx >= this.end) return EOF;
+
+    var b = this.text.get(this.idx);
+    if (b >= 0) {
+      this.idx++;
+      return b;
+    }
+    var len = Utf8.sequenceLength(this.text, this.idx);
+    var ch = Utf8.decode(this.text, this.idx, len);
+    this.lastNonAsciiIdx = this.idx;
+    this.idx += len;
+    return ch;
+  }
+
+  @Override
+  void markIndex() {
+    this.markIdx = this.idx;
+  }
+
+  @Override
+  void resetIndex() {
+    this.idx = this.markIdx;
+  }
+
+  /**
+   * Scans which stop only at structural bytes jump from one structural byte to the next. Any other
+   * scan is left to the {@link AsciiScanner}.
+   */
+  @Override
+  int skipAscii(int mask, int expected) {
+    if (expected == 0 && (mask & ~StructuralIndex.INDEXED_CLASSES) == 0) {
+      return this.skipToStructural(mask);
+    }
+    var idx = AsciiScanner.skip(this.text, this.idx, this.end, mask, expected);
+    var count = idx - this.idx;
+    this.idx = idx;
+    return count;
+  }
+
+  /**
+   * Pure ASCII text is a view of the underlying bytes. Text which contains multi-byte sequences has
+   * to be decoded.
+   */
+  @Override
+  CharSequence markedText() {
+    if (this.lastNonAsciiIdx < this.markIdx) {
+      return new AsciiSlice(this.text, this.markIdx, this.idx);
+    }
+    return Utf8.decodeRange(this.text, this.markIdx, this.idx);
+  }
+
+  @Override
+  void markedText(CharBuffer out) {
+    Utf8.decodeRange(this.text, this.markIdx, this.idx, out);
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public boolean isTextHeld() {
+    return true;
+  }
+
+  /** Text which turns out to be pure ASCII is a view of the underlying bytes. */
+  @Override
+  CharSequence text(long fromCharIdx, long toCharIdx) {
+    var from = this.indexOfChar((int) fromCharIdx);
+    var to = this.indexOfChar((int) toCharIdx);
+    if (to - from == toCharIdx - fromCharIdx) return new AsciiSlice(this.text, from, to);
+    return Utf8.decodeRange(this.text, from, to);
+  }
+
+  /** @return the index of the first byte of the character at {@code charIdx} */
+  private int indexOfChar(int charIdx) {
+    return this.start + charIdx + this.index.wideChars().extraUnitsBefore(charIdx);
+  }
+
+  private int skipToStructural(int mask) {
+    var idx = this.idx;
+    while (true) {
+      idx = this.index.nextStructural(idx);
+      if (idx >= this.end) break;
+      var b = this.text.get(idx);
+      if (b < 0 || (CharClass.ASCII_CLASSES[b] & mask) != 0) break;
+      idx++;
+    }
+    var count = idx - this.idx;
+    this.idx = idx;
+    return count;
+  }
+
+  /**
+   * @return the index of the code point which is {@code offset} code points ahead of the current
+   *     character, or the {@link #end} if the end of the text is reached first
+   */
+  private int indexOf(int offset) {
+    var byteIdx = this.idx;
+    while (offset > 0 && byteIdx < this.end) {
+      var b = this.text.get(byteIdx);
+      byteIdx += b >= 0 ? 1 : Utf8.sequenceLength(this.text, byteIdx);
+      offset--;
+    }
+    return byteIdx;
+  }
+
+  /** @return the index of the first byte of the {@code text} after any byte order mark */
+  private static int startOf(ByteBuffer text) {
+    var start = text.position();
+    return Utf8.isByteOrderMark(text, start) ? start + 3 : start;
+  }
+}
@@ -0,0 +1,57 @@
+package com.jakemarsden.java.lexer.text;
+
+import java.util.Arrays;
+
+/**
+ * The character index of each character of a text which takes up more than one unit of the
+ * underlying storage: each surrogate pair of UTF-16 text, or each multi-byte sequence of UTF-8
+ * text. Used to convert character indices, which count code points, into indices of the underlying
+ * storage.
+ *
+ * <p>Only the wide characters are recorded, so a text without any costs next to nothing.
+ */
+final class WideCharTable {
+
+  private static final int INITIAL_CAPACITY = 16;
+
+  /** The character index of each wide character, in ascending order. */
+  private int[] charIdxs = new int[INITIAL_CAPACITY];
+
+  /**
+   * The number of units taken up by each wide character, and by all of those before it, beyond the
+   * first unit of each.
+   */
+  private int[] extraUnits = new int[INITIAL_CAPACITY];
+
+  private int count;
+
+  /**
+   * Records that the character at {@code charIdx}, which must be after every wide character
+   * recorded so far, takes up {@code 1 + extraUnits} units.
+   */
+  void add(int charIdx, int extraUnits) {
+    if (this.count == this.charIdxs.length) {
+      this.charIdxs = Arrays.copyOf(this.charIdxs, this.count << 1);
+      this.extraUnits = Arrays.copyOf(this.extraUnits, this.count << 1);
+    }
+    var totalExtraUnits = this.count == 0 ? 0 : this.extraUnits[this.count - 1];
+    this.charIdxs[this.count] = charIdx;
+    this.extraUnits[this.count] = totalExtraUnits + extraUnits;
+    this.count++;
+  }
+
+  /** Forgets about every wide character, keeping the storage for reuse. */
+  void clear() {
+    this.count = 0;
+  }
+
+  /**
+   * @return the number of units taken up by the characters before {@code charIdx}, beyond the first
+   *     unit of each. Add {@code charIdx} to get the index of its first unit
+   */
+  int extraUnitsBefore(int charIdx) {
+    var idx = Arrays.binarySearch(this.charIdxs, 0, this.count, charIdx);
+    var before = idx >= 0 ? idx : -idx - 1;
+    return before == 0 ? 0 : this.extraUnits[before - 1];
+  }
+}
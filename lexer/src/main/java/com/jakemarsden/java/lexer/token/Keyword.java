@@ -2,7 +2,6 @@ package com.jakemarsden.java.lexer.token;
 
 import static java.util.Objects.requireNonNull;
 
-import java.util.Arrays;
 import java.util.Optional;
 
 public enum Keyword {
@@ -75,11 +74,9 @@ public enum Keyword {
   VOLATILE,
   WHILE;
 
-  public static Optional<Keyword> of(String value) {
+  public static Optional<Keyword> of(CharSequence value) {
     requireNonNull(value);
-    return Arrays.stream(Keyword.values())
-        .filter(keyword -> keyword.value().equals(value))
-        .findFirst();
+    return Optional.ofNullable(ReservedWords.keyword(value));
   }
 
   private String value() {
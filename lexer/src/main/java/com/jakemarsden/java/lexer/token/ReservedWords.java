@@ -0,0 +1,119 @@
+package com.jakemarsden.java.lexer.token;
+
+import static java.lang.String.format;
+import static java.util.Objects.requireNonNull;
+
+import com.jakemarsden.java.lexer.text.TextPosition;
+
+/**
+ * Recognises the reserved words of the language: the {@link Keyword}s, and the {@code null}, {@code
+ * true} and {@code false} literals.
+ *
+ * <p>Every reserved word hashes to a different slot of a small table, so recognising a word only
+ * takes a hash of its length and a few of its characters followed by a comparison against at most
+ * one candidate. No {@link String} needs to be built from the word first.
+ */
+public final class ReservedWords {
+
+  /** The length of the longest reserved word. Longer words never need to be looked up. */
+  public static final int MAX_LENGTH = 12;
+
+  private static final int TABLE_BITS = 7;
+
+  /** Chosen so that no two reserved words hash to the same slot, which is checked on start up. */
+  private static final int HASH_MULTIPLIER = 0x8BFEA847;
+
+  private static final String[] WORDS = new String[1 << TABLE_BITS];
+  private static final Keyword[] KEYWORDS = new Keyword[1 << TABLE_BITS];
+  private static final TokenType[] TYPES = new TokenType[1 << TABLE_BITS];
+  private static final int[] SUBTYPES = new int[1 << TABLE_BITS];
+
+  static {
+    for (var keyword : Keyword.values()) {
+      put(keyword.toString(), keyword, TokenType.KEYWORD, keyword.ordinal());
+    }
+    put("null", null, TokenType.NULL_LITERAL, -1);
+    put("true", null, TokenType.BOOLEAN_LITERAL, 1);
+    put("false", null, TokenType.BOOLEAN_LITERAL, 0);
+  }
+
+  /**
+   * @param word the characters of a complete keyword or identifier
+   * @param position the position of the first character of the {@code word}
+   * @return a keyword, null literal or boolean literal token if the {@code word} is reserved, or
+   *     {@code null} if it isn't
+   */
+  public static Token maybeToken(CharSequence word, TextPosition position) {
+    requireNonNull(position);
+    var slot = slotOf(word);
+    return slot >= 0 ? Token.of(TYPES[slot], SUBTYPES[slot], 0, word, position) : null;
+  }
+
+  /** @return the keyword which matches the {@code word}, or {@code null} if there isn't one */
+  static Keyword keyword(CharSequence word) {
+    var slot = slotOf(word);
+    return slot >= 0 ? KEYWORDS[slot] : null;
+  }
+
+  /**
+   * Looks up a word without creating a token for it. Pass the result to {@link #type(int)} and
+   * {@link #subtype(int)} to find out what kind of token the word is.
+   *
+   * @param word the characters of a complete keyword or identifier
+   * @return the slot which contains the {@code word}, or {@code -1} if it isn't reserved
+   */
+  public static int slotOf(CharSequence word) {
+    var length = word.length();
+    if (length == 0 || length > MAX_LENGTH) return -1;
+
+    var slot = hash(word);
+    var candidate = WORDS[slot];
+    if (candidate == null || candidate.length() != length) return -1;
+    for (int idx = 0; idx < length; idx++) {
+      if (candidate.charAt(idx) != word.charAt(idx)) return -1;
+    }
+    return slot;
+  }
+
+  /**
+   * @param slot a slot returned by {@link #slotOf(CharSequence)}
+   * @return the type of token which the reserved word in the {@code slot} is
+   */
+  public static TokenType type(int slot) {
+    return TYPES[slot];
+  }
+
+  /**
+   * @param slot a slot returned by {@link #slotOf(CharSequence)}
+   * @return the subtype of the reserved word in the {@code slot}, packed as for {@link
+   *     Token#of(TokenType, int, int, CharSequence, TextPosition)}
+   */
+  public static int subtype(int slot) {
+    return SUBTYPES[slot];
+  }
+
+  private static int hash(CharSequence word) {
+    var length = word.length();
+    int key = word.charAt(0);
+    key = 31 * key + word.charAt(length > 1 ? 1 : 0);
+    key = 31 * key + word.charAt(length - 1);
+    key = 31 * key + length;
+    return (key * HASH_MULTIPLIER) >>> (Integer.SIZE - TABLE_BITS);
+  }
+
+  private static void put(String word, Keyword keyword, TokenType type, int subtype) {
+    var slot = hash(word);
+    if (WORDS[slot] != null) {
+      throw new IllegalStateException(
+          format("Reserved words collide: \"%s\" and \"%s\"", WORDS[slot], word));
+    }
+    WORDS[slot] = word;
+    KEYWORDS[slot] = keyword;
+    TYPES[slot] = type;
+    SUBTYPES[slot] = subtype;
+  }
+
+  private ReservedWords() {
+    throw new UnsupportedOperationException();
+  }
+}
@@ -9,6 +9,57 @@ import com.jakemarsden.java.lexer.text.TextPosition;
 
 public abstract class Token {
 
+  private static final CommentType[] COMMENT_TYPES = CommentType.values();
+  private static final Keyword[] KEYWORDS = Keyword.values();
+  private static final Operator[] OPERATORS = Operator.values();
+  private static final Separator[] SEPARATORS = Separator.values();
+
+  /**
+   * Creates a token from its packed form, in which everything but its text and position is
+   * described by a couple of {@code int}s.
+   *
+   * @param type the type of the token
+   * @param subtype the ordinal of the {@link CommentType}, {@link Keyword}, {@link Operator} or
+   *     {@link Separator}; {@code 1} for a {@code true} boolean literal and {@code 0} for a {@code
+   *     false} one; ignored for any other type
+   * @param value the value of a number literal; ignored for any other type
+   * @param text the characters of the token; ignored for types whose characters are implied by the
+   *     {@code subtype}
+   * @param position the position of the first character of the token
+   * @return the unpacked token
+   */
+  public static Token of(
+      TokenType type, int subtype, int value, CharSequence text, TextPosition position) {
+    switch (type) {
+      case BOOLEAN_LITERAL:
+        return booleanLiteral(subtype != 0, position);
+      case CHARACTER_LITERAL:
+        return characterLiteral(text, position);
+      case COMMENT:
+        return comment(COMMENT_TYPES[subtype], text, position);
+      case IDENTIFIER:
+        return identifier(text, position);
+      case KEYWORD:
+        return keyword(KEYWORDS[subtype], position);
+      case NULL_LITERAL:
+        return nullLiteral(position);
+      case NUMBER_LITERAL:
+        return numberLiteral(NumberLiteral.of(value, text), position);
+      case OPERATOR:
+        return operator(OPERATORS[subtype], position);
+      case SEPARATOR:
+        return separator(SEPARATORS[subtype], position);
+      case STRING_LITERAL:
+        return stringLiteral(text, position);
+      case WHITESPACE:
+        return whitespace(text, position);
+      case INVALID:
+        return invalid(text, position);
+      default:
+        throw new IllegalArgumentException("Unsupported token type: " + type);
+    }
+  }
+
   public static BooleanLiteralToken booleanLiteral(boolean value, TextPosition position) {
     return new BooleanLiteralToken(value, position);
   }
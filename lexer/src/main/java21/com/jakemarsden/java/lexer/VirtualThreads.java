@@ -0,0 +1,27 @@
+package com.jakemarsden.java.lexer;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Creates executors which run each task on a new virtual thread, on behalf of {@link BatchLexer}.
+ *
+ * <p>Replaces the portable implementation on JDK 21 and later, where virtual threads are always
+ * supported.
+ */
+final class VirtualThreads {
+
+  /** @return {@code true} if virtual threads are supported by the runtime */
+  static boolean isSupported() {
+    return true;
+  }
+
+  /** @return an executor which starts a new virtual thread for each task */
+  static ExecutorService newExecutor() {
+    return Executors.newVirtualThreadPerTaskExecutor();
+  }
+
+  private VirtualThreads() {
+    throw new UnsupportedOperationException();
+  }
+}
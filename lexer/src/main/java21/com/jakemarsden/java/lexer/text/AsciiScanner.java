@@ -0,0 +1,60 @@
+package com.jakemarsden.java.lexer.text;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Skips runs of ASCII bytes by {@link CharClass}, on behalf of the {@link Utf8TextParser} and the
+ * {@link MappedFileTextParser}. Only used for the scans which the {@link StructuralIndex} can't
+ * answer, which in practice are runs of whitespace and identifier characters.
+ *
+ * <p>Replaces the portable implementation on JDK 21 and later. Bytes backed by an array are scanned
+ * a whole vector at a time if the {@code jdk.incubator.vector} module has been added to the runtime
+ * (e.g. with {@code --add-modules jdk.incubator.vector}), and one byte at a time otherwise. Direct
+ * buffers, such as the windows of a memory-mapped file, are always scanned one byte at a time, as
+ * there's no stable way to load a vector from one on JDK 21.
+ */
+final class AsciiScanner {
+
+  private static final boolean VECTORIZED =
+      ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent();
+
+  /** How many bytes to examine one at a time before switching to vectors. */
+  private static final int SCALAR_PREFIX = 16;
+
+  /**
+   * @param text the bytes to scan
+   * @param from the index of the first byte to examine
+   * @param to the index after the last byte to examine
+   * @param mask the classes to look at
+   * @param expected which of the masked classes each skipped byte must belong to
+   * @return the index of the first non-ASCII byte in the range whose classes masked with {@code
+   *     mask} don't equal {@code expected}, or {@code to} if there isn't one
+   */
+  static int skip(ByteBuffer text, int from, int to, int mask, int expected) {
+    // most runs in source code are short, and are over before a vector would have paid for itself
+    var idx = scanBytes(text, from, Math.min(from + SCALAR_PREFIX, to), mask, expected);
+    if (idx < from + SCALAR_PREFIX || idx == to) return idx;
+
+    if (VECTORIZED && text.hasArray()) {
+      var offset = text.arrayOffset();
+      idx = VectorAsciiScanner.skip(text.array(), idx + offset, to + offset, mask, expected);
+      idx -= offset;
+    }
+    // whatever's left over, which is less than a whole vector unless the scan wasn't vectorized
+    return scanBytes(text, idx, to, mask, expected);
+  }
+
+  private static int scanBytes(ByteBuffer text, int from, int to, int mask, int expected) {
+    var idx = from;
+    while (idx < to) {
+      var b = text.get(idx);
+      if (b < 0 || (CharClass.ASCII_CLASSES[b] & mask) != expected) break;
+      idx++;
+    }
+    return idx;
+  }
+
+  private AsciiScanner() {
+    throw new UnsupportedOperationException();
+  }
+}
@@ -0,0 +1,142 @@
+package com.jakemarsden.java.lexer.text;
+
+import static jdk.incubator.vector.VectorOperators.EQ;
+import static jdk.incubator.vector.VectorOperators.LT;
+import static jdk.incubator.vector.VectorOperators.UNSIGNED_LE;
+
+import java.util.Arrays;
+import jdk.incubator.vector.ByteVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Skips runs of ASCII bytes a whole vector at a time, using the widest vectors the hardware
+ * supports. Only loaded once the {@code jdk.incubator.vector} module is known to be available.
+ *
+ * <p>There's no portable way to look the bytes of a vector up in the 128-entry {@link
+ * CharClass#ASCII_CLASSES} table, so each scan is instead reduced to a handful of byte ranges: the
+ * ranges of bytes which either do or don't belong to the classes being scanned for, whichever there
+ * are fewer of. Testing a vector of bytes is then one comparison per range.
+ */
+final class VectorAsciiScanner {
+
+  private static final VectorSpecies<Byte> SPECIES = ByteVector.SPECIES_PREFERRED;
+
+  /** Scans which would need more comparisons than this per vector are left to the scalar loop. */
+  private static final int MAX_RANGES = 6;
+
+  /** The ranges of every scan so far, which is only ever replaced with a longer copy. */
+  private static volatile Ranges[] cache = new Ranges[0];
+
+  /**
+   * @return the index of the first byte which shouldn't be skipped, or the index at which there
+   *     isn't a whole vector left to examine. {@code from} if the scan can't be vectorized
+   */
+  static int skip(byte[] text, int from, int to, int mask, int expected) {
+    var ranges = rangesOf(mask, expected);
+    if (ranges == null) return from;
+
+    var idx = from;
+    var lanes = SPECIES.length();
+    for (; idx + lanes <= to; idx += lanes) {
+      var stops = ranges.stops(ByteVector.fromArray(SPECIES, text, idx));
+      if (stops.anyTrue()) return idx + stops.firstTrue();
+    }
+    return idx;
+  }
+
+  /** @return the ranges to compare each byte with, or {@code null} if there are too many */
+  private static Ranges rangesOf(int mask, int expected) {
+    var cache = VectorAsciiScanner.cache;
+    for (var ranges : cache) {
+      if (ranges.mask == mask && ranges.expected == expected) return ranges.vectorizable();
+    }
+
+    var ranges = Ranges.of(mask, expected);
+    synchronized (VectorAsciiScanner.class) {
+      var newCache = Arrays.copyOf(VectorAsciiScanner.cache, VectorAsciiScanner.cache.length + 1);
+      newCache[newCache.length - 1] = ranges;
+      VectorAsciiScanner.cache = newCache;
+    }
+    return ranges.vectorizable();
+  }
+
+  private VectorAsciiScanner() {
+    throw new UnsupportedOperationException();
+  }
+
+  private static final class Ranges {
+
+    final int mask;
+    final int expected;
+
+    /**
+     * {@code true} if bytes inside the ranges should stop the scan, or {@code false} if bytes
+     * outside of them should.
+     */
+    private final boolean stopInside;
+
+    private final byte[] lows;
+
+    /** The difference between the highest and lowest byte of each range. */
+    private final byte[] spans;
+
+    private Ranges(int mask, int expected, boolean stopInside, byte[] lows, byte[] spans) {
+      this.mask = mask;
+      this.expected = expected;
+      this.stopInside = stopInside;
+      this.lows = lows;
+      this.spans = spans;
+    }
+
+    static Ranges of(int mask, int expected) {
+      var stopRanges = ranges(mask, expected, true);
+      var skipRanges = ranges(mask, expected, false);
+      var stopInside = stopRanges[0].length <= skipRanges[0].length;
+      var ranges = stopInside ? stopRanges : skipRanges;
+      return new Ranges(mask, expected, stopInside, ranges[0], ranges[1]);
+    }
+
+    /** @return {@code this}, or {@code null} if there are too many ranges to be worth it */
+    Ranges vectorizable() {
+      return this.lows.length <= MAX_RANGES ? this : null;
+    }
+
+    /** @return which of the {@code bytes} should stop the scan */
+    VectorMask<Byte> stops(ByteVector bytes) {
+      var inside = SPECIES.maskAll(false);
+      for (int idx = 0; idx < this.lows.length; idx++) {
+        var low = this.lows[idx];
+        var span = this.spans[idx];
+        var inRange =
+            span == 0 ? bytes.compare(EQ, low) : bytes.sub(low).compare(UNSIGNED_LE, span);
+        inside = inside.or(inRange);
+      }
+      // non-ASCII bytes are negative, so never inside of a range
+      return this.stopInside ? inside.or(bytes.compare(LT, (byte) 0)) : inside.not();
+    }
+
+    /**
+     * @return the lowest byte of each range of ASCII bytes which should (or shouldn't) stop the
+     *     scan, followed by the span of each range
+     */
+    private static byte[][] ranges(int mask, int expected, boolean stop) {
+      var lows = new byte[CharClass.ASCII_SIZE];
+      var spans = new byte[CharClass.ASCII_SIZE];
+      var count = 0;
+      var low = -1;
+      for (int ch = 0; ch <= CharClass.ASCII_SIZE; ch++) {
+        var inRange =
+            ch < CharClass.ASCII_SIZE && ((CharClass.ASCII_CLASSES[ch] & mask) != expected) == stop;
+        if (inRange && low < 0) low = ch;
+        if (!inRange && low >= 0) {
+          lows[count] = (byte) low;
+          spans[count] = (byte) (ch - 1 - low);
+          count++;
+          low = -1;
+        }
+      }
+      return new byte[][] {Arrays.copyOf(lows, count), Arrays.copyOf(spans, count)};
+    }
+  }
+}
@@ -0,0 +1,142 @@
+package com.jakemarsden.java.lexer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.jakemarsden.java.lexer.token.Token;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.TreeMap;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class BatchLexerTest {
+
+  @Test
+  void filesAreLexed(@TempDir Path root) throws IOException {
+    var files = writeFiles(root, "class A {}", "int b = 42; // 😀", "");
+    try (var batch = initObjUnderTest(2)) {
+      var tables = batch.lexAll(files);
+      assertEquals(files, List.copyOf(tables.keySet()));
+      for (var file : files) {
+        assertTokensEqual(new Lexer().lexToTable(Files.readString(file)), tables.get(file));
+      }
+    }
+  }
+
+  @Test
+  void largestFilesAreLexedFirst(@TempDir Path root) throws IOException {
+    var files = writeFiles(root, "a", "a a a", "a a", "a a a a");
+    var lexed = Collections.synchronizedList(new ArrayList<Path>());
+    try (var batch = initObjUnderTest(1)) {
+      batch.lexAll(files, (file, table) -> lexed.add(file));
+    }
+    assertEquals(List.of(files.get(3), files.get(1), files.get(2), files.get(0)), lexed);
+  }
+
+  @Test
+  void tokensArePushedToEachSink(@TempDir Path root) throws IOException {
+    var files = writeFiles(root, "a b", "c");
+    var counts = Collections.synchronizedMap(new TreeMap<Path, Integer>());
+    try (var batch = initObjUnderTest(2)) {
+      batch.pushAll(
+          files,
+          file ->
+              new TokenSink() {
+                @Override
+                public boolean onIdentifier(CharSequence text, long start) {
+                  counts.merge(file, 1, Integer::sum);
+                  return true;
+                }
+              });
+    }
+    assertEquals(2, counts.get(files.get(0)));
+    assertEquals(1, counts.get(files.get(1)));
+  }
+
+  @Test
+  void sourcesAreLexedInOrder() {
+    var sources = List.of("a", "b c d", "", "e f");
+    try (var batch = initObjUnderTest(3)) {
+      var tables = batch.lexSources(sources);
+      assertEquals(sources.size(), tables.size());
+      for (int idx = 0; idx < sources.size(); idx++) {
+        assertTokensEqual(new Lexer().lexToTable(sources.get(idx)), tables.get(idx));
+      }
+    }
+  }
+
+  @Test
+  void missingFileIsRethrown(@TempDir Path root) throws IOException {
+    var files = new ArrayList<>(writeFiles(root, "a"));
+    files.add(root.resolve("Missing.java"));
+    try (var batch = initObjUnderTest(2)) {
+      assertThrows(NoSuchFileException.class, () -> batch.lexAll(files, (file, table) -> {}));
+    }
+  }
+
+  @Test
+  void callbackErrorIsRethrown(@TempDir Path root) throws IOException {
+    var files = writeFiles(root, "a", "b", "c");
+    var error = new IllegalStateException();
+    try (var batch = initObjUnderTest(2)) {
+      var thrown =
+          assertThrows(
+              IllegalStateException.class,
+              () ->
+                  batch.lexAll(
+                      files,
+                      (file, table) -> {
+                        throw error;
+                      }));
+      assertSame(error, thrown);
+    }
+  }
+
+  @Test
+  void virtualThreads() throws IOException {
+    if (!BatchLexer.supportsVirtualThreads()) {
+      assertThrows(
+          UnsupportedOperationException.class, () -> BatchLexer.withVirtualThreads(new Lexer()));
+      return;
+    }
+    try (var batch = BatchLexer.withVirtualThreads(new Lexer())) {
+      var tables = batch.lexSources(List.of("a b", "c"));
+      assertEquals(3, tables.get(0).size());
+      assertEquals(1, tables.get(1).size());
+    }
+  }
+
+  @Test
+  void invalidThreadCount() {
+    assertThrows(IllegalArgumentException.class, () -> initObjUnderTest(0));
+  }
+
+  private static List<Path> writeFiles(Path root, String... sources) throws IOException {
+    var files = new ArrayList<Path>();
+    for (int idx = 0; idx < sources.length; idx++) {
+      var file = root.resolve("F" + idx + ".java");
+      Files.writeString(file, sources[idx]);
+      files.add(file);
+    }
+    return files;
+  }
+
+  private static void assertTokensEqual(TokenTable expected, TokenTable actual) {
+    var expectedTokens = new ArrayList<Token>();
+    var actualTokens = new ArrayList<Token>();
+    for (int idx = 0; idx < expected.size(); idx++) expectedTokens.add(expected.token(idx));
+    for (int idx = 0; idx < actual.size(); idx++) actualTokens.add(actual.token(idx));
+    assertEquals(expectedTokens, actualTokens);
+  }
+
+  private static BatchLexer initObjUnderTest(int threads) {
+    return new BatchLexer(new Lexer(), threads);
+  }
+}
@@ -0,0 +1,80 @@
+package com.jakemarsden.java.lexer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class HeaderExtractorTest {
+
+  @Test
+  void packageAndImports() {
+    var source =
+        "/* licence */\n"
+            + "package com . my/* c */.pkg;\n"
+            + "\n"
+            + "import java.util.List;\n"
+            + "import java.util.*;\n"
+            + "import static java.lang.Math.max;\n"
+            + "import static java.lang.Math.*;\n"
+            + "\n"
+            + "@Type(String.class)\n"
+            + "public class A {\n"
+            + "  import not.an.Import;\n"
+            + "}\n";
+    var header = initObjUnderTest().extract(source);
+    assertEquals("com.my.pkg", header.packageName());
+    assertEquals(List.of("java.util.List", "java.util.*"), header.imports());
+    assertEquals(List.of("java.lang.Math.max", "java.lang.Math.*"), header.staticImports());
+  }
+
+  @Test
+  void unnamedPackage() {
+    var header = initObjUnderTest().extract("import a.B; @interface C { import d.E; }");
+    assertEquals(new SourceHeader("", List.of("a.B"), List.of()), header);
+  }
+
+  @Test
+  void annotatedPackage() {
+    var header = initObjUnderTest().extract("@Deprecated\npackage a.b;\n");
+    assertEquals(new SourceHeader("a.b", List.of(), List.of()), header);
+  }
+
+  @Test
+  void malformedDeclarationsAreIgnored() {
+    var header = initObjUnderTest().extract("import a.B import c.D; enum E {}");
+    assertEquals(new SourceHeader("", List.of("c.D"), List.of()), header);
+  }
+
+  @Test
+  void sourceTree(@TempDir Path root) throws IOException {
+    Files.createDirectories(root.resolve("a/b"));
+    Files.writeString(root.resolve("a/A.java"), "package a;\nimport x.Y;\nclass A {}");
+    Files.writeString(root.resolve("a/b/B.java"), "\uFEFFpackage a.b;\ninterface B {}");
+    Files.writeString(root.resolve("a/b/notes.txt"), "package not.java;");
+
+    var headers = initObjUnderTest().extractAll(root);
+    assertEquals(
+        List.of(root.resolve("a/A.java"), root.resolve("a/b/B.java")),
+        List.copyOf(headers.keySet()));
+    assertEquals(
+        new SourceHeader("a", List.of("x.Y"), List.of()), headers.get(root.resolve("a/A.java")));
+    assertEquals("a.b", headers.get(root.resolve("a/b/B.java")).packageName());
+  }
+
+  @Test
+  void missingFile(@TempDir Path root) {
+    var file = root.resolve("Missing.java");
+    assertThrows(NoSuchFileException.class, () -> initObjUnderTest().extract(file));
+  }
+
+  private static HeaderExtractor initObjUnderTest() {
+    return new HeaderExtractor();
+  }
+}
@@ -0,0 +1,162 @@
+package com.jakemarsden.java.lexer;
+
+import static com.jakemarsden.java.lexer.TokenTestUtils.allocatedBytes;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.jakemarsden.java.lexer.token.Keyword;
+import com.jakemarsden.java.lexer.token.Token;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class LexerSessionTest {
+
+  private static final String LARGE_SOURCE =
+      "package a.b;\n"
+          + "/** café 😀 */\n"
+          + "class C { // 😀\r\n"
+          + "  boolean x = true != false; int y = 1_000 + 42; char z = '€';\n"
+          + "  String s = \"😀\" + null; # \"unclosed\n"
+          + "}";
+
+  private static final String SMALL_SOURCE = "int\n😀 x;";
+
+  @Test
+  void resetMatchesFreshLexing() {
+    var lexer = new Lexer();
+    try (var session = lexer.openSession()) {
+      for (var source : new String[] {LARGE_SOURCE, SMALL_SOURCE, LARGE_SOURCE, "", SMALL_SOURCE}) {
+        assertTokensEqual(lexer.lex(source), session.reset(source));
+        assertTokensEqual(lexer.lex(source), session.reset(source.toCharArray()));
+        assertTokensEqual(lexer.lex(source), session.reset(source.getBytes(UTF_8)));
+
+        var bytes = ("xx" + source + "xx").getBytes(UTF_8);
+        var buf = ByteBuffer.wrap(bytes, 2, bytes.length - 4);
+        assertTokensEqual(lexer.lex(source), session.reset(buf));
+      }
+    }
+  }
+
+  @Test
+  void tokensSurviveReset() {
+    var session = new LexerSession();
+    var kept = new ArrayList<Token>();
+    var keptPositions = new ArrayList<String>();
+    for (var reset :
+        new Runnable[] {
+          () -> keepAll(session.reset(LARGE_SOURCE), kept),
+          () -> keepAll(session.reset(LARGE_SOURCE.getBytes(UTF_8)), kept)
+        }) {
+      reset.run();
+      kept.forEach(token -> keptPositions.add(token.position().toString()));
+      var hashCodes = kept.stream().mapToInt(Token::hashCode).toArray();
+
+      // other texts, with different lines
+      lexAll(session.reset(SMALL_SOURCE));
+      lexAll(session.reset(SMALL_SOURCE.getBytes(UTF_8)));
+      lexAll(session.reset("\n\n\n"));
+
+      var positions = new ArrayList<String>();
+      kept.forEach(token -> positions.add(token.position().toString()));
+      assertEquals(keptPositions, positions);
+      assertArrayEquals(hashCodes, kept.stream().mapToInt(Token::hashCode).toArray());
+      var expected = new ArrayList<Token>();
+      new Lexer().lex(LARGE_SOURCE).forEachRemaining(expected::add);
+      assertEquals(expected, kept);
+      kept.clear();
+      keptPositions.clear();
+    }
+  }
+
+  @Test
+  void resetAbandonsPreviousText() {
+    var session = new LexerSession();
+    var tokens = session.reset("class A");
+    assertTrue(tokens.advance());
+    assertEquals(Keyword.CLASS, tokens.keyword());
+
+    assertSame(tokens, session.reset("int"));
+    assertThrows(IllegalStateException.class, tokens::type);
+    assertTrue(tokens.advance());
+    assertEquals(Keyword.INT, tokens.keyword());
+    assertFalse(tokens.advance());
+  }
+
+  @Test
+  void closedSessionsAreReused() {
+    var lexer = new Lexer(1);
+    var session = lexer.openSession();
+    session.close();
+    session.close();
+
+    var first = lexer.openSession();
+    var second = lexer.openSession();
+    assertSame(session, first);
+    assertNotSame(session, second);
+
+    first.close();
+    second.close();
+    assertSame(first, lexer.openSession());
+    assertNotSame(second, lexer.openSession());
+  }
+
+  @Test
+  void invalidPoolSize() {
+    assertThrows(IllegalArgumentException.class, () -> new Lexer(0));
+  }
+
+  @Test
+  void steadyStateDoesNotAllocate() {
+    var lexer = new Lexer();
+    var snippet = "if (x != null) { return x.y(42); }";
+    var bytes = snippet.getBytes(UTF_8);
+    var runs = 10_000;
+    Runnable lexSnippets =
+        () -> {
+          for (int run = 0; run < runs; run++) {
+            try (var session = lexer.openSession()) {
+              lexAll(session.reset(snippet));
+              lexAll(session.reset(bytes));
+            }
+          }
+        };
+
+    // warm up, so that the session is created and grown before measuring
+    lexSnippets.run();
+    var allocated = allocatedBytes(lexSnippets);
+
+    // wrapping the bytes in a buffer is the only allocation, per byte[] snippet
+    assertTrue(allocated < runs * 64L, "Allocated " + allocated + " bytes for " + runs + " runs");
+  }
+
+  private static void keepAll(TokenCursor tokens, List<Token> kept) {
+    while (tokens.advance()) kept.add(tokens.token());
+  }
+
+  private static void lexAll(TokenCursor tokens) {
+    while (tokens.advance()) {
+      tokens.type();
+      tokens.keyword();
+      tokens.start();
+      tokens.length();
+    }
+  }
+
+  private static void assertTokensEqual(TokenIterator expected, TokenCursor actual) {
+    var expectedTokens = new ArrayList<Token>();
+    expected.forEachRemaining(expectedTokens::add);
+    for (int idx = 0; idx < expectedTokens.size(); idx++) {
+      assertTrue(actual.advance(), "Token at index " + idx);
+      assertEquals(expectedTokens.get(idx), actual.token(), "Token at index " + idx);
+    }
+    assertFalse(actual.advance());
+  }
+}
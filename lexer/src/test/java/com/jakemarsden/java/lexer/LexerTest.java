@@ -3,15 +3,205 @@ package com.jakemarsden.java.lexer;
 import static com.jakemarsden.java.lexer.TokenTestUtils.assertTokensEquals;
 import static com.jakemarsden.java.lexer.token.Keyword.*;
 import static com.jakemarsden.java.lexer.token.Separator.*;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import com.jakemarsden.java.lexer.text.TextPosition;
 import com.jakemarsden.java.lexer.token.Token;
+import com.jakemarsden.java.lexer.token.TokenType;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.NoSuchElementException;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 class LexerTest {
 
+  /**
+   * Out of range, overlong, surrogate and truncated sequences, and sequences cut short by an ASCII
+   * character.
+   */
+  private static final List<byte[]> MALFORMED_UTF8 =
+      List.of(
+          bytes(0xF7, 0xBF, 0xBF, 0xBF),
+          bytes(0xF5, 0x80, 0x80, 0x80),
+          bytes(0xF4, 0x90, 0x80, 0x80),
+          bytes(0xFF),
+          bytes(0xC0, 0xAF),
+          bytes(0xC1, 0xBF),
+          bytes(0xE0, 0x80, 0xAF),
+          bytes(0xF0, 0x8F, 0xBF, 0xBF),
+          bytes(0xED, 0xA0, 0x80),
+          bytes(0xED, 0xBF, 0xBF),
+          bytes(0xED, 0xA0),
+          bytes(0x80, 0xBF),
+          bytes(0xC2),
+          bytes(0xE2, 0x82),
+          bytes(0xF0, 0x90, 0x80),
+          bytes(0xF0, 0x90, 0x80, 0xC2, 0xA9),
+          bytes(0xE2, 0x82, 0xE2, 0x82, 0xAC));
+
   @Test
   void integration() {
+    var sourceCodeItr = sampleSourceCode().codePoints().iterator();
+
+    var lexer = new Lexer();
+    var tokens = lexer.lex(sourceCodeItr);
+    assertTokensEquals(tokens, sampleTokens());
+  }
+
+  @Test
+  void integrationCharSequence() {
+    var lexer = new Lexer();
+    var tokens = lexer.lex(sampleSourceCode());
+    assertTokensEquals(tokens, sampleTokens());
+  }
+
+  @Test
+  void integrationCharArray() {
+    var lexer = new Lexer();
+    var tokens = lexer.lex(sampleSourceCode().toCharArray());
+    assertTokensEquals(tokens, sampleTokens());
+  }
+
+  @Test
+  void integrationUtf8() {
+    var lexer = new Lexer();
+    var tokens = lexer.lex(sampleSourceCode().getBytes(UTF_8));
+    assertTokensEquals(tokens, sampleTokens());
+  }
+
+  @Test
+  void malformedUtf8IsDecodedLikeUtf8Charset(@TempDir Path tempDir) throws IOException {
+    var lexer = new Lexer();
+    for (var malformed : MALFORMED_UTF8) {
+      var source = new ByteArrayOutputStream();
+      for (var part : List.of("int a", "b = 1; /* ", " */ \"", "\" + c; // ", "\n", "")) {
+        source.write(part.getBytes(UTF_8));
+        source.write(malformed);
+      }
+      var bytes = source.toByteArray();
+      var expected = new ArrayList<String>();
+      lexer.lex(new String(bytes, UTF_8)).forEachRemaining(t -> expected.add(t.toString()));
+
+      var buf = ByteBuffer.allocate(bytes.length + 2).put((byte) 'x').put(bytes).put((byte) 'x');
+      buf.position(1).limit(bytes.length + 1);
+      var file = Files.write(tempDir.resolve("Malformed.java"), bytes);
+      for (var tokens : List.of(lexer.lex(bytes), lexer.lex(buf), lexer.lex(file))) {
+        var actual = new ArrayList<String>();
+        tokens.forEachRemaining(t -> actual.add(t.toString()));
+        assertEquals(expected, actual, () -> Arrays.toString(malformed));
+      }
+    }
+  }
+
+  @Test
+  void integrationReader() {
+    var lexer = new Lexer();
+    var tokens = lexer.lex(new StringReader(sampleSourceCode()));
+    assertTokensEquals(tokens, sampleTokens());
+  }
+
+  @Test
+  void integrationInputStream() {
+    var lexer = new Lexer();
+    var tokens = lexer.lex(new ByteArrayInputStream(sampleSourceCode().getBytes(UTF_8)), UTF_8);
+    assertTokensEquals(tokens, sampleTokens());
+  }
+
+  @Test
+  void integrationPath(@TempDir Path tempDir) throws IOException {
+    var sourceFile = Files.writeString(tempDir.resolve("SampleCode.java"), sampleSourceCode());
+
+    var lexer = new Lexer();
+    var tokens = lexer.lex(sourceFile);
+    assertTokensEquals(tokens, sampleTokens());
+  }
+
+  @Test
+  void integrationFiltered() {
+    var types = EnumSet.complementOf(EnumSet.of(TokenType.WHITESPACE, TokenType.COMMENT));
+    var expected =
+        Arrays.stream(sampleTokens()).filter(t -> types.contains(t.type())).toArray(Token[]::new);
+
+    var lexer = new Lexer();
+    assertTokensEquals(lexer.lex(sampleSourceCode(), types), expected);
+    assertTokensEquals(lexer.lex(sampleSourceCode().getBytes(UTF_8), types), expected);
+    assertTokensEquals(lexer.lex(new StringReader(sampleSourceCode()), types), expected);
+  }
+
+  @Test
+  void filteredOutTokensAtTheEndAreNotReturned() {
+    var lexer = new Lexer();
+    var comments = lexer.lex("a /* b */ c  \n", EnumSet.of(TokenType.COMMENT));
+    assertTrue(comments.hasNext());
+    assertEquals(TokenType.COMMENT, comments.next().type());
+    assertFalse(comments.hasNext());
+    assertThrows(NoSuchElementException.class, comments::next);
+
+    assertFalse(lexer.lex("a b", EnumSet.noneOf(TokenType.class)).hasNext());
+  }
+
+  @Test
+  void filteredBatches() {
+    var tokens = new Lexer().lex("a b c d e", EnumSet.of(TokenType.IDENTIFIER));
+    assertEquals(TextPosition.of(0, 0, 0), tokens.next().position());
+    assertTrue(tokens.hasNext());
+
+    var batch = new TokenBatch(3);
+    assertEquals(3, tokens.nextBatch(batch), "Includes the token found by hasNext()");
+    assertEquals("b", batch.text(0).toString());
+    assertEquals(6, batch.start(2));
+    assertEquals(1, tokens.nextBatch(batch));
+    assertEquals("e", batch.text(0).toString());
+    assertEquals(0, tokens.nextBatch(batch));
+  }
+
+  @Test
+  void headerOnly() {
+    var header = "package a;\n@Type(String.class)\npublic ";
+    var tokens = new Lexer().lexHeader(header + "class B {}");
+
+    var lexed = new StringBuilder();
+    tokens.forEachRemaining(t -> lexed.append(t.position().charIndex()).append(t.type()));
+    var expected = new StringBuilder();
+    new Lexer()
+        .lex(header)
+        .forEachRemaining(t -> expected.append(t.position().charIndex()).append(t.type()));
+    assertEquals(expected.toString(), lexed.toString());
+  }
+
+  @Test
+  void headerOnlyDoesNotReadTheRestOfTheSource() throws IOException {
+    var source = "package a;\nclass B {}\n" + "x".repeat(1_000_000);
+    var reader = new StringReader(source);
+    var tokens = new Lexer().lexHeader(reader);
+    while (tokens.hasNext()) tokens.next();
+
+    var remaining = 0L;
+    while (reader.read() != -1) remaining++;
+    assertTrue(remaining > 990_000, "Only " + remaining + " characters weren't read");
+  }
+
+  private static byte[] bytes(int... values) {
+    var bytes = new byte[values.length];
+    for (int idx = 0; idx < values.length; idx++) bytes[idx] = (byte) values[idx];
+    return bytes;
+  }
+
+  private static String sampleSourceCode() {
     // Replace with Java 13 text block (eventually)
     String[] sourceCodeLines = {
       "package com.my.pkg;",
@@ -25,10 +215,11 @@ class LexerTest {
       "",
       ""
     };
-    var sourceCode = String.join("\n", sourceCodeLines);
-    var sourceCodeItr = sourceCode.codePoints().iterator();
+    return String.join("\n", sourceCodeLines);
+  }
 
-    Token[] expectedTokens = {
+  private static Token[] sampleTokens() {
+    return new Token[] {
       Token.keyword(PACKAGE, TextPosition.start()),
       Token.whitespace(" ", atColumn(7)),
       Token.identifier("com", atColumn(8)),
@@ -83,10 +274,6 @@ class LexerTest {
       Token.separator(CLOSING_BRACE, atPosition(7, 0, 136)),
       Token.whitespace("\n\n", atPosition(7, 1, 136))
     };
-
-    var lexer = new Lexer();
-    var tokens = lexer.lex(sourceCodeItr);
-    assertTokensEquals(tokens, expectedTokens);
   }
 
   private static TextPosition atColumn(int col) {
@@ -5,11 +5,15 @@ import static com.jakemarsden.java.lexer.token.CommentType.LINE;
 import static com.jakemarsden.java.lexer.token.Keyword.*;
 import static com.jakemarsden.java.lexer.token.Operator.*;
 import static com.jakemarsden.java.lexer.token.Separator.*;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import com.jakemarsden.java.lexer.text.TextPosition;
 import com.jakemarsden.java.lexer.token.Keyword;
 import com.jakemarsden.java.lexer.token.NumberLiteral;
 import com.jakemarsden.java.lexer.token.Token;
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
 import org.junit.jupiter.api.Test;
 
 class LexingTokenIteratorTest {
@@ -19,6 +23,38 @@ class LexingTokenIteratorTest {
     assertTokensEquals(initObjUnderTest("\uD83D\uDE00"), Token.invalid("\uD83D\uDE00", atStart()));
   }
 
+  @Test
+  void nonAsciiCharacters() {
+    assertTokensEquals(
+        initObjUnderTest("a\u2003é"),
+        Token.identifier("a", atStart()),
+        Token.whitespace("\u2003", atColumn(1)),
+        Token.invalid("é", atColumn(2)));
+  }
+
+  @Test
+  void asciiCharactersWhichCantStartAToken() {
+    assertTokensEquals(
+        initObjUnderTest("#\\`"),
+        Token.invalid("#", atStart()),
+        Token.invalid("\\", atColumn(1)),
+        Token.invalid("`", atColumn(2)));
+  }
+
+  @Test
+  void invalidTokenIsLoggedAtItsOwnPosition() {
+    var out = new ByteArrayOutputStream();
+    var stdout = System.out;
+    System.setOut(new PrintStream(out, true, UTF_8));
+    try {
+      initObjUnderTest("ab #").forEachRemaining(token -> {});
+    } finally {
+      System.setOut(stdout);
+    }
+    var expected = Token.invalid("#", atColumn(3));
+    assertTrue(out.toString(UTF_8).contains("Invalid token: " + expected), out.toString(UTF_8));
+  }
+
   @Test
   void assignmentOperators() {
     assertTokensEquals(initObjUnderTest("="), Token.operator(ASSIGNMENT, atStart()));
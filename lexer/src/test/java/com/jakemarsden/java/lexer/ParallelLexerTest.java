@@ -0,0 +1,81 @@
+package com.jakemarsden.java.lexer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.jakemarsden.java.lexer.text.CharSequenceTextParser;
+import org.junit.jupiter.api.Test;
+
+class ParallelLexerTest {
+
+  private static final String SOURCE =
+      "package a.b;\n"
+          + "/*\n"
+          + " * café 😀\n"
+          + " *\n"
+          + " */\n"
+          + "class C { // 😀\r\n"
+          + "\n"
+          + "\n"
+          + "      boolean x = true != false;\n"
+          + "  int y = 1_000 + 42; char z = '€';\n"
+          + "  String s = \"😀\" + null; # \"unclosed\n"
+          + "  /** 😀\n"
+          + "   */\n"
+          + "}\n"
+          + "\n";
+
+  @Test
+  void tokensMatchSequentialLexing() {
+    var expected = TokenTable.lex(new CharSequenceTextParser(SOURCE));
+    for (int chunkSize = 1; chunkSize <= SOURCE.length() + 1; chunkSize++) {
+      assertTablesEqual(expected, ParallelLexer.lex(SOURCE, chunkSize), chunkSize);
+    }
+  }
+
+  @Test
+  void tokensMatchSequentialLexingOfLargeText() {
+    var source = new StringBuilder();
+    while (source.length() < 3 * ParallelLexer.MIN_CHUNK_SIZE) source.append(SOURCE);
+    var expected = new Lexer().lexToTable(source);
+    var actual = new Lexer().lexToTableInParallel(source);
+    assertEquals(expected.size(), actual.size());
+    for (int idx = 0; idx < expected.size(); idx += 997) {
+      assertEquals(expected.token(idx), actual.token(idx));
+    }
+    assertEquals(expected.token(expected.size() - 1), actual.token(actual.size() - 1));
+  }
+
+  @Test
+  void lexesOnlyFromTokenBoundary() {
+    var expected = TokenTable.lex(new CharSequenceTextParser(SOURCE));
+    for (int from = 0; from <= expected.size(); from++) {
+      var fromCharIdx = from < expected.size() ? expected.start(from) : expected.end();
+      for (var chunkSize : new int[] {1, 7, SOURCE.length()}) {
+        var actual = ParallelLexer.lexFrom(SOURCE, fromCharIdx, chunkSize);
+        assertEquals(expected.size() - from, actual.size(), "chunk size " + chunkSize);
+        for (int idx = 0; idx < actual.size(); idx++) {
+          assertEquals(expected.token(from + idx), actual.token(idx), "chunk size " + chunkSize);
+          assertEquals(
+              expected.text(from + idx).toString(),
+              actual.text(idx).toString(),
+              "chunk size " + chunkSize);
+        }
+      }
+    }
+  }
+
+  @Test
+  void emptyText() {
+    assertEquals(0, new Lexer().lexToTableInParallel("").size());
+    assertEquals(0, ParallelLexer.lex("", 1).size());
+  }
+
+  private static void assertTablesEqual(TokenTable expected, TokenTable actual, int chunkSize) {
+    assertEquals(expected.size(), actual.size(), "chunk size " + chunkSize);
+    for (int idx = 0; idx < expected.size(); idx++) {
+      assertEquals(expected.token(idx), actual.token(idx), "chunk size " + chunkSize);
+      assertEquals(expected.subtype(idx), actual.subtype(idx), "chunk size " + chunkSize);
+      assertEquals(expected.length(idx), actual.length(idx), "chunk size " + chunkSize);
+    }
+  }
+}
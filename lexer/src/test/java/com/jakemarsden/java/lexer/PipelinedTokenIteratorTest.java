@@ -0,0 +1,187 @@
+package com.jakemarsden.java.lexer;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.jakemarsden.java.lexer.token.Token;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.NoSuchElementException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.jupiter.api.Test;
+
+class PipelinedTokenIteratorTest {
+
+  private static final String SOURCE =
+      "package a.b;\n/** café 😀 */\nclass C { int x = 42; String s = \"😀\"; }\n".repeat(200);
+
+  @Test
+  void tokensMatchDecoratedIterator() {
+    var expected = new ArrayList<Token>();
+    new Lexer().lex(SOURCE).forEachRemaining(expected::add);
+
+    for (var waitStrategy : WaitStrategy.values()) {
+      var actual = new ArrayList<Token>();
+      try (var tokens = initObjUnderTest(SOURCE, 1, waitStrategy)) {
+        tokens.forEachRemaining(actual::add);
+        assertFalse(tokens.hasNext());
+        assertThrows(NoSuchElementException.class, tokens::next);
+      }
+      assertEquals(expected, actual, waitStrategy.name());
+    }
+  }
+
+  @Test
+  void positionsAreResolvedBeforeBeingPublished() {
+    // lines are only found as the reader is lexed, so the producer keeps growing its line table
+    var source = "a\n  b\r\n\n  /* c\n */ d\n".repeat(20_000);
+    var expected = new ArrayList<String>();
+    new Lexer().lex(source).forEachRemaining(token -> expected.add(describe(token)));
+
+    for (var waitStrategy : WaitStrategy.values()) {
+      var actual = new ArrayList<String>();
+      try (var tokens =
+          new PipelinedTokenIterator(new Lexer().lex(new StringReader(source)), 2, waitStrategy)) {
+        tokens.forEachRemaining(token -> actual.add(describe(token)));
+      }
+      assertEquals(expected, actual, waitStrategy.name());
+    }
+  }
+
+  @Test
+  void emptySource() {
+    try (var tokens = initObjUnderTest("", 4, WaitStrategy.PARK)) {
+      assertFalse(tokens.hasNext());
+    }
+  }
+
+  @Test
+  void failureIsRethrownAfterEarlierTokens() {
+    var error = new IllegalStateException();
+    var lexed = new Lexer().lex("a b");
+    var failing =
+        new TokenIterator() {
+          @Override
+          public boolean hasNext() {
+            if (lexed.hasNext()) return true;
+            throw error;
+          }
+
+          @Override
+          public Token next() {
+            return lexed.next();
+          }
+        };
+    try (var tokens = new PipelinedTokenIterator(failing, 2, WaitStrategy.YIELD)) {
+      var thrown =
+          assertThrows(IllegalStateException.class, () -> tokens.forEachRemaining(t -> {}));
+      assertSame(error, thrown);
+    }
+  }
+
+  @Test
+  void closeStopsProducer() throws InterruptedException {
+    var lexed = new AtomicInteger();
+    var endless =
+        new TokenIterator() {
+          private final Token token = new Lexer().lex("a").next();
+
+          @Override
+          public boolean hasNext() {
+            return true;
+          }
+
+          @Override
+          public Token next() {
+            lexed.incrementAndGet();
+            return this.token;
+          }
+        };
+    var tokens = new PipelinedTokenIterator(endless, 1, WaitStrategy.PARK);
+    assertTrue(tokens.hasNext());
+    tokens.close();
+    assertFalse(tokens.hasNext());
+
+    Thread.sleep(50);
+    var count = lexed.get();
+    Thread.sleep(50);
+    assertEquals(count, lexed.get());
+  }
+
+  @Test
+  void producerRunsOnExecutor() throws InterruptedException {
+    var expected = new ArrayList<Token>();
+    new Lexer().lex(SOURCE).forEachRemaining(expected::add);
+
+    var executor = Executors.newSingleThreadExecutor();
+    var actual = new ArrayList<Token>();
+    try (var tokens =
+        new PipelinedTokenIterator(new Lexer().lex(SOURCE), 1, WaitStrategy.SPIN, executor)) {
+      tokens.forEachRemaining(actual::add);
+    }
+    executor.shutdown();
+    assertTrue(executor.awaitTermination(10, SECONDS), "Producer finished");
+    assertEquals(expected, actual);
+  }
+
+  @Test
+  void abandonedIteratorStopsProducer() throws InterruptedException {
+    for (var waitStrategy : WaitStrategy.values()) {
+      var producer = new AtomicReference<Thread>();
+      startAbandoned(
+          waitStrategy,
+          task -> {
+            producer.set(new Thread(task));
+            producer.get().start();
+          });
+
+      var deadline = System.nanoTime() + SECONDS.toNanos(10);
+      while (producer.get().isAlive() && System.nanoTime() < deadline) {
+        System.gc();
+        producer.get().join(10);
+      }
+      assertFalse(producer.get().isAlive(), waitStrategy.name());
+    }
+  }
+
+  @Test
+  void invalidCapacity() {
+    assertThrows(IllegalArgumentException.class, () -> initObjUnderTest("", 0, WaitStrategy.SPIN));
+  }
+
+  /** Starts an iterator over endless tokens, and abandons it without closing it. */
+  private static void startAbandoned(WaitStrategy waitStrategy, Executor executor) {
+    var token = new Lexer().lex("a").next();
+    var endless =
+        new TokenIterator() {
+          @Override
+          public boolean hasNext() {
+            return true;
+          }
+
+          @Override
+          public Token next() {
+            return token;
+          }
+        };
+    var tokens = new PipelinedTokenIterator(endless, 1, waitStrategy, executor);
+    assertTrue(tokens.hasNext());
+  }
+
+  private static String describe(Token token) {
+    var position = token.position();
+    return position.line() + ":" + position.column() + ":" + position.charIndex();
+  }
+
+  private static PipelinedTokenIterator initObjUnderTest(
+      String source, int capacity, WaitStrategy waitStrategy) {
+    return new PipelinedTokenIterator(new Lexer().lex(source), capacity, waitStrategy);
+  }
+}
@@ -0,0 +1,59 @@
+package com.jakemarsden.java.lexer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class SpscRingTest {
+
+  @Test
+  void capacityIsRoundedUpToPowerOfTwo() {
+    assertEquals(1, initObjUnderTest(1).capacity());
+    assertEquals(4, initObjUnderTest(3).capacity());
+    assertEquals(16, initObjUnderTest(16).capacity());
+    assertThrows(IllegalArgumentException.class, () -> initObjUnderTest(0));
+  }
+
+  @Test
+  void fullAndEmpty() {
+    var ring = initObjUnderTest(2);
+    assertNull(ring.poll());
+    assertTrue(ring.offer(1));
+    assertTrue(ring.offer(2));
+    assertFalse(ring.offer(3));
+    assertEquals(1, ring.poll());
+    assertTrue(ring.offer(3));
+    assertEquals(2, ring.poll());
+    assertEquals(3, ring.poll());
+    assertNull(ring.poll());
+  }
+
+  @Test
+  void elementsArriveInOrderAcrossThreads() throws InterruptedException {
+    var ring = initObjUnderTest(8);
+    var count = 200_000;
+    var producer =
+        new Thread(
+            () -> {
+              for (int idx = 0; idx < count; idx++) {
+                while (!ring.offer(idx)) Thread.yield();
+              }
+            });
+    producer.start();
+    for (int idx = 0; idx < count; idx++) {
+      Integer element;
+      while ((element = ring.poll()) == null) Thread.yield();
+      assertEquals(idx, element);
+    }
+    producer.join();
+    assertNull(ring.poll());
+  }
+
+  private static SpscRing<Integer> initObjUnderTest(int capacity) {
+    return new SpscRing<>(capacity);
+  }
+}
@@ -0,0 +1,183 @@
+package com.jakemarsden.java.lexer;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.jakemarsden.java.lexer.text.TextPosition;
+import com.jakemarsden.java.lexer.token.Keyword;
+import com.jakemarsden.java.lexer.token.Operator;
+import com.jakemarsden.java.lexer.token.Token;
+import com.jakemarsden.java.lexer.token.TokenType;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class TokenBatchTest {
+
+  private static final String SOURCE =
+      "package a.b;\n"
+          + "/** café 😀 */\n"
+          + "class C { // 😀\r\n"
+          + "  boolean x = true != false; int y = 1_000 + 42; char z = '€';\n"
+          + "  String s = \"😀\" + null; # \"unclosed\n"
+          + "}";
+
+  @Test
+  void batchesMatchTokenIterator() {
+    var lexer = new Lexer();
+    var expected = new ArrayList<Token>();
+    lexer.lex(SOURCE).forEachRemaining(expected::add);
+
+    for (var capacity : new int[] {1, 7, 64, 1024}) {
+      assertBatchesEqual(expected, lexer.lex(SOURCE), new TokenBatch(capacity));
+      assertBatchesEqual(expected, lexer.lex(SOURCE.getBytes(UTF_8)), new TokenBatch(capacity));
+      assertBatchesEqual(expected, lexer.lex(new StringReader(SOURCE)), new TokenBatch(capacity));
+      assertBatchesEqual(
+          expected,
+          lexer.lex(new ByteArrayInputStream(SOURCE.getBytes(UTF_8)), UTF_8),
+          new TokenBatch(capacity));
+      assertBatchesEqual(
+          expected, lexer.lex(SOURCE.codePoints().iterator()), new TokenBatch(capacity));
+      try (var tokens = new PipelinedTokenIterator(lexer.lex(SOURCE))) {
+        assertBatchesEqual(expected, tokens, new TokenBatch(capacity));
+      }
+    }
+  }
+
+  @Test
+  void mappedFileMatchesTokenIterator(@TempDir Path dir) throws IOException {
+    var file = Files.writeString(dir.resolve("Source.java"), SOURCE, UTF_8);
+    var lexer = new Lexer();
+    var expected = new ArrayList<Token>();
+    lexer.lex(SOURCE).forEachRemaining(expected::add);
+    assertBatchesEqual(expected, lexer.lex(file), new TokenBatch(7));
+  }
+
+  @Test
+  void headerBatches() {
+    var source = "package a;\nimport b.C;\n@A(D.class) public class X {}";
+    var expected = new ArrayList<Token>();
+    new Lexer().lexHeader(source).forEachRemaining(expected::add);
+    assertEquals(TokenType.KEYWORD, expected.get(expected.size() - 2).type(), "public");
+
+    for (var capacity : new int[] {1, 5, 64}) {
+      assertBatchesEqual(expected, new Lexer().lexHeader(source), new TokenBatch(capacity));
+    }
+  }
+
+  @Test
+  void defaultFillsWithTokens() {
+    var expected = new ArrayList<Token>();
+    new Lexer().lex(SOURCE).forEachRemaining(expected::add);
+    var delegate = new Lexer().lex(SOURCE);
+    var tokens =
+        new TokenIterator() {
+          @Override
+          public boolean hasNext() {
+            return delegate.hasNext();
+          }
+
+          @Override
+          public Token next() {
+            return delegate.next();
+          }
+        };
+
+    var batch = new TokenBatch(expected.size());
+    assertEquals(expected.size(), tokens.nextBatch(batch));
+    for (int idx = 0; idx < batch.size(); idx++) {
+      var token = expected.get(idx);
+      assertEquals(token, batch.token(idx));
+      assertEquals(token.type(), batch.type(idx));
+      assertEquals(token.position().charIndex(), batch.start(idx));
+      assertEquals(
+          token,
+          Token.of(
+              token.type(),
+              batch.subtype(idx),
+              batch.value(idx),
+              batch.text(idx),
+              batch.position(idx)));
+    }
+    assertEquals(0, tokens.nextBatch(batch));
+  }
+
+  @Test
+  void accessors() {
+    var batch = new TokenBatch(8);
+    var tokens = new Lexer().lex("int x = 42; // hi\n");
+
+    assertEquals(8, tokens.nextBatch(batch));
+    assertEquals(8, batch.size());
+    assertEquals(Keyword.INT, batch.keyword(0));
+    assertNull(batch.operator(0));
+    assertEquals(4, batch.start(2));
+    assertEquals(1, batch.length(2));
+    assertEquals("x", batch.text(2).toString());
+    assertEquals(Operator.ASSIGNMENT, batch.operator(4));
+    assertEquals(42, batch.value(6));
+    assertEquals(0, batch.value(7));
+    assertThrows(IndexOutOfBoundsException.class, () -> batch.type(8));
+
+    assertEquals(3, tokens.nextBatch(batch));
+    assertEquals(TokenType.COMMENT, batch.type(1));
+    assertEquals(TextPosition.of(0, 12, 12), batch.position(1));
+    assertThrows(IndexOutOfBoundsException.class, () -> batch.type(3));
+
+    assertEquals(0, tokens.nextBatch(batch));
+    assertEquals(0, batch.size());
+  }
+
+  @Test
+  void mixedWithNext() {
+    var tokens = new Lexer().lex("a b c");
+    assertEquals(TokenType.IDENTIFIER, tokens.next().type());
+
+    var batch = new TokenBatch(2);
+    assertEquals(2, tokens.nextBatch(batch));
+    assertEquals(TokenType.WHITESPACE, batch.type(0));
+    assertEquals("b", batch.text(1).toString());
+    assertEquals(TokenType.WHITESPACE, tokens.next().type());
+    assertEquals(1, tokens.nextBatch(batch));
+    assertEquals(4, batch.start(0));
+  }
+
+  @Test
+  void streamedSource() {
+    var batch = new TokenBatch(16);
+    var tokens = new Lexer().lex(new StringReader("a\nclass /* 😀 */ 42"));
+    assertEquals(7, tokens.nextBatch(batch));
+    assertEquals(TextPosition.of(1, 0, 2), batch.position(2));
+    assertEquals("class", batch.text(2).toString());
+    assertEquals(Token.keyword(Keyword.CLASS, TextPosition.of(1, 0, 2)), batch.token(2));
+    assertEquals("a", batch.text(0).toString());
+    assertEquals("/* 😀 */", batch.text(4).toString());
+    assertEquals(7, batch.length(4));
+    assertEquals("42", batch.text(6).toString());
+    assertEquals(42, batch.value(6));
+  }
+
+  @Test
+  void invalidCapacity() {
+    assertThrows(IllegalArgumentException.class, () -> new TokenBatch(0));
+    assertThrows(IllegalArgumentException.class, () -> new TokenBatch(-1));
+  }
+
+  private static void assertBatchesEqual(
+      ArrayList<Token> expected, TokenIterator tokens, TokenBatch batch) {
+    var idx = 0;
+    for (int size = tokens.nextBatch(batch); size != 0; size = tokens.nextBatch(batch)) {
+      for (int batchIdx = 0; batchIdx < size; batchIdx++, idx++) {
+        assertEquals(expected.get(idx), batch.token(batchIdx), "Token at index " + idx);
+      }
+    }
+    assertEquals(expected.size(), idx, "Size");
+  }
+}
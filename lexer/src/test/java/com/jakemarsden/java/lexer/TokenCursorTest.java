@@ -0,0 +1,172 @@
+package com.jakemarsden.java.lexer;
+
+import static com.jakemarsden.java.lexer.TokenTestUtils.allocatedBytes;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.jakemarsden.java.lexer.text.TextPosition;
+import com.jakemarsden.java.lexer.token.CommentType;
+import com.jakemarsden.java.lexer.token.Keyword;
+import com.jakemarsden.java.lexer.token.Operator;
+import com.jakemarsden.java.lexer.token.Separator;
+import com.jakemarsden.java.lexer.token.Token;
+import com.jakemarsden.java.lexer.token.TokenType;
+import java.io.ByteArrayInputStream;
+import java.io.StringReader;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.util.ArrayList;
+import org.junit.jupiter.api.Test;
+
+class TokenCursorTest {
+
+  private static final String SOURCE =
+      "package a.b;\n"
+          + "/** café 😀 */\n"
+          + "class C { // 😀\r\n"
+          + "  boolean x = true != false; int y = 1_000 + 42; char z = '€';\n"
+          + "  String s = \"😀\" + null; # \"unclosed\n"
+          + "}";
+
+  @Test
+  void tokensMatchTokenIterator() {
+    var lexer = new Lexer();
+    var expected = new ArrayList<Token>();
+    lexer.lex(SOURCE).forEachRemaining(expected::add);
+
+    assertCursorEquals(expected, lexer.lexToCursor(SOURCE));
+    assertCursorEquals(expected, lexer.lexToCursor(SOURCE.toCharArray()));
+    assertCursorEquals(expected, lexer.lexToCursor(SOURCE.codePoints().iterator()));
+    assertCursorEquals(expected, lexer.lexToCursor(new StringReader(SOURCE)));
+    var stream = new ByteArrayInputStream(SOURCE.getBytes(UTF_8));
+    assertCursorEquals(expected, lexer.lexToCursor(stream, UTF_8));
+    assertCursorEquals(expected, lexer.lexToCursor(SOURCE.getBytes(UTF_8)));
+
+    var bytes = ("xx" + SOURCE + "xx").getBytes(UTF_8);
+    var buf = ByteBuffer.wrap(bytes, 2, bytes.length - 4);
+    assertCursorEquals(expected, lexer.lexToCursor(buf));
+  }
+
+  @Test
+  void accessors() {
+    var cursor = new Lexer().lexToCursor("int x = 42; // hi\n");
+
+    assertTrue(cursor.advance());
+    assertEquals(TokenType.KEYWORD, cursor.type());
+    assertEquals(Keyword.INT, cursor.keyword());
+    assertNull(cursor.operator());
+
+    skip(cursor, 2);
+    assertEquals(TokenType.IDENTIFIER, cursor.type());
+    assertEquals(4, cursor.start());
+    assertEquals(1, cursor.length());
+    assertEquals("x", cursor.text().toString());
+    assertNull(cursor.keyword());
+
+    skip(cursor, 2);
+    assertEquals(Operator.ASSIGNMENT, cursor.operator());
+    skip(cursor, 2);
+    assertEquals(42, cursor.value());
+    skip(cursor, 1);
+    assertEquals(Separator.SEMICOLON, cursor.separator());
+    skip(cursor, 2);
+    assertEquals(CommentType.LINE, cursor.commentType());
+    assertEquals(TextPosition.of(0, 12, 12), cursor.position());
+    skip(cursor, 1);
+    assertEquals(TokenType.WHITESPACE, cursor.type());
+    assertFalse(cursor.advance());
+  }
+
+  @Test
+  void textIntoBuffer() {
+    var cursor = new Lexer().lexToCursor("/* 😀 */");
+    assertTrue(cursor.advance());
+
+    var buf = CharBuffer.allocate(9);
+    buf.put('x');
+    assertEquals(8, cursor.text(buf));
+    assertEquals("x/* 😀 */", buf.flip().toString());
+
+    var smallBuf = CharBuffer.allocate(8);
+    smallBuf.put('x');
+    assertThrows(BufferOverflowException.class, () -> cursor.text(smallBuf));
+    assertEquals(1, smallBuf.position());
+  }
+
+  @Test
+  void noCurrentToken() {
+    var cursor = new Lexer().lexToCursor("a");
+    assertThrows(IllegalStateException.class, cursor::type);
+    assertThrows(IllegalStateException.class, cursor::keyword);
+    assertThrows(IllegalStateException.class, cursor::text);
+
+    assertTrue(cursor.advance());
+    assertEquals(TokenType.IDENTIFIER, cursor.type());
+
+    assertFalse(cursor.advance());
+    assertThrows(IllegalStateException.class, cursor::start);
+    assertThrows(IllegalStateException.class, () -> cursor.text(CharBuffer.allocate(1)));
+    assertThrows(IllegalStateException.class, cursor::token);
+    assertFalse(cursor.advance());
+  }
+
+  @Test
+  void steadyStateDoesNotAllocate() {
+    var source = new StringBuilder();
+    for (int idx = 0; idx < 2_000; idx++) {
+      source.append("/** Doc. */\npublic static int field").append(idx);
+      source.append(" = (x + 0x1F) >>> 2; // comment\nString s = \"text\";\n");
+    }
+    var bytes = source.toString().getBytes(UTF_8);
+    var buf = CharBuffer.allocate(64);
+
+    // warm up, so that any one-off allocations aren't counted
+    for (int run = 0; run < 3; run++) lexAll(new Lexer().lexToCursor(bytes), buf);
+
+    var cursor = new Lexer().lexToCursor(bytes);
+    var count = new int[1];
+    var allocated = allocatedBytes(() -> count[0] = lexAll(cursor, buf));
+
+    assertTrue(count[0] > 10_000);
+    assertTrue(
+        allocated < count[0], "Allocated " + allocated + " bytes for " + count[0] + " tokens");
+  }
+
+  private static int lexAll(TokenCursor cursor, CharBuffer buf) {
+    var count = 0;
+    while (cursor.advance()) {
+      cursor.type();
+      cursor.keyword();
+      cursor.operator();
+      cursor.start();
+      cursor.length();
+      buf.clear();
+      cursor.text(buf);
+      count++;
+    }
+    return count;
+  }
+
+  private static void skip(TokenCursor cursor, int count) {
+    for (int idx = 0; idx < count; idx++) assertTrue(cursor.advance());
+  }
+
+  private static void assertCursorEquals(ArrayList<Token> expected, TokenCursor cursor) {
+    var buf = CharBuffer.allocate(64);
+    for (int idx = 0; idx < expected.size(); idx++) {
+      assertTrue(cursor.advance(), "Token at index " + idx);
+      assertEquals(expected.get(idx), cursor.token(), "Token at index " + idx);
+      assertEquals(expected.get(idx).type(), cursor.type(), "Type at index " + idx);
+
+      buf.clear();
+      cursor.text(buf);
+      assertEquals(cursor.text().toString(), buf.flip().toString(), "Text at index " + idx);
+    }
+    assertFalse(cursor.advance());
+  }
+}
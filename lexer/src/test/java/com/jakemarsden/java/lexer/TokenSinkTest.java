@@ -0,0 +1,162 @@
+package com.jakemarsden.java.lexer;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.jakemarsden.java.lexer.token.CommentType;
+import com.jakemarsden.java.lexer.token.Keyword;
+import com.jakemarsden.java.lexer.token.Operator;
+import com.jakemarsden.java.lexer.token.Separator;
+import com.jakemarsden.java.lexer.token.TokenType;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+import org.junit.jupiter.api.Test;
+
+class TokenSinkTest {
+
+  private static final String SOURCE =
+      "package a.b;\n"
+          + "/** café 😀 */\n"
+          + "class C { // 😀\r\n"
+          + "  boolean x = true != false; int y = 1_000 + 42; char z = '€';\n"
+          + "  String s = \"😀\" + null; # \"unclosed\n"
+          + "}";
+
+  @Test
+  void callbacksMatchTokenCursor() {
+    var lexer = new Lexer();
+    var expected = new ArrayList<String>();
+    var cursor = lexer.lexToCursor(SOURCE);
+    while (cursor.advance()) expected.add(describe(cursor));
+
+    assertEquals(expected, record(sink -> lexer.lex(SOURCE, sink)));
+    assertEquals(expected, record(sink -> lexer.lex(SOURCE.toCharArray(), sink)));
+    assertEquals(expected, record(sink -> lexer.lex(new StringReader(SOURCE), sink)));
+    assertEquals(expected, record(sink -> lexer.lex(SOURCE.getBytes(UTF_8), sink)));
+  }
+
+  @Test
+  void literalTextAndInvalidLength() {
+    var source = "'a' \"😀\" true 42 # \"unclosed\n/* unclosed";
+    var expected =
+        List.of(
+            "CHARACTER_LITERAL 'a'@0+3",
+            "STRING_LITERAL \"😀\"@4+3",
+            "BOOLEAN_LITERAL true@8+4",
+            "NUMBER_LITERAL 42@13+2",
+            "INVALID@16+1",
+            "INVALID@18+9",
+            "INVALID@28+11");
+    var events = new ArrayList<String>();
+    var sink =
+        new TokenSink() {
+          @Override
+          public boolean onLiteral(TokenType type, CharSequence text, long start, long length) {
+            return events.add(type + " " + text + "@" + start + "+" + length);
+          }
+
+          @Override
+          public boolean onInvalid(long start, long length) {
+            return events.add("INVALID@" + start + "+" + length);
+          }
+        };
+
+    assertTrue(new Lexer().lex(new StringReader(source), sink));
+    assertEquals(expected, events);
+  }
+
+  @Test
+  void stopsEarly() {
+    var identifiers = new ArrayList<String>();
+    var sink =
+        new TokenSink() {
+          @Override
+          public boolean onIdentifier(CharSequence text, long start) {
+            identifiers.add(text.toString());
+            return identifiers.size() < 2;
+          }
+        };
+
+    assertFalse(new Lexer().lex("a + b + c + d", sink));
+    assertEquals(List.of("a", "b"), identifiers);
+  }
+
+  @Test
+  void defaultCallbacksContinue() {
+    assertTrue(new Lexer().lex(SOURCE, new TokenSink() {}));
+    assertTrue(new Lexer().lex("", new TokenSink() {}));
+  }
+
+  private static String describe(TokenCursor cursor) {
+    switch (cursor.type()) {
+      case KEYWORD:
+        return cursor.keyword() + "@" + cursor.start() + "+" + cursor.length();
+      case IDENTIFIER:
+        return cursor.text() + "@" + cursor.start();
+      case OPERATOR:
+        return cursor.operator() + "@" + cursor.start();
+      case SEPARATOR:
+        return cursor.separator() + "@" + cursor.start();
+      case COMMENT:
+        return cursor.commentType() + "@" + cursor.start() + "+" + cursor.length();
+      case WHITESPACE:
+        return "WHITESPACE@" + cursor.start() + "+" + cursor.length();
+      case INVALID:
+        return "INVALID@" + cursor.start() + "+" + cursor.length();
+      default:
+        return cursor.type() + " " + cursor.text() + "@" + cursor.start() + "+" + cursor.length();
+    }
+  }
+
+  private static List<String> record(Predicate<TokenSink> lex) {
+    var events = new ArrayList<String>();
+    var sink =
+        new TokenSink() {
+          @Override
+          public boolean onKeyword(Keyword keyword, long start, long length) {
+            return events.add(keyword + "@" + start + "+" + length);
+          }
+
+          @Override
+          public boolean onIdentifier(CharSequence text, long start) {
+            return events.add(text + "@" + start);
+          }
+
+          @Override
+          public boolean onOperator(Operator operator, long start) {
+            return events.add(operator + "@" + start);
+          }
+
+          @Override
+          public boolean onSeparator(Separator separator, long start) {
+            return events.add(separator + "@" + start);
+          }
+
+          @Override
+          public boolean onComment(CommentType type, long start, long length) {
+            return events.add(type + "@" + start + "+" + length);
+          }
+
+          @Override
+          public boolean onLiteral(TokenType type, CharSequence text, long start, long length) {
+            return events.add(type + " " + text + "@" + start + "+" + length);
+          }
+
+          @Override
+          public boolean onWhitespace(long start, long length) {
+            return events.add("WHITESPACE@" + start + "+" + length);
+          }
+
+          @Override
+          public boolean onInvalid(long start, long length) {
+            return events.add("INVALID@" + start + "+" + length);
+          }
+        };
+    assertTrue(lex.test(sink));
+    return events;
+  }
+}
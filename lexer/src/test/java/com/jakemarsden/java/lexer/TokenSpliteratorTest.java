@@ -0,0 +1,80 @@
+package com.jakemarsden.java.lexer;
+
+import static java.util.stream.Collectors.toList;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.jakemarsden.java.lexer.text.CharSequenceTextParser;
+import com.jakemarsden.java.lexer.token.Token;
+import com.jakemarsden.java.lexer.token.TokenType;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Spliterator;
+import org.junit.jupiter.api.Test;
+
+class TokenSpliteratorTest {
+
+  private static final String SOURCE =
+      "package a.b;\n/* café\n 😀 */\nclass C { int x = 42; String s = \"😀\"; }\r\n".repeat(500);
+
+  @Test
+  void sequentialStreamMatchesIterator() {
+    var expected = lexAll(SOURCE);
+    var lexer = new Lexer();
+    assertEquals(expected, lexer.stream(SOURCE).collect(toList()));
+    assertEquals(expected, lexer.stream(SOURCE.toCharArray()).collect(toList()));
+    assertEquals(expected, lexer.stream(new StringReader(SOURCE)).collect(toList()));
+  }
+
+  @Test
+  void parallelStreamMatchesIterator() {
+    var expected = lexAll(SOURCE);
+    var actual = new Lexer().stream(SOURCE).parallel().collect(toList());
+    assertEquals(expected, actual);
+
+    var identifiers = expected.stream().filter(t -> t.type() == TokenType.IDENTIFIER).count();
+    assertEquals(
+        identifiers,
+        new Lexer()
+            .stream(SOURCE).parallel().filter(t -> t.type() == TokenType.IDENTIFIER).count());
+  }
+
+  @Test
+  void splitsAtTokenBoundaries() {
+    var expected = lexAll(SOURCE);
+    var spliterator = initObjUnderTest(SOURCE);
+    assertTrue(spliterator.hasCharacteristics(Spliterator.ORDERED | Spliterator.NONNULL));
+    assertEquals(SOURCE.length() / 4, spliterator.estimateSize());
+
+    var actual = new ArrayList<Token>();
+    for (int idx = 0; idx < 3; idx++) spliterator.tryAdvance(actual::add);
+    var prefix = spliterator.trySplit();
+    assertNotNull(prefix);
+    assertTrue(spliterator.hasCharacteristics(Spliterator.SIZED | Spliterator.SUBSIZED));
+    assertEquals(expected.size() - 3, prefix.estimateSize() + spliterator.estimateSize());
+
+    prefix.forEachRemaining(actual::add);
+    spliterator.forEachRemaining(actual::add);
+    assertEquals(expected, actual);
+  }
+
+  @Test
+  void smallTextIsntSplit() {
+    assertNull(initObjUnderTest("class C {}").trySplit());
+    var unsplittable = new TokenSpliterator(new CharSequenceTextParser(SOURCE), null);
+    assertNull(unsplittable.trySplit());
+    assertEquals(Long.MAX_VALUE, unsplittable.estimateSize());
+  }
+
+  private static ArrayList<Token> lexAll(String source) {
+    var tokens = new ArrayList<Token>();
+    new Lexer().lex(source).forEachRemaining(tokens::add);
+    return tokens;
+  }
+
+  private static TokenSpliterator initObjUnderTest(String source) {
+    return new TokenSpliterator(new CharSequenceTextParser(source), source);
+  }
+}
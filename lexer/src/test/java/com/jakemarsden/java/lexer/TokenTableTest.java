@@ -0,0 +1,92 @@
+package com.jakemarsden.java.lexer;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.jakemarsden.java.lexer.text.TextPosition;
+import com.jakemarsden.java.lexer.token.CommentType;
+import com.jakemarsden.java.lexer.token.Keyword;
+import com.jakemarsden.java.lexer.token.Operator;
+import com.jakemarsden.java.lexer.token.Separator;
+import com.jakemarsden.java.lexer.token.Token;
+import com.jakemarsden.java.lexer.token.TokenType;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import org.junit.jupiter.api.Test;
+
+class TokenTableTest {
+
+  private static final String SOURCE =
+      "package a.b;\n"
+          + "/** café 😀 */\n"
+          + "class C { // 😀\r\n"
+          + "  boolean x = true != false; int y = 1_000 + 42; char z = '€';\n"
+          + "  String s = \"😀\" + null; # \"unclosed\n"
+          + "}";
+
+  @Test
+  void tokensMatchTokenIterator() {
+    var lexer = new Lexer();
+    var expected = new ArrayList<Token>();
+    lexer.lex(SOURCE).forEachRemaining(expected::add);
+
+    assertTableEquals(expected, lexer.lexToTable(SOURCE));
+    assertTableEquals(expected, lexer.lexToTable(SOURCE.toCharArray()));
+    assertTableEquals(expected, lexer.lexToTable(SOURCE.getBytes(UTF_8)));
+
+    var bytes = ("xx" + SOURCE + "xx").getBytes(UTF_8);
+    var buf = ByteBuffer.wrap(bytes, 2, bytes.length - 4);
+    assertTableEquals(expected, lexer.lexToTable(buf));
+  }
+
+  @Test
+  void accessors() {
+    var table = new Lexer().lexToTable("int x = 42; // hi\n");
+    assertEquals(11, table.size());
+
+    assertEquals(TokenType.KEYWORD, table.type(0));
+    assertEquals(Keyword.INT, table.keyword(0));
+    assertEquals(Keyword.INT.ordinal(), table.subtype(0));
+    assertNull(table.operator(0));
+
+    assertEquals(TokenType.IDENTIFIER, table.type(2));
+    assertEquals(4, table.start(2));
+    assertEquals(1, table.length(2));
+    assertEquals("x", table.text(2).toString());
+    assertNull(table.keyword(2));
+
+    assertEquals(Operator.ASSIGNMENT, table.operator(4));
+    assertEquals(42, table.value(6));
+    assertEquals("42", table.text(6).toString());
+    assertEquals(Separator.SEMICOLON, table.separator(7));
+    assertEquals(CommentType.LINE, table.commentType(9));
+    assertEquals("// hi", table.text(9).toString());
+    assertEquals(TextPosition.of(0, 12, 12), table.position(9));
+    assertEquals(TextPosition.of(0, 17, 17), table.position(10));
+  }
+
+  @Test
+  void emptySource() {
+    var table = new Lexer().lexToTable("");
+    assertEquals(0, table.size());
+    assertThrows(IndexOutOfBoundsException.class, () -> table.type(0));
+  }
+
+  @Test
+  void invalidIndex() {
+    var table = new Lexer().lexToTable("a b");
+    assertThrows(IndexOutOfBoundsException.class, () -> table.type(-1));
+    assertThrows(IndexOutOfBoundsException.class, () -> table.text(3));
+    assertThrows(IndexOutOfBoundsException.class, () -> table.token(3));
+  }
+
+  private static void assertTableEquals(ArrayList<Token> expected, TokenTable table) {
+    assertEquals(expected.size(), table.size(), "Size");
+    for (int idx = 0; idx < expected.size(); idx++) {
+      assertEquals(expected.get(idx), table.token(idx), "Token at index " + idx);
+      assertEquals(expected.get(idx).type(), table.type(idx), "Type at index " + idx);
+    }
+  }
+}
@@ -3,8 +3,10 @@ package com.jakemarsden.java.lexer;
 import static java.lang.String.format;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
 
 import com.jakemarsden.java.lexer.token.Token;
+import java.lang.management.ManagementFactory;
 import java.util.Arrays;
 import java.util.Iterator;
 
@@ -29,6 +31,24 @@ final class TokenTestUtils {
         () -> format("Unexpected token at index %d: %s", finalIdx, actualItr.next()));
   }
 
+  /**
+   * @return the number of bytes allocated by the current thread while running the {@code action}.
+   *     Skips the calling test if allocation can't be measured
+   */
+  static long allocatedBytes(Runnable action) {
+    assumeTrue(
+        ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean,
+        "Thread allocation can't be measured");
+    var threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    assumeTrue(threads.isThreadAllocatedMemorySupported(), "Thread allocation can't be measured");
+    threads.setThreadAllocatedMemoryEnabled(true);
+
+    var threadId = Thread.currentThread().getId();
+    var before = threads.getThreadAllocatedBytes(threadId);
+    action.run();
+    return threads.getThreadAllocatedBytes(threadId) - before;
+  }
+
   private TokenTestUtils() {
     throw new UnsupportedOperationException();
   }
@@ -0,0 +1,76 @@
+package com.jakemarsden.java.lexer.parser;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.jakemarsden.java.lexer.text.CharSequenceTextParser;
+import com.jakemarsden.java.lexer.token.Keyword;
+import com.jakemarsden.java.lexer.token.Operator;
+import com.jakemarsden.java.lexer.token.Separator;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.function.Function;
+import org.junit.jupiter.api.Test;
+
+class LexicalDfaTest {
+
+  @Test
+  void specCoversEveryOperatorSeparatorAndKeyword() {
+    assertEquals(Set.of(Operator.values()), namesOf(LexicalDfa.OPERATOR, Operator::valueOf));
+    assertEquals(Set.of(Separator.values()), namesOf(LexicalDfa.SEPARATOR, Separator::valueOf));
+    assertEquals(Set.of(Keyword.values()), namesOf(LexicalDfa.KEYWORD, Keyword::valueOf));
+  }
+
+  @Test
+  void everyRuleMatchesItsOwnText() {
+    for (int rule = 0; rule < LexicalDfa.ruleCount(); rule++) {
+      assertEquals(rule, longestMatch(LexicalDfa.text(rule)), LexicalDfa.text(rule));
+    }
+  }
+
+  @Test
+  void matchesLongestRule() {
+    assertEquals(">>=", textOfLongestMatch(">>=>"));
+    assertEquals(">>>", textOfLongestMatch(">>>>"));
+    assertEquals(".", textOfLongestMatch("..a"));
+    assertEquals("...", textOfLongestMatch("...."));
+    assertEquals("::", textOfLongestMatch("::"));
+    assertEquals(":", textOfLongestMatch(":a"));
+    assertEquals("//", textOfLongestMatch("///"));
+    assertEquals("/", textOfLongestMatch("/a"));
+  }
+
+  @Test
+  void wordsOnlyMatchWholeWords() {
+    assertEquals("if", textOfLongestMatch("if("));
+    assertEquals("null", textOfLongestMatch("null;"));
+    assertEquals(LexicalDfa.NO_MATCH, longestMatch("iffy"));
+    assertEquals(LexicalDfa.NO_MATCH, longestMatch("_a"));
+    assertEquals(LexicalDfa.NO_MATCH, longestMatch("null1"));
+  }
+
+  @Test
+  void noMatch() {
+    assertEquals(LexicalDfa.NO_MATCH, longestMatch(""));
+    assertEquals(LexicalDfa.NO_MATCH, longestMatch("#"));
+    assertEquals(LexicalDfa.NO_MATCH, longestMatch("é"));
+    assertTrue(LexicalDfa.ruleCount() > 0);
+  }
+
+  private static <T> Set<T> namesOf(int category, Function<String, T> valueOf) {
+    var values = new HashSet<T>();
+    for (int rule = 0; rule < LexicalDfa.ruleCount(); rule++) {
+      if (LexicalDfa.category(rule) == category) values.add(valueOf.apply(LexicalDfa.name(rule)));
+    }
+    return values;
+  }
+
+  private static String textOfLongestMatch(String text) {
+    var rule = longestMatch(text);
+    return rule == LexicalDfa.NO_MATCH ? null : LexicalDfa.text(rule);
+  }
+
+  private static int longestMatch(String text) {
+    return LexicalDfa.longestMatch(new CharSequenceTextParser(text));
+  }
+}
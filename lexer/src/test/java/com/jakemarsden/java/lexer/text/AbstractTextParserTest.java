@@ -0,0 +1,144 @@
+package com.jakemarsden.java.lexer.text;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.jakemarsden.java.lexer.parser.TokenScanner;
+import com.jakemarsden.java.lexer.token.TokenType;
+import java.nio.CharBuffer;
+import org.junit.jupiter.api.Test;
+
+class AbstractTextParserTest {
+
+  private static final long LARGE = 3L * Integer.MAX_VALUE;
+
+  @Test
+  void skipsRunsBeyondIntegerRange() {
+    var p = new RunTextParser("", ' ', LARGE, "x");
+    assertEquals(LARGE, p.skipWhile(CharClass.WHITESPACE));
+    assertEquals(LARGE, p.getCharIndex());
+    assertEquals('x', p.peek());
+
+    p = new RunTextParser("", 'a', LARGE, "\"");
+    assertEquals(LARGE, p.skipUntil(CharClass.DOUBLE_QUOTE));
+    assertEquals('"', p.peek());
+  }
+
+  @Test
+  void scansTokensBeyondIntegerRange() {
+    var scanner = new TokenScanner(new RunTextParser("", ' ', LARGE, "x"));
+    assertTrue(scanner.advance());
+    assertEquals(TokenType.WHITESPACE, scanner.type());
+    assertEquals(LARGE, scanner.length());
+    assertTrue(scanner.advance());
+    assertEquals(TokenType.IDENTIFIER, scanner.type());
+    assertEquals(LARGE, scanner.start());
+
+    scanner = new TokenScanner(new RunTextParser("//", 'a', LARGE, "\n"));
+    assertTrue(scanner.advance());
+    assertEquals(TokenType.COMMENT, scanner.type());
+    assertEquals(2 + LARGE, scanner.length());
+    assertTrue(scanner.advance());
+    assertEquals(1, scanner.parser().getPosition().line());
+
+    scanner = new TokenScanner(new RunTextParser("/*", 'a', LARGE, "*/"));
+    assertTrue(scanner.advance());
+    assertEquals(TokenType.COMMENT, scanner.type());
+    assertEquals(4 + LARGE, scanner.length());
+    assertFalse(scanner.advance());
+  }
+
+  /**
+   * A {@code prefix}, followed by a run of {@code count} copies of a single ASCII character,
+   * followed by a {@code suffix}, without the run ever being held in memory.
+   */
+  private static final class RunTextParser extends AbstractTextParser {
+
+    private final String prefix;
+    private final char ch;
+    private final long count;
+    private final String suffix;
+    private final long end;
+
+    private long idx;
+    private long markIdx;
+
+    RunTextParser(String prefix, char ch, long count, String suffix) {
+      this.prefix = prefix;
+      this.ch = ch;
+      this.count = count;
+      this.suffix = suffix;
+      this.end = prefix.length() + count + suffix.length();
+    }
+
+    @Override
+    public boolean hasRemaining(int count) {
+      return this.idx + count <= this.end;
+    }
+
+    @Override
+    public int peek(int offset) {
+      return this.charAt(this.idx + offset);
+    }
+
+    @Override
+    int read() {
+      var ch = this.charAt(this.idx);
+      if (ch != EOF) this.idx++;
+      return ch;
+    }
+
+    @Override
+    void markIndex() {
+      this.markIdx = this.idx;
+    }
+
+    @Override
+    void resetIndex() {
+      this.idx = this.markIdx;
+    }
+
+    /** Skips as much of the run as a single {@code int} can count, as the real parsers do. */
+    @Override
+    int skipAscii(int mask, int expected) {
+      var runStart = (long) this.prefix.length();
+      var runEnd = runStart + this.count;
+      if (this.idx < runStart || this.idx >= runEnd) return 0;
+      if ((CharClass.ASCII_CLASSES[this.ch] & mask) != expected) return 0;
+
+      var skipped = (int) Math.min(runEnd - this.idx, Integer.MAX_VALUE);
+      this.idx += skipped;
+      return skipped;
+    }
+
+    @Override
+    CharSequence markedText() {
+      var out = CharBuffer.allocate(Math.toIntExact(this.idx - this.markIdx));
+      this.markedText(out);
+      return out.flip();
+    }
+
+    @Override
+    void markedText(CharBuffer out) {
+      for (long idx = this.markIdx; idx < this.idx; idx++) out.put((char) this.charAt(idx));
+    }
+
+    @Override
+    public boolean isTextHeld() {
+      return false;
+    }
+
+    @Override
+    CharSequence text(long fromCharIdx, long toCharIdx) {
+      throw new UnsupportedOperationException();
+    }
+
+    private int charAt(long idx) {
+      if (idx < 0 || idx >= this.end) return EOF;
+      if (idx < this.prefix.length()) return this.prefix.charAt((int) idx);
+      var suffixIdx = idx - this.prefix.length() - this.count;
+      return suffixIdx < 0 ? this.ch : this.suffix.charAt((int) suffixIdx);
+    }
+  }
+}
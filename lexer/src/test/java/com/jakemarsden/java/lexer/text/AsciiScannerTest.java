@@ -0,0 +1,75 @@
+package com.jakemarsden.java.lexer.text;
+
+import static com.jakemarsden.java.lexer.text.CharClass.*;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Runs against whichever implementation is in use, so also covers the vectorized one on JDK 21+.
+ */
+class AsciiScannerTest {
+
+  private static final int[][] SCANS = {
+    {WHITESPACE, WHITESPACE},
+    {IDENTIFIER_PART, IDENTIFIER_PART},
+    {HEX_DIGIT, HEX_DIGIT},
+    {ASTERISK, 0},
+    {DOUBLE_QUOTE | LINE_FEED | LINE_TERMINATOR, 0},
+    {WHITESPACE | LINE_TERMINATOR, WHITESPACE},
+    {IDENTIFIER_PART | HEX_DIGIT | SLASH, IDENTIFIER_PART},
+  };
+
+  @Test
+  void longRuns() {
+    var text =
+        ByteBuffer.wrap(("  \t\n".repeat(100) + "abc_$123".repeat(100) + "€").getBytes(UTF_8));
+    assertEquals(400, AsciiScanner.skip(text, 0, text.limit(), WHITESPACE, WHITESPACE));
+    assertEquals(
+        1200, AsciiScanner.skip(text, 400, text.limit(), IDENTIFIER_PART, IDENTIFIER_PART));
+    assertEquals(1200, AsciiScanner.skip(text, 0, text.limit(), ASTERISK, 0), "Stops at non-ASCII");
+    assertEquals(300, AsciiScanner.skip(text, 0, 300, ASTERISK, 0), "Stops at the end");
+  }
+
+  @Test
+  void matchesByteAtATimeScan() {
+    var random = new Random(0);
+    var alphabet = " \t\n\r\"'*/\\az_$09fG;\u007F".getBytes(UTF_8);
+    for (int iteration = 0; iteration < 200; iteration++) {
+      var bytes = new byte[random.nextInt(300)];
+      for (int idx = 0; idx < bytes.length; idx++) {
+        var nonAscii = random.nextInt(50) == 0;
+        bytes[idx] = nonAscii ? (byte) 0xC3 : alphabet[random.nextInt(alphabet.length)];
+      }
+      // both the array and a slice of it which starts part-way through
+      var offset = bytes.length == 0 ? 0 : random.nextInt(bytes.length);
+      var slice = ByteBuffer.wrap(bytes, offset, bytes.length - offset).slice();
+      for (var scan : SCANS) {
+        for (int from = 0; from < bytes.length; from += 1 + random.nextInt(40)) {
+          var text = ByteBuffer.wrap(bytes);
+          var expected = scanBytes(text, from, bytes.length, scan[0], scan[1]);
+          assertEquals(expected, AsciiScanner.skip(text, from, bytes.length, scan[0], scan[1]));
+          assertEquals(
+              expected,
+              AsciiScanner.skip(text.asReadOnlyBuffer(), from, bytes.length, scan[0], scan[1]));
+          if (from >= offset) {
+            assertEquals(
+                expected - offset,
+                AsciiScanner.skip(slice, from - offset, slice.limit(), scan[0], scan[1]));
+          }
+        }
+      }
+    }
+  }
+
+  private static int scanBytes(ByteBuffer text, int from, int to, int mask, int expected) {
+    for (int idx = from; idx < to; idx++) {
+      var b = text.get(idx);
+      if (b < 0 || (CharClass.ASCII_CLASSES[b] & mask) != expected) return idx;
+    }
+    return to;
+  }
+}
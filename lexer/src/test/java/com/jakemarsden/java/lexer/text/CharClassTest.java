@@ -0,0 +1,54 @@
+package com.jakemarsden.java.lexer.text;
+
+import static com.jakemarsden.java.lexer.text.CharClass.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class CharClassTest {
+
+  @Test
+  void whitespaceMatchesCharacterIsWhitespace() {
+    for (int ch = 0; ch < 0x3100; ch++) {
+      assertEquals(Character.isWhitespace(ch), CharClass.matches(ch, WHITESPACE), "U+" + ch);
+    }
+    assertFalse(CharClass.matches(TextParser.EOF, WHITESPACE));
+  }
+
+  @Test
+  void identifiers() {
+    assertTrue(CharClass.matches('a', IDENTIFIER_START));
+    assertTrue(CharClass.matches('$', IDENTIFIER_START));
+    assertTrue(CharClass.matches('_', IDENTIFIER_START));
+    assertFalse(CharClass.matches('1', IDENTIFIER_START));
+    assertTrue(CharClass.matches('1', IDENTIFIER_PART));
+    assertFalse(CharClass.matches('-', IDENTIFIER_PART));
+    assertFalse(CharClass.matches('é', IDENTIFIER_PART));
+  }
+
+  @Test
+  void digits() {
+    assertTrue(CharClass.matches('1', digit(2)));
+    assertFalse(CharClass.matches('2', digit(2)));
+    assertTrue(CharClass.matches('7', digit(8)));
+    assertFalse(CharClass.matches('8', digit(8)));
+    assertTrue(CharClass.matches('9', digit(10)));
+    assertFalse(CharClass.matches('a', digit(10)));
+    assertTrue(CharClass.matches('F', digit(16)));
+    assertFalse(CharClass.matches('g', digit(16)));
+    assertThrows(IllegalArgumentException.class, () -> digit(3));
+  }
+
+  @Test
+  void combinedClasses() {
+    assertTrue(CharClass.matches('"', DOUBLE_QUOTE | LINE_FEED));
+    assertTrue(CharClass.matches('\n', DOUBLE_QUOTE | LINE_FEED));
+    assertFalse(CharClass.matches('\r', DOUBLE_QUOTE | LINE_FEED));
+    assertTrue(CharClass.matches('/', SLASH | BACKSLASH));
+    assertTrue(CharClass.matches('\\', SLASH | BACKSLASH));
+    assertFalse(CharClass.matches('*', SLASH | BACKSLASH));
+  }
+}
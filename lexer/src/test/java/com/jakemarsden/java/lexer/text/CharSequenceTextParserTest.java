@@ -0,0 +1,158 @@
+package com.jakemarsden.java.lexer.text;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class CharSequenceTextParserTest {
+
+  @Test
+  void consumeExact() {
+    var p = initObjUnderTest("abcd");
+    assertDoesNotThrow(() -> p.consumeExact('a'));
+    assertEquals(TextPosition.of(0, 1, 1), p.getPosition(), "Position did advance");
+  }
+
+  @Test
+  void consumeExactThrowsOnBadChar() {
+    var p = initObjUnderTest("abcd");
+    assertThrows(IllegalStateException.class, () -> p.consumeExact('b'));
+    assertEquals(TextPosition.start(), p.getPosition(), "Position did not advance");
+  }
+
+  @Test
+  void consumeExactCharSequence() {
+    var p = initObjUnderTest("abcd");
+    assertDoesNotThrow(() -> p.consumeExact("ab"));
+    assertEquals(TextPosition.of(0, 2, 2), p.getPosition(), "Position did advance");
+  }
+
+  @Test
+  void consumeExactCharSequenceThrowsWhenExpectationIsTooLong() {
+    var p = initObjUnderTest("abcd");
+    assertThrows(IllegalStateException.class, () -> p.consumeExact("abcde"));
+    assertEquals(TextPosition.start(), p.getPosition(), "Position did not advance");
+  }
+
+  @Test
+  void surrogatePairsAreCombined() {
+    // 😀 has 2 chars but 1 code point
+    var p = initObjUnderTest("a😀b");
+    assertTrue(p.hasRemaining(3));
+    assertFalse(p.hasRemaining(4));
+    assertEquals(0x1F600, p.peek(1));
+    assertEquals('b', p.peek(2));
+    assertEquals(TextParser.EOF, p.peek(3));
+
+    p.skip(2);
+    assertEquals(TextPosition.of(0, 2, 2), p.getPosition());
+    assertEquals('b', p.consume());
+    assertEquals(TextParser.EOF, p.consume());
+  }
+
+  @Test
+  void unpairedSurrogatesAreReturnedAsIs() {
+    var p = initObjUnderTest("\uDE00\uD83D");
+    assertEquals(0xDE00, p.consume());
+    assertEquals(0xD83D, p.consume());
+    assertEquals(TextParser.EOF, p.consume());
+  }
+
+  @Test
+  void charArrayRange() {
+    var p = new CharSequenceTextParser("abcdef".toCharArray(), 1, 3);
+    assertEquals('b', p.consume());
+    assertEquals('d', p.peek(1));
+    assertEquals(TextParser.EOF, p.peek(2));
+  }
+
+  @Test
+  void markAndReset() {
+    var p = initObjUnderTest("abcd");
+    p.skip(1);
+    p.mark();
+    p.skip(2);
+    p.reset();
+    assertEquals(TextPosition.of(0, 1, 1), p.getPosition(), "Position was reset");
+    assertEquals('b', p.consume());
+  }
+
+  @Test
+  void markedTextIsAViewOfTheBackingText() {
+    var text = "ab😀cd".toCharArray();
+    var p = new CharSequenceTextParser(text);
+    p.skip(1);
+    p.mark();
+    p.skip(2);
+    var markedText = p.getMarkedText();
+    assertEquals("b😀", markedText.toString());
+    assertEquals("b😀".hashCode(), markedText.hashCode());
+    assertEquals(textOf("xb😀y", 1, 3), markedText, "Slices of the same characters are equal");
+    assertNotEquals(textOf("xb😁y", 1, 3), markedText);
+    assertNotEquals("b😀", markedText);
+    assertEquals("😀", markedText.subSequence(1, 3).toString());
+
+    text[1] = 'x';
+    assertEquals('x', markedText.charAt(0), "Text was not copied");
+  }
+
+  @Test
+  void skipWhileAndSkipUntil() {
+    var p = new CharSequenceTextParser(" \r\n\u2003ab😀\"".toCharArray());
+    assertEquals(4, p.skipWhile(CharClass.WHITESPACE));
+    assertEquals(TextPosition.of(1, 1, 4), p.getPosition());
+    assertEquals(3, p.skipUntil(CharClass.DOUBLE_QUOTE), "Surrogate pair is a single character");
+    assertEquals('"', p.peek());
+  }
+
+  @Test
+  void textOfEarlierCharacters() {
+    var p = new CharSequenceTextParser("xxa😀b\nc😀d".toCharArray(), 2, 9);
+    p.skip(7);
+    assertEquals("a😀b", p.getText(0, 3).toString());
+    assertEquals("😀d", p.getText(5, 7).toString(), "After a surrogate pair");
+    assertEquals("", p.getText(7, 7).toString());
+    assertEquals(TextPosition.of(1, 1, 5), p.positionOf(5));
+    assertEquals(p.getPosition(), p.positionOf(7));
+    assertThrows(IllegalArgumentException.class, () -> p.getText(2, 1));
+    assertThrows(IllegalArgumentException.class, () -> p.getText(0, 8), "Not passed yet");
+    assertThrows(IllegalArgumentException.class, () -> p.positionOf(-1));
+    assertThrows(IllegalArgumentException.class, () -> p.positionOf(8));
+  }
+
+  @Test
+  void setTextStartsAgain() {
+    var p = initObjUnderTest("a😀b\nc\nd");
+    p.skip(6);
+    p.mark();
+
+    p.setText("😀x\ny");
+    assertEquals(TextPosition.start(), p.getPosition());
+    assertThrows(IllegalStateException.class, p::reset, "Mark is forgotten");
+    p.skip(4);
+    assertEquals("x\n", p.getText(1, 3).toString());
+    assertEquals(TextPosition.of(1, 0, 3), p.positionOf(3));
+    assertEquals(TextPosition.of(1, 1, 4), p.getPosition());
+
+    p.setText("xxab".toCharArray(), 2, 2);
+    assertEquals('a', p.consume());
+    assertEquals('b', p.consume());
+    assertEquals(TextParser.EOF, p.consume());
+  }
+
+  private static CharSequenceTextParser initObjUnderTest(String text) {
+    return new CharSequenceTextParser(text);
+  }
+
+  /** @return a slice of the code points in the range {@code [from, to)} of the {@code text} */
+  private static CharSequence textOf(String text, int from, int to) {
+    var p = new CharSequenceTextParser(text);
+    p.skip(to);
+    return p.getText(from, to);
+  }
+}
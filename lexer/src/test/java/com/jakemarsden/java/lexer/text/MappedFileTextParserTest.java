@@ -0,0 +1,126 @@
+package com.jakemarsden.java.lexer.text;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class MappedFileTextParserTest {
+
+  @TempDir Path tempDir;
+
+  @Test
+  void decodesMultiByteCharacters() throws IOException {
+    // 1, 2, 3 and 4 byte sequences
+    var text = "aé€😀b";
+    var p = initObjUnderTest(text.getBytes(UTF_8), 64);
+    assertTrue(p.hasRemaining(5));
+    assertFalse(p.hasRemaining(6));
+    assertEquals(0x1F600, p.peek(3));
+    assertEquals(text, consumeAll(p));
+    assertEquals(TextPosition.of(0, 5, 5), p.getPosition());
+  }
+
+  @Test
+  void slidesWindowAcrossFile() throws IOException {
+    var text = "abc€defghij😀klmnopqrstuvwxyz\n".repeat(8);
+    var p = initObjUnderTest(text.getBytes(UTF_8), 5);
+    assertEquals(text, consumeAll(p));
+  }
+
+  @Test
+  void markAndResetAcrossWindows() throws IOException {
+    var text = "abcdefghijklmnopqrstuvwxyz";
+    var p = initObjUnderTest(text.getBytes(UTF_8), 4);
+    p.skip(2);
+    p.mark();
+    p.skip(20);
+    assertEquals('w', p.peek());
+    p.reset();
+    assertEquals(TextPosition.of(0, 2, 2), p.getPosition());
+    assertEquals('c', p.consume());
+  }
+
+  @Test
+  void markedTextAcrossWindows() throws IOException {
+    var text = "abcdefghij€klmnopqrstuvwxyz";
+    var p = initObjUnderTest(text.getBytes(UTF_8), 4);
+    p.skip(2);
+    p.mark();
+    p.skip(6);
+    assertEquals("cdefgh", p.getMarkedText().toString());
+    p.skip(4);
+    assertEquals("cdefghij€k", p.getMarkedText().toString());
+    assertEquals('l', p.consume());
+  }
+
+  @Test
+  void skipWhileAcrossWindows() throws IOException {
+    var text = "abcdefghij€klmnopqrstuvwxyz;";
+    var p = initObjUnderTest(text.getBytes(UTF_8), 4);
+    p.skip(2);
+    p.mark();
+    assertEquals(8, p.skipWhile(CharClass.IDENTIFIER_PART));
+    assertEquals(0x20AC, p.peek());
+    p.reset();
+    assertEquals(26, p.skipUntil(CharClass.DOUBLE_QUOTE | CharClass.LINE_FEED));
+    assertFalse(p.hasRemaining());
+  }
+
+  @Test
+  void skipsByteOrderMark() throws IOException {
+    var p = initObjUnderTest(new byte[] {(byte) 0xEF, (byte) 0xBB, (byte) 0xBF, 'a'}, 64);
+    assertEquals("a", consumeAll(p));
+  }
+
+  @Test
+  void malformedSequencesAreReplaced() throws IOException {
+    var p = initObjUnderTest(new byte[] {'a', (byte) 0xE2, 'b', (byte) 0x82}, 64);
+    assertEquals("a�b�", consumeAll(p));
+  }
+
+  @Test
+  void malformedSequencesAreReplacedLikeUtf8Charset() throws IOException {
+    // out of range, overlong, surrogate and truncated sequences, some straddling windows
+    var content =
+        bytes(
+            'a', 0xF7, 0xBF, 0xBF, 0xBF, 'b', 0xF4, 0x90, 0x80, 0x80, 'c', 0xC0, 0xAF, 'd', 0xE0,
+            0x80, 0xAF, 'e', 0xF0, 0x8F, 0xBF, 0xBF, 'f', 0xED, 0xA0, 0x80, 'g', 0xF4, 0x8F, 0xBF,
+            0xBF, 'h', 0xF0, 0x90, 0x80);
+    for (var windowSize : new int[] {3, 4, 5, 64}) {
+      var p = initObjUnderTest(content, windowSize);
+      assertEquals(new String(content, UTF_8), consumeAll(p), "window size " + windowSize);
+    }
+  }
+
+  @Test
+  void emptyFile() throws IOException {
+    var p = initObjUnderTest(new byte[0], 64);
+    assertFalse(p.hasRemaining());
+    assertEquals(TextParser.EOF, p.consume());
+  }
+
+  private static byte[] bytes(int... values) {
+    var bytes = new byte[values.length];
+    for (int idx = 0; idx < values.length; idx++) bytes[idx] = (byte) values[idx];
+    return bytes;
+  }
+
+  private MappedFileTextParser initObjUnderTest(byte[] content, int windowSize) throws IOException {
+    var file = Files.write(this.tempDir.resolve("text"), content);
+    return new MappedFileTextParser(file, windowSize);
+  }
+
+  private static String consumeAll(AbstractTextParser p) {
+    var buf = new StringBuilder();
+    int ch;
+    while ((ch = p.consume()) != TextParser.EOF) buf.appendCodePoint(ch);
+    return buf.toString();
+  }
+}
@@ -0,0 +1,77 @@
+package com.jakemarsden.java.lexer.text;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class StructuralIndexTest {
+
+  @Test
+  void findsEveryStructuralByte() {
+    // long enough to span several words of the bitmap, with a tail which isn't a whole word
+    var text = "int a = b / c; // x\n\"s\" + 'c' * d \\ e\r\n".repeat(5) + "€ f";
+    var index = initObjUnderTest(text, 0);
+
+    var expected = new ArrayList<Integer>();
+    var bytes = text.getBytes(UTF_8);
+    for (int idx = 0; idx < bytes.length; idx++) {
+      if (bytes[idx] < 0 || "\n\r\"'/*\\".indexOf(bytes[idx]) >= 0) expected.add(idx);
+    }
+    assertEquals(expected, structuralIndices(index, bytes.length));
+  }
+
+  @Test
+  void nextStructural() {
+    var index = initObjUnderTest("abc*" + "x".repeat(100) + "/yz", 0);
+    assertEquals(3, index.nextStructural(0));
+    assertEquals(3, index.nextStructural(3));
+    assertEquals(104, index.nextStructural(4), "Skips whole words of the bitmap");
+    assertEquals(107, index.nextStructural(105), "End of the text");
+    assertEquals(107, index.nextStructural(200), "Past the end of the text");
+  }
+
+  @Test
+  void offsetRange() {
+    var buf = ByteBuffer.wrap("/*ab*/cd/".getBytes(UTF_8), 2, 5).slice();
+    var index = new StructuralIndex(buf, 0, buf.limit());
+    assertEquals(2, index.nextStructural(0));
+    assertEquals(3, index.nextStructural(3), "Trailing '/' is outside of the range");
+  }
+
+  @Test
+  void lineStartsAreCodePointOffsets() {
+    var index = initObjUnderTest("ab\n€\r\n😀c\rd\n", 0);
+    var lines = index.lines();
+    assertEquals(0, lines.startOf(0));
+    assertEquals(3, lines.startOf(1));
+    assertEquals(6, lines.startOf(2), "CRLF is a single line terminator");
+    assertEquals(9, lines.startOf(3), "A supplementary character is a single code point");
+    assertEquals(11, lines.startOf(4));
+    assertEquals(4, lines.lineOf(100));
+  }
+
+  @Test
+  void lineStartsAreRelativeToTheStart() {
+    var index = initObjUnderTest("\n\na\nb", 1);
+    assertEquals(1, index.lines().startOf(1));
+    assertEquals(3, index.lines().startOf(2));
+    assertEquals(2, index.lines().lineOf(100));
+  }
+
+  private static StructuralIndex initObjUnderTest(String text, int start) {
+    var bytes = text.getBytes(UTF_8);
+    return new StructuralIndex(ByteBuffer.wrap(bytes), start, bytes.length);
+  }
+
+  private static List<Integer> structuralIndices(StructuralIndex index, int end) {
+    var indices = new ArrayList<Integer>();
+    for (int idx = index.nextStructural(0); idx < end; idx = index.nextStructural(idx + 1)) {
+      indices.add(idx);
+    }
+    return indices;
+  }
+}
@@ -1,9 +1,16 @@
 package com.jakemarsden.java.lexer.text;
 
+import static java.nio.charset.StandardCharsets.ISO_8859_1;
+import static java.nio.charset.StandardCharsets.UTF_16BE;
+import static java.nio.charset.StandardCharsets.UTF_16LE;
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
+import java.io.ByteArrayInputStream;
+import java.io.StringReader;
 import org.junit.jupiter.api.Test;
 
 class TextParserTest {
@@ -49,6 +56,184 @@ class TextParserTest {
     assertEquals(TextPosition.start(), p.getPosition(), "Position did not advance");
   }
 
+  @Test
+  void peekFarAhead() {
+    var text = "abcdefghijklmnopqrstuvwxyz".repeat(4);
+    var p = initObjUnderTest(text);
+    assertEquals('z', p.peek(text.length() - 1));
+    assertEquals(TextParser.EOF, p.peek(text.length()));
+    assertEquals('a', p.peek());
+    assertEquals(TextPosition.start(), p.getPosition(), "Position did not advance");
+  }
+
+  @Test
+  void markAndReset() {
+    var text = "abcdefghijklmnopqrstuvwxyz".repeat(4);
+    var p = initObjUnderTest(text);
+    p.skip(3);
+    p.mark();
+    p.skip(text.length() - 4);
+    assertEquals('z', p.consume());
+    assertEquals(TextParser.EOF, p.consume());
+
+    p.reset();
+    assertEquals(TextPosition.of(0, 3, 3), p.getPosition(), "Position was reset");
+    assertEquals('d', p.consume());
+    p.reset();
+    assertEquals('d', p.consume(), "Mark was retained");
+  }
+
+  @Test
+  void resetThrowsWhenNotMarked() {
+    var p = initObjUnderTest("abcd");
+    p.skip(1);
+    assertThrows(IllegalStateException.class, p::reset);
+    assertEquals(TextPosition.of(0, 1, 1), p.getPosition(), "Position did not change");
+  }
+
+  @Test
+  void markedTextWrapsAroundBuffer() {
+    // the initial buffer holds 16 characters, so the marked text wraps around the end of it
+    var p = initObjUnderTest("abcdefghijklmnopqrstuvwxyz😀");
+    p.skip(12);
+    p.mark();
+    p.skip(15);
+    assertEquals("mnopqrstuvwxyz😀", p.getMarkedText().toString());
+  }
+
+  @Test
+  void getMarkedTextThrowsWhenNotMarked() {
+    var p = initObjUnderTest("abcd");
+    p.skip(1);
+    assertThrows(IllegalStateException.class, p::getMarkedText);
+  }
+
+  @Test
+  void skipWhileAndSkipUntil() {
+    var p = initObjUnderTest("  \n\u2003abc1_;x\r\ny\"z");
+    assertEquals(4, p.skipWhile(CharClass.WHITESPACE));
+    assertEquals(TextPosition.of(1, 1, 4), p.getPosition());
+    assertEquals(5, p.skipWhile(CharClass.IDENTIFIER_PART));
+    assertEquals(';', p.peek());
+    assertEquals(0, p.skipWhile(CharClass.IDENTIFIER_PART));
+    assertEquals(3, p.skipUntil(CharClass.DOUBLE_QUOTE | CharClass.LINE_FEED));
+    assertEquals(2, p.skipUntil(CharClass.DOUBLE_QUOTE));
+    assertEquals(TextPosition.of(2, 1, 14), p.getPosition(), "Lines were counted");
+    assertEquals('"', p.peek());
+    p.skip(1);
+    assertEquals(1, p.skipUntil(CharClass.DOUBLE_QUOTE));
+    assertFalse(p.hasRemaining());
+  }
+
+  @Test
+  void skipWhileThrowsOnMultipleClasses() {
+    var p = initObjUnderTest("abcd");
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> p.skipWhile(CharClass.WHITESPACE | CharClass.IDENTIFIER_PART));
+  }
+
+  @Test
+  void lineTerminators() {
+    var p = initObjUnderTest("a\nb\r\nc\rd\n\ne");
+    p.skip(1);
+    assertEquals(TextPosition.of(0, 1, 1), p.getPosition(), "Before \\n");
+    p.skip(1);
+    assertEquals(TextPosition.of(1, 0, 2), p.getPosition(), "After \\n");
+    p.skip(2);
+    assertEquals(TextPosition.of(1, 2, 4), p.getPosition(), "Between \\r\\n");
+    p.skip(1);
+    assertEquals(TextPosition.of(2, 0, 5), p.getPosition(), "After \\r\\n");
+    p.skip(2);
+    assertEquals(TextPosition.of(3, 0, 7), p.getPosition(), "After \\r");
+    p.skip(3);
+    assertEquals(TextPosition.of(5, 0, 10), p.getPosition(), "After \\n\\n");
+  }
+
+  @Test
+  void positionsAreResolvedLazily() {
+    var p = initObjUnderTest("ab\ncd");
+    p.skip(1);
+    var position = p.getPosition();
+    p.skip(3);
+    assertEquals(TextPosition.of(0, 1, 1), position);
+    assertEquals(TextPosition.of(1, 1, 4), p.getPosition());
+  }
+
+  @Test
+  void resetForgetsLines() {
+    var p = initObjUnderTest("a\nb\nc");
+    p.mark();
+    p.skip(4);
+    assertEquals(TextPosition.of(2, 0, 4), p.getPosition());
+    p.reset();
+    p.skip(2);
+    assertEquals(TextPosition.of(1, 0, 2), p.getPosition());
+  }
+
+  @Test
+  void readerPairsSurrogatesAcrossBlocks() {
+    // 😀 has 2 chars but 1 code point, and is split across the first and second blocks
+    var text = "a".repeat(CharBufferCodePointSource.BLOCK_SIZE - 1) + "😀b";
+    var p = new TextParser(new StringReader(text));
+    assertEquals(text, consumeAll(p));
+    assertEquals(TextPosition.of(0, text.length() - 1, text.length() - 1), p.getPosition());
+  }
+
+  @Test
+  void readerSkipsByteOrderMark() {
+    var p = new TextParser(new StringReader("\uFEFFab\uFEFF"));
+    assertEquals("ab\uFEFF", consumeAll(p));
+  }
+
+  @Test
+  void inputStreamUsesDefaultCharset() {
+    var text = "aé€😀b".repeat(CharBufferCodePointSource.BLOCK_SIZE / 3);
+    var p = new TextParser(new ByteArrayInputStream(text.getBytes(UTF_8)), UTF_8);
+    assertEquals(text, consumeAll(p));
+
+    p = new TextParser(new ByteArrayInputStream("aé".getBytes(ISO_8859_1)), ISO_8859_1);
+    assertEquals("aé", consumeAll(p));
+  }
+
+  @Test
+  void inputStreamDetectsCharsetFromByteOrderMark() {
+    var text = "\uFEFFaé€😀b";
+    var p = new TextParser(new ByteArrayInputStream(text.getBytes(UTF_8)), ISO_8859_1);
+    assertEquals("aé€😀b", consumeAll(p));
+    p = new TextParser(new ByteArrayInputStream(text.getBytes(UTF_16BE)), ISO_8859_1);
+    assertEquals("aé€😀b", consumeAll(p));
+    p = new TextParser(new ByteArrayInputStream(text.getBytes(UTF_16LE)), ISO_8859_1);
+    assertEquals("aé€😀b", consumeAll(p));
+  }
+
+  @Test
+  void inputStreamReplacesMalformedInput() {
+    var p = new TextParser(new ByteArrayInputStream(new byte[] {'a', (byte) 0xFF, 'b'}), UTF_8);
+    assertEquals("a\uFFFDb", consumeAll(p));
+  }
+
+  @Test
+  void emptyInputStream() {
+    var p = new TextParser(new ByteArrayInputStream(new byte[0]), UTF_8);
+    assertEquals(TextParser.EOF, p.peek());
+  }
+
+  @Test
+  void textOfEarlierCharactersIsNotRetained() {
+    var p = initObjUnderTest("abc");
+    p.skip(2);
+    assertThrows(UnsupportedOperationException.class, () -> p.getText(0, 1));
+    assertEquals(TextPosition.of(0, 1, 1), p.positionOf(1));
+  }
+
+  private static String consumeAll(AbstractTextParser p) {
+    var buf = new StringBuilder();
+    int ch;
+    while ((ch = p.consume()) != TextParser.EOF) buf.appendCodePoint(ch);
+    return buf.toString();
+  }
+
   private static TextParser initObjUnderTest(String text) {
     return new TextParser(text.codePoints().iterator());
   }
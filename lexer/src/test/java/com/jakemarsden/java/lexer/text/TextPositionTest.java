@@ -0,0 +1,71 @@
+package com.jakemarsden.java.lexer.text;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class TextPositionTest {
+
+  private static final long LARGE = 3L * Integer.MAX_VALUE;
+
+  @Test
+  void compareTo() {
+    assertTrue(TextPosition.of(0, 0, 0).compareTo(TextPosition.of(0, 1, 1)) < 0);
+    assertTrue(TextPosition.of(0, 1, 1).compareTo(TextPosition.of(0, 0, 0)) > 0);
+    assertEquals(0, TextPosition.of(0, 1, 1).compareTo(TextPosition.of(0, 1, 1)));
+
+    assertTrue(TextPosition.of(0, 0, 0).compareTo(TextPosition.of(1, 0, LARGE)) < 0);
+    assertTrue(TextPosition.of(1, 0, LARGE).compareTo(TextPosition.of(0, 0, 0)) > 0);
+  }
+
+  @Test
+  void resolvesLinesFromTable() {
+    var lines = new LineStartTable();
+    lines.add(10);
+    lines.add(20);
+
+    assertEquals(TextPosition.of(0, 0, 0), TextPosition.of(lines, 0));
+    assertEquals(TextPosition.of(0, 9, 9), TextPosition.of(lines, 9));
+    assertEquals(TextPosition.of(1, 0, 10), TextPosition.of(lines, 10));
+    assertEquals(TextPosition.of(2, 5, 25), TextPosition.of(lines, 25));
+  }
+
+  @Test
+  void resolvesLinesBeyondIntegerRange() {
+    var lines = new LineStartTable();
+    lines.add(10);
+    lines.add(LARGE);
+    lines.add(LARGE + 10);
+
+    assertEquals(TextPosition.of(1, 5, 15), TextPosition.of(lines, 15));
+    assertEquals(TextPosition.of(2, 1, LARGE + 1), TextPosition.of(lines, LARGE + 1));
+    assertEquals(TextPosition.of(3, 0, LARGE + 10), TextPosition.of(lines, LARGE + 10));
+
+    lines.truncate(LARGE);
+    assertEquals(TextPosition.of(2, 10, LARGE + 10), TextPosition.of(lines, LARGE + 10));
+  }
+
+  @Test
+  void resolveStopsReferringToTable() {
+    var lines = new LineStartTable();
+    lines.add(10);
+    var position = TextPosition.of(lines, 15);
+    var eager = TextPosition.of(0, 5, LARGE);
+
+    assertSame(position, position.resolve());
+    lines.clear();
+    assertEquals(TextPosition.of(1, 5, 15), position);
+    assertSame(eager, eager.resolve());
+    assertEquals(TextPosition.of(0, 5, LARGE), eager);
+  }
+
+  @Test
+  void columnThrowsWhenTooLong() {
+    var lines = new LineStartTable();
+    assertThrows(ArithmeticException.class, () -> TextPosition.of(lines, LARGE).column());
+    assertEquals(0, TextPosition.of(lines, LARGE).line());
+  }
+}
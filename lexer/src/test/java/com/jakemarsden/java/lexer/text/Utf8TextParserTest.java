@@ -0,0 +1,164 @@
+package com.jakemarsden.java.lexer.text;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.ByteBuffer;
+import org.junit.jupiter.api.Test;
+
+class Utf8TextParserTest {
+
+  @Test
+  void decodesMultiByteCharacters() {
+    // 1, 2, 3 and 4 byte sequences
+    var text = "aé€😀b";
+    var p = initObjUnderTest(text.getBytes(UTF_8));
+    assertTrue(p.hasRemaining(5));
+    assertFalse(p.hasRemaining(6));
+    assertEquals(0xE9, p.peek(1));
+    assertEquals(0x20AC, p.peek(2));
+    assertEquals(0x1F600, p.peek(3));
+    assertEquals('b', p.peek(4));
+    assertEquals(TextParser.EOF, p.peek(5));
+    assertEquals(text, consumeAll(p));
+    assertEquals(TextPosition.of(0, 5, 5), p.getPosition());
+  }
+
+  @Test
+  void malformedSequencesAreReplaced() {
+    // truncated sequence, unexpected continuation byte, invalid byte
+    var p = initObjUnderTest(new byte[] {(byte) 0xE2, 'a', (byte) 0x82, (byte) 0xFF});
+    assertEquals("�a��", consumeAll(p));
+  }
+
+  @Test
+  void skipsByteOrderMark() {
+    var p = initObjUnderTest(new byte[] {(byte) 0xEF, (byte) 0xBB, (byte) 0xBF, 'a'});
+    assertEquals("a", consumeAll(p));
+  }
+
+  @Test
+  void byteBufferRange() {
+    var buf = ByteBuffer.wrap("abcdef".getBytes(UTF_8)).position(1).limit(4);
+    var p = new Utf8TextParser(buf);
+    assertEquals("bcd", consumeAll(p));
+    assertEquals(1, buf.position(), "Position was not modified");
+    assertEquals(4, buf.limit(), "Limit was not modified");
+  }
+
+  @Test
+  void markedText() {
+    var p = initObjUnderTest("ab€cd".getBytes(UTF_8));
+    p.mark();
+    p.skip(2);
+    assertEquals("ab", p.getMarkedText().toString(), "ASCII text");
+    assertEquals("ab".hashCode(), p.getMarkedText().hashCode());
+    assertEquals(textOf("ab", 0, 2), p.getMarkedText());
+    assertEquals(p.getMarkedText(), textOf("ab", 0, 2));
+    assertNotEquals(textOf("ac", 0, 2), p.getMarkedText());
+    assertNotEquals("ab", p.getMarkedText());
+    p.skip(2);
+    assertEquals("ab€c", p.getMarkedText().toString(), "Multi-byte text");
+    p.mark();
+    p.skip(1);
+    assertEquals("d", p.getMarkedText().toString(), "ASCII text after multi-byte text");
+  }
+
+  @Test
+  void skipWhileAndSkipUntil() {
+    var p = initObjUnderTest(" \n\u2003ab€c;".getBytes(UTF_8));
+    assertEquals(3, p.skipWhile(CharClass.WHITESPACE));
+    assertEquals(TextPosition.of(1, 1, 3), p.getPosition());
+    assertEquals(2, p.skipWhile(CharClass.IDENTIFIER_PART));
+    assertEquals(0x20AC, p.peek());
+    assertEquals(3, p.skipUntil(CharClass.LINE_FEED | CharClass.DOUBLE_QUOTE));
+    assertFalse(p.hasRemaining());
+  }
+
+  @Test
+  void markAndReset() {
+    var p = initObjUnderTest("a€cd".getBytes(UTF_8));
+    p.skip(1);
+    p.mark();
+    p.skip(2);
+    p.reset();
+    assertEquals(TextPosition.of(0, 1, 1), p.getPosition(), "Position was reset");
+    assertEquals(0x20AC, p.consume());
+  }
+
+  @Test
+  void positionsMatchCharSequenceTextParser() {
+    var text = "/* a\r\n * \"b\"\r */ c €\n\n\"d\" // e 😀\nf\r".repeat(3);
+    var p = initObjUnderTest(text.getBytes(UTF_8));
+    var expected = new CharSequenceTextParser(text);
+    while (expected.hasRemaining()) {
+      assertEquals(expected.getPosition(), p.getPosition());
+      assertEquals(expected.consume(), p.consume());
+    }
+    assertEquals(expected.getPosition(), p.getPosition());
+  }
+
+  @Test
+  void skipUntilJumpsBetweenStructuralBytes() {
+    var p = initObjUnderTest("/* a\nb ' €\r\n*/ c".getBytes(UTF_8));
+    p.skip(2);
+    p.mark();
+    assertEquals(5, p.skipUntil(CharClass.SINGLE_QUOTE));
+    assertEquals(TextPosition.of(1, 2, 7), p.getPosition());
+    assertEquals(5, p.skipUntil(CharClass.ASTERISK), "Stops at non-ASCII, then carries on");
+    assertEquals(TextPosition.of(2, 0, 12), p.getPosition());
+    assertEquals(" a\nb ' €\r\n", p.getMarkedText().toString());
+
+    p.reset();
+    assertEquals(TextPosition.of(0, 2, 2), p.getPosition(), "Lines survive a reset");
+    assertEquals(10, p.skipUntil(CharClass.ASTERISK));
+    assertEquals(TextPosition.of(2, 0, 12), p.getPosition());
+  }
+
+  @Test
+  void textOfEarlierCharacters() {
+    var p = initObjUnderTest("ab€c\n😀de".getBytes(UTF_8));
+    p.skip(8);
+    assertEquals("ab", p.getText(0, 2).toString());
+    assertEquals("€c", p.getText(2, 4).toString());
+    assertEquals("de", p.getText(6, 8).toString(), "After multi-byte sequences");
+    assertEquals(TextPosition.of(1, 1, 6), p.positionOf(6));
+  }
+
+  @Test
+  void setTextStartsAgain() {
+    var p = initObjUnderTest("a😀b\n\"c\"\n/* d */".repeat(20).getBytes(UTF_8));
+    p.skip(100);
+
+    p.setText("€x\ny".getBytes(UTF_8));
+    assertEquals(TextPosition.start(), p.getPosition());
+    assertEquals("€x\ny", consumeAll(p));
+    assertEquals("x\n", p.getText(1, 3).toString());
+    assertEquals(TextPosition.of(1, 0, 3), p.positionOf(3));
+
+    p.setText(ByteBuffer.wrap("\uFEFFab\"c\"".getBytes(UTF_8)));
+    assertEquals(2, p.skipUntil(CharClass.DOUBLE_QUOTE), "Byte order mark is skipped");
+    assertEquals(TextPosition.of(0, 2, 2), p.getPosition());
+  }
+
+  private static Utf8TextParser initObjUnderTest(byte[] text) {
+    return new Utf8TextParser(text);
+  }
+
+  private static String consumeAll(AbstractTextParser p) {
+    var buf = new StringBuilder();
+    int ch;
+    while ((ch = p.consume()) != TextParser.EOF) buf.appendCodePoint(ch);
+    return buf.toString();
+  }
+
+  /** @return a slice of the code points in the range {@code [from, to)} of the {@code text} */
+  private static CharSequence textOf(String text, int from, int to) {
+    var p = new CharSequenceTextParser(text);
+    p.skip(to);
+    return p.getText(from, to);
+  }
+}
@@ -0,0 +1,43 @@
+package com.jakemarsden.java.lexer.token;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import com.jakemarsden.java.lexer.text.TextPosition;
+import java.util.Optional;
+import org.junit.jupiter.api.Test;
+
+class ReservedWordsTest {
+
+  @Test
+  void recognisesEveryKeyword() {
+    for (var keyword : Keyword.values()) {
+      var word = new StringBuilder(keyword.toString());
+      assertEquals(Token.keyword(keyword, atStart()), ReservedWords.maybeToken(word, atStart()));
+      assertEquals(Optional.of(keyword), Keyword.of(word));
+    }
+  }
+
+  @Test
+  void recognisesLiterals() {
+    assertEquals(Token.nullLiteral(atStart()), ReservedWords.maybeToken("null", atStart()));
+    assertEquals(
+        Token.booleanLiteral(true, atStart()), ReservedWords.maybeToken("true", atStart()));
+    assertEquals(
+        Token.booleanLiteral(false, atStart()), ReservedWords.maybeToken("false", atStart()));
+    assertEquals(Optional.empty(), Keyword.of("null"));
+  }
+
+  @Test
+  void ignoresNonReservedWords() {
+    for (var word :
+        new String[] {"", "a", "__", "Class", "nul", "nulll", "whiles", "synchronizedX"}) {
+      assertNull(ReservedWords.maybeToken(word, atStart()), word);
+      assertEquals(Optional.empty(), Keyword.of(word), word);
+    }
+  }
+
+  private static TextPosition atStart() {
+    return TextPosition.start();
+  }
+}